@@ -0,0 +1,27 @@
+package com.mal.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "kyc.batching")
+public class BatchingProperties {
+
+    // concurrent sanctions checks sent as one bulk screening call
+    private Policy sanctions = new Policy();
+
+    @Data
+    public static class Policy {
+
+        private boolean enabled = false;
+        private String path = "/api/v1/check-sanctions/bulk";
+
+        // a batch is sent once it holds max-size checks or its first check has waited max-wait
+        private int maxSize = 50;
+        private Duration maxWait = Duration.ofMillis(20);
+    }
+}
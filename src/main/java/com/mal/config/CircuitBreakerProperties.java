@@ -0,0 +1,47 @@
+package com.mal.config;
+
+import com.mal.integration.Provider;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "kyc.circuit-breaker")
+public class CircuitBreakerProperties {
+
+    private Policy document = new Policy();
+    private Policy biometric = new Policy();
+    private Policy address = new Policy();
+    private Policy sanctions = new Policy();
+
+    public Policy forProvider(Provider provider) {
+        return switch (provider) {
+            case DOCUMENT -> document;
+            case BIOMETRIC -> biometric;
+            case ADDRESS -> address;
+            case SANCTIONS -> sanctions;
+        };
+    }
+
+    @Data
+    public static class Policy {
+
+        private boolean enabled = true;
+
+        // rates are taken over the last window-size calls, once minimum-calls have been seen
+        private int windowSize = 20;
+        private int minimumCalls = 10;
+
+        // percent of calls; reaching either opens the breaker
+        private double failureRateThreshold = 50;
+        private double slowCallRateThreshold = 80;
+        private Duration slowCallDuration = Duration.ofSeconds(3);
+
+        // open: fail fast for this long, then let half-open-calls trial calls through
+        private Duration waitInOpen = Duration.ofSeconds(30);
+        private int halfOpenCalls = 3;
+    }
+}
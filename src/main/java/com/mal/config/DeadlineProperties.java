@@ -0,0 +1,19 @@
+package com.mal.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "kyc.deadline")
+public class DeadlineProperties {
+
+    // end-to-end budget for one verification, kept under the gateway timeout
+    private Duration budget = Duration.ofSeconds(9);
+
+    // upper bound for budgets requested through the X-Request-Timeout-Ms header
+    private Duration max = Duration.ofSeconds(30);
+}
@@ -0,0 +1,23 @@
+package com.mal.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "kyc.execution")
+public class ExecutionProperties {
+
+    private ExecutionMode mode = ExecutionMode.REACTIVE;
+
+    // PLATFORM only: threads and queued calls per provider
+    private int poolSize = 16;
+    private int queueCapacity = 256;
+
+    public enum ExecutionMode {
+        REACTIVE,
+        PLATFORM,
+        VIRTUAL
+    }
+}
@@ -0,0 +1,45 @@
+package com.mal.config;
+
+import com.mal.integration.Provider;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "kyc.hedging")
+public class HedgingProperties {
+
+    private Policy document = new Policy();
+    private Policy biometric = new Policy();
+    private Policy address = new Policy();
+    private Policy sanctions = new Policy();
+
+    public Policy forProvider(Provider provider) {
+        return switch (provider) {
+            case DOCUMENT -> document;
+            case BIOMETRIC -> biometric;
+            case ADDRESS -> address;
+            case SANCTIONS -> sanctions;
+        };
+    }
+
+    @Data
+    public static class Policy {
+
+        private boolean enabled = false;
+
+        // hedge once the primary is slower than this percentile of recent latencies
+        private double percentile = 0.95;
+        private Duration minDelay = Duration.ofMillis(50);
+
+        // used until min-samples latencies have been observed
+        private Duration initialDelay = Duration.ofSeconds(1);
+        private int minSamples = 20;
+
+        // hedges may not exceed this fraction of calls
+        private double maxRatio = 0.1;
+    }
+}
@@ -0,0 +1,19 @@
+package com.mal.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "kyc.idempotency")
+public class IdempotencyProperties {
+
+    private boolean enabled = true;
+
+    // completed decisions kept for replay to retried requests
+    private long maxSize = 10_000;
+    private Duration ttl = Duration.ofMinutes(10);
+}
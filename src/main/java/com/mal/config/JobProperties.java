@@ -0,0 +1,20 @@
+package com.mal.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "kyc.jobs")
+public class JobProperties {
+
+    // jobs kept for polling, pending and finished
+    private long maxSize = 10_000;
+    private Duration ttl = Duration.ofMinutes(15);
+
+    // submissions beyond this many running jobs are refused with 429
+    private int maxInFlight = 200;
+}
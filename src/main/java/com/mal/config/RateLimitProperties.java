@@ -1,27 +1,126 @@
 package com.mal.config;
 
+import com.mal.integration.Provider;
+import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+
+/**
+ * Quotas for the provider rate limiters. {@code limit}, {@code windowMillis} and {@code burst}
+ * are the defaults; each provider can override any of them under its own key, since every
+ * provider enforces its own quota.
+ */
+@Data
 @Component
 @ConfigurationProperties(prefix = "kyc.rate-limit")
 public class RateLimitProperties {
+
     private int limit;
     private long windowMillis;
 
-    public int getLimit() {
-        return limit;
+    // permits that may be taken back to back; defaults to limit
+    private Integer burst;
+
+    // where the buckets live: this JVM, a file shared by the JVMs on the host, or a Redis server
+    private Backend backend = Backend.MEMORY;
+    private MappedFile mappedFile = new MappedFile();
+    private Redis redis = new Redis();
+
+    // AIMD: follow the provider's real capacity below the configured limit
+    private Adaptive adaptive = new Adaptive();
+
+    // share of the burst held back for interactive calls; background calls cannot take it
+    private double interactiveReserve = 0.0;
+
+    // QUEUE: callers wait in FIFO order for the next permit, up to their deadline and max-wait
+    private Admission admission = Admission.REJECT;
+    private int maxQueueDepth = 50;
+    private Duration maxWait = Duration.ofSeconds(5);
+
+    private Quota document = new Quota();
+    private Quota biometric = new Quota();
+    private Quota address = new Quota();
+    private Quota sanctions = new Quota();
+
+    public Quota forProvider(Provider provider) {
+        var quota = switch (provider) {
+            case DOCUMENT -> document;
+            case BIOMETRIC -> biometric;
+            case ADDRESS -> address;
+            case SANCTIONS -> sanctions;
+        };
+
+        var resolved = new Quota();
+        resolved.setLimit(quota.getLimit() != null ? quota.getLimit() : limit);
+        resolved.setWindowMillis(quota.getWindowMillis() != null ? quota.getWindowMillis() : windowMillis);
+        resolved.setBurst(quota.getBurst() != null ? quota.getBurst()
+                : burst != null ? burst : resolved.getLimit());
+        resolved.setInteractiveReserve(quota.getInteractiveReserve() != null
+                ? quota.getInteractiveReserve() : interactiveReserve);
+        return resolved;
+    }
+
+    public enum Backend {
+        MEMORY,
+        MAPPED_FILE,
+        REDIS
+    }
+
+    public enum Admission {
+        REJECT,
+        QUEUE
+    }
+
+    @Data
+    public static class Quota {
+
+        private Integer limit;
+        private Long windowMillis;
+        private Integer burst;
+        private Double interactiveReserve;
+
+        /**
+         * Permits background calls must leave in the bucket.
+         */
+        public int reservedPermits() {
+            return (int) Math.ceil(burst * interactiveReserve);
+        }
     }
 
-    public void setLimit(int limit) {
-        this.limit = limit;
+    @Data
+    public static class MappedFile {
+
+        private String path = System.getProperty("java.io.tmpdir") + "/kyc-rate-limit.bin";
     }
 
-    public long getWindowMillis() {
-        return windowMillis;
+    @Data
+    public static class Redis {
+
+        private String host = "localhost";
+        private int port = 6379;
+        private String keyPrefix = "kyc:rate-limit";
+        private Duration timeout = Duration.ofMillis(500);
+
+        // permits fetched per round trip; an instance can run ahead of the shared limit by this much
+        private int leaseSize = 2;
     }
 
-    public void setWindowMillis(long windowMillis) {
-        this.windowMillis = windowMillis;
+    @Data
+    public static class Adaptive {
+
+        private boolean enabled = false;
+        private double minLimit = 1;
+
+        // multiplicative cut on 429, timeout or slow response; at most one per cooldown
+        private double decreaseFactor = 0.5;
+        private Duration cooldown = Duration.ofSeconds(5);
+
+        // responses slower than this count as overload; unset ignores latency
+        private Duration latencyThreshold;
+
+        // longest Retry-After honoured
+        private Duration maxPause = Duration.ofMinutes(1);
     }
 }
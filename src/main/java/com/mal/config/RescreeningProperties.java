@@ -0,0 +1,32 @@
+package com.mal.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "kyc.rescreening")
+public class RescreeningProperties {
+
+    // re-screen stored customers whenever the local watchlist adds or changes entries
+    private boolean enabled = false;
+
+    // customer identities as NDJSON, one {customerId, fullName, dateOfBirth, nationality} per line
+    private String customers;
+
+    // progress and changes still to screen, so a restart resumes where it stopped
+    private String checkpoint = "./data/rescreening/checkpoint.json";
+
+    // one NDJSON line per customer the provider reports as a HIT
+    private String results = "./data/rescreening/hits.ndjson";
+
+    // customers screened between checkpoints, and sanctions checks in flight
+    private int chunkSize = 500;
+    private int concurrency = 8;
+
+    // wait before retrying from the last checkpoint when the provider could not be asked
+    private Duration retryDelay = Duration.ofMinutes(1);
+}
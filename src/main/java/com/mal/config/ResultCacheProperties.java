@@ -0,0 +1,36 @@
+package com.mal.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "kyc.cache")
+public class ResultCacheProperties {
+
+    // CLEAR screenings by normalized identity; dropped whenever the watchlist version changes
+    private Policy sanctions = new Policy();
+
+    // PASS results of the same customer's resubmitted document / selfie, for resumed sessions; opt-in
+    private Policy document = optIn();
+    private Policy biometric = optIn();
+
+    private static Policy optIn() {
+        var policy = new Policy();
+        policy.setEnabled(false);
+        policy.setMaxSize(10_000);
+        policy.setTtl(Duration.ofMinutes(15));
+        return policy;
+    }
+
+    @Data
+    public static class Policy {
+
+        private boolean enabled = true;
+        private long maxSize = 50_000;
+        private Duration ttl = Duration.ofHours(1);
+    }
+}
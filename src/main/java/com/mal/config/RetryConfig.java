@@ -1,9 +0,0 @@
-package com.mal.config;
-
-import org.springframework.context.annotation.Configuration;
-import org.springframework.retry.annotation.EnableRetry;
-
-@EnableRetry
-@Configuration
-public class RetryConfig {
-}
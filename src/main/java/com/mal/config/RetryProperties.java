@@ -0,0 +1,28 @@
+package com.mal.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Set;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "kyc.retry")
+public class RetryProperties {
+
+    // total attempts per call, including the first; 1 disables retries
+    private int attempts = 3;
+
+    // exponential backoff from backoff up to max-backoff, each delay shortened by up to jitter of itself
+    private Duration backoff = Duration.ofMillis(200);
+    private Duration maxBackoff = Duration.ofSeconds(2);
+    private double jitter = 0.5;
+
+    // retries may not exceed this fraction of each provider's calls
+    private double budgetRatio = 0.1;
+
+    // besides timeouts and connection errors
+    private Set<Integer> statuses = Set.of(500, 502, 503, 504);
+}
@@ -0,0 +1,33 @@
+package com.mal.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "kyc.watchlist")
+public class WatchlistProperties {
+
+    // local pre-screening against a watchlist export (.csv or .json)
+    private boolean enabled = false;
+    private String path;
+
+    // delta files (.csv / .json with an optional action column) applied on top of path in file name order
+    private String deltaDir;
+
+    // compiled index files are written here and memory-mapped; without it the index is held in direct memory
+    private String indexDir;
+
+    // how often path and delta-dir are checked; a new version is built in the background and swapped in
+    private Duration reloadInterval = Duration.ofMinutes(1);
+
+    // names scoring below this against every listed name have no candidates (see NameMatcher)
+    private double similarityFloor = 0.8;
+    private int maxCandidates = 10;
+
+    // answer CLEAR without the remote provider when a name has no candidates
+    private boolean clearLocally = false;
+}
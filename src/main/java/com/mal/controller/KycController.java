@@ -1,13 +1,32 @@
 package com.mal.controller;
 
+import com.mal.integration.Priority;
 import com.mal.model.KycDecision;
+import com.mal.model.VerificationJob;
 import com.mal.model.VerificationRequest;
+import com.mal.service.BatchVerificationService;
 import com.mal.service.KycService;
+import com.mal.service.VerificationJobService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
 
 @RestController
 @RequiredArgsConstructor
@@ -15,9 +34,57 @@ import org.springframework.web.bind.annotation.RestController;
 public class KycController {
 
     private final KycService kycService;
+    private final BatchVerificationService batchService;
+    private final VerificationJobService jobService;
 
     @PostMapping("/verify")
-    public KycDecision verify(@RequestBody VerificationRequest request) {
-        return kycService.verify(request);
+    public Mono<KycDecision> verify(
+            @RequestBody VerificationRequest request,
+            @RequestHeader(name = "X-Request-Timeout-Ms", required = false) Long timeoutMs,
+            @RequestHeader(name = "X-Priority", defaultValue = "INTERACTIVE") Priority priority) {
+        return kycService.verify(request, budget(timeoutMs)).contextWrite(priority::writeTo);
+    }
+
+    @PostMapping(value = "/verify/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> verifyStream(
+            @RequestBody VerificationRequest request,
+            @RequestHeader(name = "X-Request-Timeout-Ms", required = false) Long timeoutMs) {
+        return kycService.verifyStream(request, budget(timeoutMs))
+                .map(event -> ServerSentEvent.builder(event.data()).event(event.name()).build());
+    }
+
+    @PostMapping(
+            value = "/verify/batch",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<KycDecision> verifyBatch(HttpServletRequest request) throws IOException {
+        return batchService.verify(request.getInputStream());
+    }
+
+    @PostMapping("/verifications")
+    public ResponseEntity<VerificationJob> submit(
+            @RequestBody VerificationRequest request,
+            @RequestHeader(name = "X-Priority", defaultValue = "INTERACTIVE") Priority priority) {
+        return jobService.submit(request, priority)
+                .map(job -> ResponseEntity
+                        .accepted()
+                        .location(ServletUriComponentsBuilder.fromCurrentRequest()
+                                .path("/{id}")
+                                .buildAndExpand(job.id())
+                                .toUri())
+                        .body(job))
+                .orElseGet(() -> ResponseEntity
+                        .status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .build());
+    }
+
+    @GetMapping("/verifications/{id}")
+    public ResponseEntity<VerificationJob> job(@PathVariable String id) {
+        return ResponseEntity.of(jobService.find(id));
+    }
+
+    private Duration budget(Long timeoutMs) {
+        return timeoutMs == null ? null : Duration.ofMillis(timeoutMs);
     }
 }
@@ -0,0 +1,174 @@
+package com.mal.integration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongSupplier;
+
+/**
+ * AIMD limit in front of a provider's configured {@link RateLimiter}. The configured quota stays
+ * the ceiling; below it the rate follows what the provider reports:
+ * <ul>
+ *     <li>HTTP 429 cuts the rate by {@code decreaseFactor} and, with {@code Retry-After}, stops
+ *     admitting calls until then</li>
+ *     <li>a response slower than {@code latencyThreshold}, or a timeout, cuts the rate the same way</li>
+ *     <li>every other response adds {@code 1 / limit}, i.e. one permit per window's worth of
+ *     successes</li>
+ * </ul>
+ * Cuts are at most one per {@code cooldown}, so a burst of slow responses to calls that were
+ * already in flight counts once. The rate never drops below {@code minLimit}.
+ */
+@Slf4j
+final class AdaptiveRateLimiter implements RateLimiter, RateLimitFeedback {
+
+    private final Provider provider;
+    private final RateLimiter quota;
+    private final TokenBucketRateLimiter gate;
+    private final double maxLimit;
+    private final double minLimit;
+    private final double decreaseFactor;
+    private final long latencyThresholdNanos;
+    private final long cooldownNanos;
+    private final Duration maxPause;
+    private final LongSupplier nanoClock;
+    private final Clock clock;
+
+    private volatile double limit;
+    private volatile long pausedUntilNanos;
+    private long lastDecreaseNanos;
+
+    AdaptiveRateLimiter(
+            Provider provider,
+            RateLimiter quota,
+            int maxLimit,
+            Duration window,
+            int burst,
+            double minLimit,
+            double decreaseFactor,
+            Duration latencyThreshold,
+            Duration cooldown,
+            Duration maxPause,
+            LongSupplier nanoClock,
+            Clock clock) {
+        this.provider = provider;
+        this.quota = quota;
+        this.gate = new TokenBucketRateLimiter(maxLimit, window, burst, nanoClock);
+        this.maxLimit = maxLimit;
+        this.minLimit = Math.min(minLimit, maxLimit);
+        this.decreaseFactor = decreaseFactor;
+        this.latencyThresholdNanos = latencyThreshold == null ? Long.MAX_VALUE : latencyThreshold.toNanos();
+        this.cooldownNanos = cooldown.toNanos();
+        this.maxPause = maxPause;
+        this.nanoClock = nanoClock;
+        this.clock = clock;
+        this.limit = maxLimit;
+        this.pausedUntilNanos = nanoClock.getAsLong();
+        this.lastDecreaseNanos = nanoClock.getAsLong() - cooldownNanos;
+    }
+
+    double limit() {
+        return limit;
+    }
+
+    @Override
+    public boolean tryAcquire(int reserved) {
+        if (pausedNanos() > 0 || !gate.tryAcquire(reserved)) {
+            return false;
+        }
+        if (!quota.tryAcquire(reserved)) {
+            gate.release();
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void release() {
+        gate.release();
+        quota.release();
+    }
+
+    @Override
+    public long nanosUntilAvailable(int ahead, int reserved) {
+        return Math.max(pausedNanos(), Math.max(
+                gate.nanosUntilAvailable(ahead, reserved),
+                quota.nanosUntilAvailable(ahead, reserved)));
+    }
+
+    @Override
+    public void onResponse(long latencyNanos) {
+        if (latencyNanos > latencyThresholdNanos) {
+            decrease("latency", null);
+        } else {
+            increase();
+        }
+    }
+
+    @Override
+    public void onError(Throwable error) {
+        if (error instanceof WebClientResponseException e && e.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value()) {
+            decrease("throttled", retryAfter(e.getHeaders()));
+        } else if (error instanceof TimeoutException) {
+            decrease("timeout", null);
+        }
+    }
+
+    private synchronized void increase() {
+        setLimit(Math.min(maxLimit, limit + 1 / limit));
+    }
+
+    private synchronized void decrease(String reason, Duration pause) {
+        long now = nanoClock.getAsLong();
+        if (pause != null) {
+            pausedUntilNanos = Math.max(pausedUntilNanos, now + pause.toNanos());
+        }
+        if (now - lastDecreaseNanos < cooldownNanos) {
+            return;
+        }
+        lastDecreaseNanos = now;
+        var previous = limit;
+        setLimit(Math.max(minLimit, limit * decreaseFactor));
+        log.warn("rate_limit_decreased provider={} reason={} limit={} previous={} pause={}",
+                provider.key(), reason, String.format("%.2f", limit), String.format("%.2f", previous), pause);
+    }
+
+    private void setLimit(double value) {
+        limit = value;
+        gate.setLimit(value);
+    }
+
+    private long pausedNanos() {
+        return Math.max(0, pausedUntilNanos - nanoClock.getAsLong());
+    }
+
+    // Retry-After is either delay-seconds or an HTTP-date
+    Duration retryAfter(HttpHeaders headers) {
+        var value = headers.getFirst(HttpHeaders.RETRY_AFTER);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        Duration pause;
+        try {
+            pause = Duration.ofSeconds(Long.parseLong(value.trim()));
+        } catch (NumberFormatException notSeconds) {
+            try {
+                var until = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+                pause = Duration.between(clock.instant(), until);
+            } catch (DateTimeParseException unparseable) {
+                return null;
+            }
+        }
+        if (pause.isNegative()) {
+            return Duration.ZERO;
+        }
+        return pause.compareTo(maxPause) > 0 ? maxPause : pause;
+    }
+}
@@ -0,0 +1,47 @@
+package com.mal.integration;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket for extra attempts (hedges, retries): every call earns {@code ratio} of a
+ * token, every extra attempt spends a whole one, so extras stay below that share of traffic.
+ */
+final class AttemptBudget {
+
+    private static final long SCALE = 1_000;
+
+    private final long earnPerCall;
+    private final long maxTokens;
+    private final AtomicLong tokens = new AtomicLong();
+
+    AttemptBudget(double ratio, int maxTokens) {
+        this(ratio, maxTokens, 0);
+    }
+
+    AttemptBudget(double ratio, int maxTokens, int initialTokens) {
+        this.earnPerCall = Math.round(ratio * SCALE);
+        this.maxTokens = maxTokens * SCALE;
+        this.tokens.set(Math.min(maxTokens, initialTokens) * SCALE);
+    }
+
+    void deposit() {
+        tokens.accumulateAndGet(earnPerCall, (current, earned) -> Math.min(maxTokens, current + earned));
+    }
+
+    boolean tryWithdraw() {
+        while (true) {
+            long current = tokens.get();
+            if (current < SCALE) {
+                return false;
+            }
+            if (tokens.compareAndSet(current, current - SCALE)) {
+                return true;
+            }
+        }
+    }
+
+    // gives back a token withdrawn for an attempt that was never made
+    void refund() {
+        tokens.accumulateAndGet(SCALE, (current, refunded) -> Math.min(maxTokens, current + refunded));
+    }
+}
@@ -1,57 +1,55 @@
 package com.mal.integration;
 
+import com.mal.config.ResultCacheProperties;
 import com.mal.integration.dto.BiometricRequest;
 import com.mal.integration.dto.BiometricResponse;
 import com.mal.integration.dto.VerificationStatus;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Recover;
-import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 
 import java.time.Duration;
+import java.util.Objects;
 
 @Component
 public class BiometricClient {
 
-    private final WebClient client;
-    private final Duration timeout;
-    private final SimpleRateLimiter limiter;
+    private final ProviderCall<BiometricResponse> call;
+    private final ResultCache<BiometricRequest, BiometricResponse> cache;
 
     public BiometricClient(
             WebClient.Builder builder,
-            SimpleRateLimiter limiter,
+            ProviderCallFactory calls,
+            ResultCacheProperties cacheProps,
+            MeterRegistry meterRegistry,
             @Value("${kyc.endpoints.biometric}") String url,
             @Value("${kyc.timeout.biometric}") Duration timeout
     ) {
-        this.limiter = limiter;
-        this.client = builder.baseUrl(url).build();
-        this.timeout = timeout;
+        this.cache = new ResultCache<>(Provider.BIOMETRIC, cacheProps.getBiometric(),
+                BiometricClient::fingerprint,
+                response -> response.status() == VerificationStatus.PASS, meterRegistry);
+        this.call = calls.create(
+                Provider.BIOMETRIC,
+                builder.baseUrl(url).build(),
+                "/api/v1/face-match",
+                BiometricResponse.class,
+                timeout,
+                new BiometricResponse(VerificationStatus.MANUAL_REVIEW, 0, 0.0),
+                new BiometricResponse(VerificationStatus.FAIL, 0, 0.0)
+        );
     }
 
-    @Retryable(
-            maxAttemptsExpression = "#{${kyc.retry.attempts}}",
-            backoff = @Backoff(delayExpression = "#{${kyc.retry.backoff}.toMillis()}")
-    )
-    public BiometricResponse match(BiometricRequest request) {
-
-        if (!limiter.tryAcquire()) {
-            return new BiometricResponse(VerificationStatus.MANUAL_REVIEW, 0, 0.0);
-        }
-
-        return client.post()
-                .uri("/api/v1/face-match")
-                .bodyValue(request)
-                .retrieve()
-                .bodyToMono(BiometricResponse.class)
-                .timeout(timeout)
-                .onErrorReturn(new BiometricResponse(VerificationStatus.FAIL, 0, 0.0))
-                .block();
+    public Mono<BiometricResponse> match(BiometricRequest request) {
+        return cache.get(request, () -> call.execute(request));
     }
 
-    @Recover
-    public BiometricResponse recover(Throwable t, BiometricRequest req) {
-        return new BiometricResponse(VerificationStatus.FAIL, 0, 0.0);
+    // customerId is part of the key: a PASS never carries over to another customer
+    static String fingerprint(BiometricRequest request) {
+        return ResultCache.fingerprint(
+                request.customerId(),
+                Objects.toString(request.selfieUrl(), "").trim(),
+                Objects.toString(request.idPhotoUrl(), "").trim());
     }
 }
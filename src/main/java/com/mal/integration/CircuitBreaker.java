@@ -0,0 +1,216 @@
+package com.mal.integration;
+
+import com.mal.config.CircuitBreakerProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.util.Locale;
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker for one provider.
+ * <ul>
+ *     <li>{@code CLOSED}: calls go through; once the failure rate or slow-call rate over the last
+ *     {@code window-size} calls reaches its threshold, the breaker opens</li>
+ *     <li>{@code OPEN}: calls are refused without touching the provider for {@code wait-in-open}</li>
+ *     <li>{@code HALF_OPEN}: {@code half-open-calls} trial calls go through; the breaker closes if
+ *     they stay under both thresholds and opens again otherwise</li>
+ * </ul>
+ * A 4xx other than 429 means the provider is up and answering, so it counts as a success.
+ * Outcomes of calls admitted before the last state change are ignored.
+ */
+@Slf4j
+public final class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    public record Snapshot(State state, int calls, double failureRate, double slowCallRate) {
+    }
+
+    private static final byte FAILED = 1;
+    private static final byte SLOW = 2;
+
+    private final Provider provider;
+    private final CircuitBreakerProperties.Policy policy;
+    private final long slowCallNanos;
+    private final long waitInOpenNanos;
+    private final LongSupplier nanoClock;
+    private final MeterRegistry meterRegistry;
+
+    // last window-size outcomes of the current state
+    private final byte[] outcomes;
+    private int next;
+    private int calls;
+    private int failures;
+    private int slowCalls;
+
+    private volatile State state = State.CLOSED;
+    private long generation;
+    private long openedAtNanos;
+    private int trialCalls;
+
+    CircuitBreaker(Provider provider, CircuitBreakerProperties.Policy policy, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.provider = provider;
+        this.policy = policy;
+        this.slowCallNanos = policy.getSlowCallDuration().toNanos();
+        this.waitInOpenNanos = policy.getWaitInOpen().toNanos();
+        this.nanoClock = nanoClock;
+        this.meterRegistry = meterRegistry;
+        this.outcomes = new byte[Math.max(1, policy.getWindowSize())];
+
+        for (var candidate : State.values()) {
+            meterRegistry.gauge("kyc.circuit.state",
+                    Tags.of("provider", provider.key(), "state", candidate.name().toLowerCase(Locale.ROOT)),
+                    this, breaker -> breaker.state == candidate ? 1 : 0);
+        }
+    }
+
+    public State state() {
+        return state;
+    }
+
+    public synchronized Snapshot snapshot() {
+        return new Snapshot(state, calls, rate(failures), rate(slowCalls));
+    }
+
+    /**
+     * @return a permit to report the call's outcome on, or {@code null} when the breaker is open
+     */
+    synchronized Permit tryAcquire() {
+        if (!policy.isEnabled()) {
+            return new Permit(-1);
+        }
+        if (state == State.OPEN && nanoClock.getAsLong() - openedAtNanos >= waitInOpenNanos) {
+            transition(State.HALF_OPEN);
+        }
+        if (state == State.OPEN || (state == State.HALF_OPEN && trialCalls >= policy.getHalfOpenCalls())) {
+            count("not_permitted");
+            return null;
+        }
+        if (state == State.HALF_OPEN) {
+            trialCalls++;
+        }
+        return new Permit(generation);
+    }
+
+    private synchronized void record(long admittedIn, boolean failed, long latencyNanos) {
+        count(failed ? "failure" : "success");
+        if (admittedIn != generation) {
+            return;
+        }
+
+        var outcome = (byte) ((failed ? FAILED : 0) | (latencyNanos >= slowCallNanos ? SLOW : 0));
+        if (calls == outcomes.length) {
+            forget(outcomes[next]);
+        } else {
+            calls++;
+        }
+        outcomes[next] = outcome;
+        next = (next + 1) % outcomes.length;
+        if ((outcome & FAILED) != 0) {
+            failures++;
+        }
+        if ((outcome & SLOW) != 0) {
+            slowCalls++;
+        }
+
+        if (state == State.HALF_OPEN && calls >= policy.getHalfOpenCalls()) {
+            transition(tripped() ? State.OPEN : State.CLOSED);
+        } else if (state == State.CLOSED && calls >= policy.getMinimumCalls() && tripped()) {
+            transition(State.OPEN);
+        }
+    }
+
+    private synchronized void abandon(long admittedIn) {
+        if (admittedIn == generation && state == State.HALF_OPEN) {
+            trialCalls--;
+        }
+    }
+
+    private boolean tripped() {
+        return rate(failures) >= policy.getFailureRateThreshold()
+                || rate(slowCalls) >= policy.getSlowCallRateThreshold();
+    }
+
+    private void transition(State to) {
+        log.warn("circuit_state provider={} from={} to={} calls={} failureRate={} slowCallRate={}",
+                provider.key(), state, to, calls, rate(failures), rate(slowCalls));
+        state = to;
+        generation++;
+        openedAtNanos = nanoClock.getAsLong();
+        trialCalls = 0;
+        next = 0;
+        calls = 0;
+        failures = 0;
+        slowCalls = 0;
+    }
+
+    private void forget(byte outcome) {
+        if ((outcome & FAILED) != 0) {
+            failures--;
+        }
+        if ((outcome & SLOW) != 0) {
+            slowCalls--;
+        }
+    }
+
+    private double rate(int count) {
+        return calls == 0 ? 0 : 100.0 * count / calls;
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("kyc.circuit.calls", "provider", provider.key(), "outcome", outcome).increment();
+    }
+
+    static boolean isFailure(Throwable error) {
+        return !(error instanceof WebClientResponseException e
+                && e.getStatusCode().is4xxClientError()
+                && e.getStatusCode().value() != HttpStatus.TOO_MANY_REQUESTS.value());
+    }
+
+    /**
+     * One admitted call. Exactly one of {@link #onSuccess}, {@link #onError} or {@link #release}
+     * counts; later calls are ignored.
+     */
+    final class Permit {
+
+        private final long generation;
+        private boolean done;
+
+        private Permit(long generation) {
+            this.generation = generation;
+        }
+
+        void onSuccess(long latencyNanos) {
+            if (complete()) {
+                record(generation, false, latencyNanos);
+            }
+        }
+
+        void onError(Throwable error, long latencyNanos) {
+            if (complete()) {
+                record(generation, isFailure(error), latencyNanos);
+            }
+        }
+
+        // the call ended without an outcome, e.g. it was rate-limited or cancelled
+        void release() {
+            if (complete()) {
+                abandon(generation);
+            }
+        }
+
+        private boolean complete() {
+            synchronized (CircuitBreaker.this) {
+                if (done || generation < 0) {
+                    return false;
+                }
+                done = true;
+                return true;
+            }
+        }
+    }
+}
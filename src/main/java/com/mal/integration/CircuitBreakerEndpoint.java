@@ -0,0 +1,31 @@
+package com.mal.integration;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@code /actuator/circuitbreakers}: state and current rates of each provider's breaker.
+ */
+@Component
+@Endpoint(id = "circuitbreakers")
+public class CircuitBreakerEndpoint {
+
+    private final ProviderCircuitBreakers breakers;
+
+    public CircuitBreakerEndpoint(ProviderCircuitBreakers breakers) {
+        this.breakers = breakers;
+    }
+
+    @ReadOperation
+    public Map<String, CircuitBreaker.Snapshot> circuitBreakers() {
+        var snapshots = new LinkedHashMap<String, CircuitBreaker.Snapshot>();
+        for (var provider : Provider.values()) {
+            snapshots.put(provider.key(), breakers.forProvider(provider).snapshot());
+        }
+        return snapshots;
+    }
+}
@@ -0,0 +1,62 @@
+package com.mal.integration;
+
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+
+/**
+ * Point in time by which a verification must be answered. Carried in the Reactor
+ * context so every provider call can size its attempt to the budget that is left.
+ */
+public final class Deadline {
+
+    private static final Object CONTEXT_KEY = Deadline.class;
+    private static final Deadline NONE = new Deadline(0, false);
+    private static final Duration UNBOUNDED = Duration.ofSeconds(Long.MAX_VALUE, 999_999_999);
+
+    private final long expiresAtNanos;
+    private final boolean bounded;
+
+    private Deadline(long expiresAtNanos, boolean bounded) {
+        this.expiresAtNanos = expiresAtNanos;
+        this.bounded = bounded;
+    }
+
+    public static Deadline after(Duration budget) {
+        return new Deadline(System.nanoTime() + budget.toNanos(), true);
+    }
+
+    public static Deadline none() {
+        return NONE;
+    }
+
+    public static Deadline from(ContextView ctx) {
+        return ctx.getOrDefault(CONTEXT_KEY, NONE);
+    }
+
+    public Context writeTo(Context ctx) {
+        return ctx.put(CONTEXT_KEY, this);
+    }
+
+    public Duration remaining() {
+        if (!bounded) {
+            return UNBOUNDED;
+        }
+        return Duration.ofNanos(Math.max(0, expiresAtNanos - System.nanoTime()));
+    }
+
+    public boolean isExpired() {
+        return bounded && expiresAtNanos - System.nanoTime() <= 0;
+    }
+
+    public Duration cap(Duration timeout) {
+        var remaining = remaining();
+        return remaining.compareTo(timeout) < 0 ? remaining : timeout;
+    }
+
+    @Override
+    public String toString() {
+        return bounded ? "Deadline[remaining=" + remaining() + "]" : "Deadline[none]";
+    }
+}
@@ -1,57 +1,62 @@
 package com.mal.integration;
 
+import com.mal.config.ResultCacheProperties;
 import com.mal.integration.dto.DocumentVerificationRequest;
 import com.mal.integration.dto.DocumentVerificationResponse;
 import com.mal.integration.dto.VerificationStatus;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Recover;
-import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 
 import java.time.Duration;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.regex.Pattern;
 
 @Component
 public class DocumentVerificationClient {
 
-    private final WebClient client;
-    private final Duration timeout;
-    private final SimpleRateLimiter limiter;
+    private static final Pattern NOT_ALPHANUMERIC = Pattern.compile("[^\\p{Alnum}]+");
+
+    private final ProviderCall<DocumentVerificationResponse> call;
+    private final ResultCache<DocumentVerificationRequest, DocumentVerificationResponse> cache;
 
     public DocumentVerificationClient(
             WebClient.Builder builder,
-            SimpleRateLimiter limiter,
+            ProviderCallFactory calls,
+            ResultCacheProperties cacheProps,
+            MeterRegistry meterRegistry,
             @Value("${kyc.endpoints.document}") String url,
             @Value("${kyc.timeout.document}") Duration timeout
     ) {
-        this.limiter = limiter;
-        this.client = builder.baseUrl(url).build();
-        this.timeout = timeout;
+        this.cache = new ResultCache<>(Provider.DOCUMENT, cacheProps.getDocument(),
+                DocumentVerificationClient::fingerprint,
+                response -> response.status() == VerificationStatus.PASS, meterRegistry);
+        this.call = calls.create(
+                Provider.DOCUMENT,
+                builder.baseUrl(url).build(),
+                "/api/v1/verify-document",
+                DocumentVerificationResponse.class,
+                timeout,
+                new DocumentVerificationResponse(VerificationStatus.MANUAL_REVIEW, 0, null),
+                new DocumentVerificationResponse(VerificationStatus.FAIL, 0, null)
+        );
     }
 
-    @Retryable(
-            maxAttemptsExpression = "#{${kyc.retry.attempts}}",
-            backoff = @Backoff(delayExpression = "#{${kyc.retry.backoff}.toMillis()}")
-    )
-    public DocumentVerificationResponse verify(DocumentVerificationRequest request) {
-
-        if (!limiter.tryAcquire()) {
-            return new DocumentVerificationResponse(VerificationStatus.MANUAL_REVIEW, 0, null);
-        }
-
-        return client.post()
-                .uri("/api/v1/verify-document")
-                .bodyValue(request)
-                .retrieve()
-                .bodyToMono(DocumentVerificationResponse.class)
-                .timeout(timeout)
-                .onErrorReturn(new DocumentVerificationResponse(VerificationStatus.FAIL, 0, null))
-                .block();
+    public Mono<DocumentVerificationResponse> verify(DocumentVerificationRequest request) {
+        return cache.get(request, () -> call.execute(request));
     }
 
-    @Recover
-    public DocumentVerificationResponse recover(Throwable t, DocumentVerificationRequest req) {
-        return new DocumentVerificationResponse(VerificationStatus.FAIL, 0, null);
+    // customerId is part of the key: a PASS never carries over to someone else submitting the same document
+    static String fingerprint(DocumentVerificationRequest request) {
+        return ResultCache.fingerprint(
+                request.customerId(),
+                Objects.toString(request.documentType(), "").trim().toUpperCase(Locale.ROOT),
+                NOT_ALPHANUMERIC.matcher(Objects.toString(request.documentNumber(), ""))
+                        .replaceAll("").toUpperCase(Locale.ROOT),
+                Objects.toString(request.expiryDate(), "").trim(),
+                Objects.toString(request.documentImageUrl(), "").trim());
     }
 }
@@ -0,0 +1,89 @@
+package com.mal.integration;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket implemented as GCRA: the whole state is the theoretical arrival time of the
+ * next request, a single long updated by CAS, so acquiring takes no lock and allocates
+ * nothing. Subclasses decide where that long lives.
+ *
+ * <p>Tokens refill continuously at {@code limit} per {@code window}, so there is no window
+ * boundary at which a second full burst becomes available; at most {@code burst} permits
+ * are granted back to back.
+ */
+abstract class GcraRateLimiter implements RateLimiter {
+
+    private final long windowNanos;
+    private final int burst;
+    private final LongSupplier nanoClock;
+
+    // volatile so the rate can be retuned while in use
+    private volatile long intervalNanos;
+    private volatile long burstNanos;
+
+    GcraRateLimiter(int limit, Duration window, int burst, LongSupplier nanoClock) {
+        if (limit <= 0 || burst <= 0 || window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException(
+                    "invalid rate limit: limit=" + limit + " window=" + window + " burst=" + burst);
+        }
+        this.windowNanos = window.toNanos();
+        this.burst = burst;
+        this.nanoClock = nanoClock;
+        setLimit(limit);
+    }
+
+    /**
+     * Changes the refill rate to {@code limit} permits per window; the burst size stays, but
+     * never exceeds the new limit.
+     */
+    void setLimit(double limit) {
+        long interval = Math.max(1, (long) (windowNanos / limit));
+        intervalNanos = interval;
+        burstNanos = interval * Math.max(1, Math.min(burst, (long) Math.ceil(limit)));
+    }
+
+    abstract long nextFree();
+
+    abstract boolean compareAndSetNextFree(long expected, long next);
+
+    @Override
+    public boolean tryAcquire(int reserved) {
+        long allowance = burstNanos - intervalNanos * reserved;
+        while (true) {
+            long now = nanoClock.getAsLong();
+            long current = nextFree();
+            long next = Math.max(current, now) + intervalNanos;
+            if (next - now > allowance) {
+                return false;
+            }
+            if (compareAndSetNextFree(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public long nanosUntilAvailable(int ahead, int reserved) {
+        long now = nanoClock.getAsLong();
+        long next = Math.max(nextFree(), now) + intervalNanos * (ahead + 1L);
+        return Math.max(0, next - now - (burstNanos - intervalNanos * reserved));
+    }
+
+    /**
+     * A full bucket stays full.
+     */
+    @Override
+    public void release() {
+        while (true) {
+            long now = nanoClock.getAsLong();
+            long current = nextFree();
+            if (current - now <= 0) {
+                return;
+            }
+            if (compareAndSetNextFree(current, Math.max(current - intervalNanos, now))) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.mal.integration;
+
+import com.mal.config.HedgingProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Sends a second attempt when the first is slower than the provider's observed latency
+ * percentile and returns whichever answers first; the loser is cancelled. A hedge only spends
+ * the hedge budget, and only counts as sent, once it has a rate-limit permit.
+ */
+final class Hedging {
+
+    private static final int MAX_BURST = 10;
+
+    private final Provider provider;
+    private final HedgingProperties.Policy policy;
+    private final Timer latency;
+    private final AttemptBudget budget;
+    private final MeterRegistry meterRegistry;
+
+    Hedging(Provider provider, HedgingProperties.Policy policy, Timer latency, MeterRegistry meterRegistry) {
+        this.provider = provider;
+        this.policy = policy;
+        this.latency = latency;
+        this.budget = new AttemptBudget(policy.getMaxRatio(), MAX_BURST);
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @param hedge the second attempt, or {@code null} when there is no permit to send it with
+     */
+    <T> Mono<T> apply(Mono<T> primary, Supplier<Mono<T>> hedge, Deadline deadline) {
+        if (!policy.isEnabled()) {
+            return primary;
+        }
+        budget.deposit();
+
+        var delay = delay();
+        if (deadline.remaining().compareTo(delay) <= 0) {
+            return primary;
+        }
+
+        // a failed primary is not hedged; its error goes to the caller as is
+        var primaryFailed = Sinks.<Boolean>one();
+        var primaryError = new AtomicReference<Throwable>();
+        var first = primary.doOnError(e -> {
+            primaryError.set(e);
+            primaryFailed.tryEmitValue(true);
+        });
+
+        var second = Mono.delay(delay)
+                .takeUntilOther(primaryFailed.asMono())
+                .flatMap(tick -> {
+                    if (!budget.tryWithdraw()) {
+                        count("budget_exhausted");
+                        return Mono.<T>empty();
+                    }
+                    var attempt = hedge.get();
+                    if (attempt == null) {
+                        budget.refund();
+                        count("rate_limited");
+                        return Mono.<T>empty();
+                    }
+                    count("sent");
+                    return attempt.doOnNext(value -> count("won"));
+                });
+
+        // firstWithValue reports a race without a value as NoSuchElementException; retries and the
+        // circuit breaker classify the primary's own error, so that is what the caller gets
+        return Mono.firstWithValue(first, second)
+                .onErrorMap(NoSuchElementException.class, e -> primaryError.get() == null ? e : primaryError.get());
+    }
+
+    Duration delay() {
+        var snapshot = latency.takeSnapshot();
+        if (snapshot.count() >= policy.getMinSamples()) {
+            for (var value : snapshot.percentileValues()) {
+                if (value.percentile() == policy.getPercentile()) {
+                    var observed = Duration.ofNanos((long) value.value(TimeUnit.NANOSECONDS));
+                    return observed.compareTo(policy.getMinDelay()) < 0 ? policy.getMinDelay() : observed;
+                }
+            }
+        }
+        return policy.getInitialDelay();
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("kyc.hedge.total", "provider", provider.key(), "outcome", outcome).increment();
+    }
+}
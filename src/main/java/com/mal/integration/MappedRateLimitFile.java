@@ -0,0 +1,88 @@
+package com.mal.integration;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate-limit state in a memory-mapped file, so every JVM on the host that maps the same file
+ * shares the buckets. Each provider owns one cache-line sized slot holding its GCRA state,
+ * updated with a CAS on the mapped memory; no lock file and no system call per acquire.
+ *
+ * <p>Layout: a 64 byte header (magic) followed by one 64 byte slot per {@link Provider}.
+ * Time is wall-clock based, because {@code System.nanoTime} has no meaning across processes.
+ */
+final class MappedRateLimitFile implements Closeable {
+
+    private static final long MAGIC = 0x4B59_4352_4C30_3031L; // "KYCRL001"
+    private static final int SLOT = 64;
+    private static final VarHandle LONGS =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+
+    MappedRateLimitFile(Path path) throws IOException {
+        this.path = path;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) SLOT * (Provider.values().length + 1));
+
+        // a fresh file is zero-filled; the first process to see it stamps the header
+        LONGS.compareAndSet(buffer, 0, 0L, MAGIC);
+        long magic = (long) LONGS.getVolatile(buffer, 0);
+        if (magic != MAGIC) {
+            channel.close();
+            throw new IllegalStateException("not a rate-limit file: " + path);
+        }
+    }
+
+    RateLimiter limiter(Provider provider, int limit, Duration window, int burst) {
+        return new Slot((provider.ordinal() + 1) * SLOT, limit, window, burst);
+    }
+
+    @Override
+    public void close() throws IOException {
+        // the mapping stays valid until the buffer is collected
+        channel.close();
+    }
+
+    @Override
+    public String toString() {
+        return "MappedRateLimitFile[" + path + "]";
+    }
+
+    private final class Slot extends GcraRateLimiter {
+
+        private final int offset;
+
+        Slot(int offset, int limit, Duration window, int burst) {
+            // a zero slot means "full bucket", which is what max(nextFree, now) gives
+            super(limit, window, burst, () -> TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis()));
+            this.offset = offset;
+        }
+
+        @Override
+        long nextFree() {
+            return (long) LONGS.getVolatile(buffer, offset);
+        }
+
+        @Override
+        boolean compareAndSetNextFree(long expected, long next) {
+            return LONGS.compareAndSet(buffer, offset, expected, next);
+        }
+    }
+}
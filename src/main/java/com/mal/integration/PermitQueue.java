@@ -0,0 +1,235 @@
+package com.mal.integration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admission in front of a provider's {@link RateLimiter}. With queueing enabled,
+ * callers that find the bucket empty wait for the next permit in FIFO order instead of
+ * failing. Waiting is a timer, not a parked thread. A caller is turned away straight away if
+ * the queue is full or its turn would come after its deadline (or {@code maxWait}).
+ *
+ * <p>{@link Priority#BACKGROUND} calls may not take the last {@code reserved} permits in the
+ * bucket and are only served while no interactive call is waiting.
+ */
+@Slf4j
+final class PermitQueue {
+
+    private final Provider provider;
+    private final RateLimiter limiter;
+    private final boolean queueing;
+    private final int maxDepth;
+    private final Duration maxWait;
+    private final int reserved;
+    private final MeterRegistry meterRegistry;
+    private final Scheduler timer = Schedulers.parallel();
+
+    private final Map<Priority, Lane> lanes = new EnumMap<>(Priority.class);
+    private final AtomicInteger wip = new AtomicInteger();
+
+    PermitQueue(
+            Provider provider,
+            RateLimiter limiter,
+            boolean queueing,
+            int maxDepth,
+            Duration maxWait,
+            int reserved,
+            MeterRegistry meterRegistry) {
+        this.provider = provider;
+        this.limiter = limiter;
+        this.queueing = queueing;
+        this.maxDepth = maxDepth;
+        this.maxWait = maxWait;
+        this.reserved = reserved;
+        this.meterRegistry = meterRegistry;
+
+        for (var priority : Priority.values()) {
+            var lane = new Lane(priority == Priority.INTERACTIVE ? 0 : reserved);
+            lanes.put(priority, lane);
+            meterRegistry.gauge("kyc.ratelimit.queue.depth",
+                    Tags.of("provider", provider.key(), "priority", key(priority)), lane.depth);
+        }
+    }
+
+    /**
+     * A permit only if one is free and nobody of the same priority is queued ahead; used for hedges.
+     */
+    ProviderPermit tryAcquire(Priority priority) {
+        var lane = lanes.get(priority);
+        if (priority == Priority.BACKGROUND && !lanes.get(Priority.INTERACTIVE).waiters.isEmpty()) {
+            return null;
+        }
+        return lane.waiters.isEmpty() && limiter.tryAcquire(lane.reserved) ? permit() : null;
+    }
+
+    /**
+     * Emits a permit, or completes empty when the caller is turned away or its wait runs out.
+     */
+    Mono<ProviderPermit> acquire(Deadline deadline, Priority priority) {
+        return Mono.defer(() -> {
+            var permit = tryAcquire(priority);
+            if (permit != null) {
+                return Mono.just(permit);
+            }
+            if (!queueing) {
+                return reject(priority, "rejected");
+            }
+
+            var lane = lanes.get(priority);
+            var wait = deadline.cap(maxWait);
+            var ahead = lane.depth.incrementAndGet() - 1;
+            if (ahead >= maxDepth) {
+                lane.depth.decrementAndGet();
+                return reject(priority, "queue_full");
+            }
+            if (limiter.nanosUntilAvailable(ahead, lane.reserved) > wait.toNanos()) {
+                lane.depth.decrementAndGet();
+                return reject(priority, "wait_exceeds_deadline");
+            }
+
+            return Mono.<ProviderPermit>create(sink -> enqueue(lane, priority, sink, wait))
+                    .doOnDiscard(ProviderPermit.class, ProviderPermit::releaseIfUnsent);
+        });
+    }
+
+    private void enqueue(Lane lane, Priority priority, MonoSink<ProviderPermit> sink, Duration wait) {
+        var waiter = new Waiter(sink);
+        var timeout = timer.schedule(() -> {
+            if (abandon(lane, waiter)) {
+                count(priority, "timed_out");
+                sink.success();
+            }
+        }, wait.toNanos(), TimeUnit.NANOSECONDS);
+        sink.onCancel(() -> abandon(lane, waiter));
+        sink.onDispose(timeout);
+
+        count(priority, "queued");
+        lane.waiters.add(waiter);
+        drain();
+    }
+
+    private boolean abandon(Lane lane, Waiter waiter) {
+        if (waiter.done.compareAndSet(false, true)) {
+            lane.depth.decrementAndGet();
+            lane.waiters.remove(waiter);
+            return true;
+        }
+        return false;
+    }
+
+    // single drainer at a time; other callers just bump wip so the drainer loops again
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            // background waiters only move once no interactive caller is left waiting
+            if (serve(lanes.get(Priority.INTERACTIVE))) {
+                serve(lanes.get(Priority.BACKGROUND));
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    /**
+     * @return true once the lane is empty, false if it is waiting for the bucket to refill
+     */
+    private boolean serve(Lane lane) {
+        Waiter head;
+        while ((head = lane.waiters.peek()) != null) {
+            if (head.done.get()) {
+                lane.waiters.remove(head);
+                continue;
+            }
+            if (!limiter.tryAcquire(lane.reserved)) {
+                scheduleWake(lane);
+                return false;
+            }
+            if (head.done.compareAndSet(false, true)) {
+                lane.depth.decrementAndGet();
+                lane.waiters.remove(head);
+                head.sink.success(permit());
+            } else {
+                limiter.release();
+            }
+        }
+        return true;
+    }
+
+    // one wake per lane: a background wake, held back by the reserve, must not delay an interactive one
+    private void scheduleWake(Lane lane) {
+        if (lane.wakeScheduled.compareAndSet(false, true)) {
+            timer.schedule(() -> {
+                lane.wakeScheduled.set(false);
+                drain();
+            }, Math.max(limiter.nanosUntilAvailable(0, lane.reserved), 1), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private ProviderPermit permit() {
+        return new ProviderPermit(this::release);
+    }
+
+    private void release() {
+        limiter.release();
+        if (lanes.values().stream().anyMatch(lane -> !lane.waiters.isEmpty())) {
+            drain();
+        }
+    }
+
+    private Mono<ProviderPermit> reject(Priority priority, String outcome) {
+        count(priority, outcome);
+        if (queueing) {
+            log.warn("provider_limited provider={} priority={} reason={} reserved={}",
+                    provider.key(), key(priority), outcome, reserved);
+        }
+        return Mono.empty();
+    }
+
+    private void count(Priority priority, String outcome) {
+        meterRegistry.counter("kyc.ratelimit.admission",
+                "provider", provider.key(), "priority", key(priority), "outcome", outcome).increment();
+    }
+
+    private static String key(Priority priority) {
+        return priority.name().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Lane {
+
+        final int reserved;
+        final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+        final AtomicInteger depth = new AtomicInteger();
+        final AtomicBoolean wakeScheduled = new AtomicBoolean();
+
+        Lane(int reserved) {
+            this.reserved = reserved;
+        }
+    }
+
+    private static final class Waiter {
+
+        final MonoSink<ProviderPermit> sink;
+        final AtomicBoolean done = new AtomicBoolean();
+
+        Waiter(MonoSink<ProviderPermit> sink) {
+            this.sink = sink;
+        }
+    }
+}
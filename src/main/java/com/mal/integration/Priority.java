@@ -0,0 +1,25 @@
+package com.mal.integration;
+
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+/**
+ * Priority class of a verification, carried in the Reactor context next to the
+ * {@link Deadline}. Part of each provider's quota is held back for {@link #INTERACTIVE}
+ * calls, so background work such as batch re-screening cannot starve live onboarding.
+ */
+public enum Priority {
+
+    INTERACTIVE,
+    BACKGROUND;
+
+    private static final Object CONTEXT_KEY = Priority.class;
+
+    public static Priority from(ContextView ctx) {
+        return ctx.getOrDefault(CONTEXT_KEY, INTERACTIVE);
+    }
+
+    public Context writeTo(Context ctx) {
+        return ctx.put(CONTEXT_KEY, this);
+    }
+}
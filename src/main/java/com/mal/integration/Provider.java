@@ -0,0 +1,14 @@
+package com.mal.integration;
+
+import java.util.Locale;
+
+public enum Provider {
+    DOCUMENT,
+    BIOMETRIC,
+    ADDRESS,
+    SANCTIONS;
+
+    public String key() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,134 @@
+package com.mal.integration;
+
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * A single provider round trip shared by the clients: fails fast while the provider's
+ * {@link CircuitBreaker} is open, takes a rate-limit permit (waiting for one if admission
+ * queueing is on), bounds the attempt by the provider timeout and the caller's {@link Deadline},
+ * optionally hedges it, retries it within the provider's retry budget, and maps every failure to
+ * the provider's fallback response.
+ */
+@Slf4j
+class ProviderCall<T> {
+
+    private final Provider provider;
+    private final WebClient client;
+    private final String path;
+    private final Class<T> responseType;
+    private final Duration timeout;
+    private final PermitQueue permits;
+    private final RateLimitFeedback feedback;
+    private final CircuitBreaker breaker;
+    private final Timer latency;
+    private final Hedging hedging;
+    private final Retrying retrying;
+    private final T whenLimited;
+    private final T whenFailed;
+
+    ProviderCall(
+            Provider provider,
+            WebClient client,
+            String path,
+            Class<T> responseType,
+            Duration timeout,
+            PermitQueue permits,
+            RateLimitFeedback feedback,
+            CircuitBreaker breaker,
+            Timer latency,
+            Hedging hedging,
+            Retrying retrying,
+            T whenLimited,
+            T whenFailed) {
+        this.provider = provider;
+        this.client = client;
+        this.path = path;
+        this.responseType = responseType;
+        this.timeout = timeout;
+        this.permits = permits;
+        this.feedback = feedback;
+        this.breaker = breaker;
+        this.latency = latency;
+        this.hedging = hedging;
+        this.retrying = retrying;
+        this.whenLimited = whenLimited;
+        this.whenFailed = whenFailed;
+    }
+
+    Mono<T> execute(Object body) {
+        return Mono.deferContextual(ctx -> {
+            var deadline = Deadline.from(ctx);
+            if (deadline.isExpired()) {
+                log.warn("provider_skipped provider={} reason=DEADLINE", provider.key());
+                return Mono.just(whenFailed);
+            }
+
+            var call = breaker.tryAcquire();
+            if (call == null) {
+                log.warn("provider_skipped provider={} reason=CIRCUIT_OPEN", provider.key());
+                return Mono.just(whenFailed);
+            }
+
+            var priority = Priority.from(ctx);
+            return permits.acquire(deadline, priority)
+                    .map(permit -> {
+                        var start = System.nanoTime();
+                        return retrying.apply(attempt(permit, priority, deadline, body), () -> retry(call, priority, deadline, body), deadline)
+                                .doOnNext(response -> call.onSuccess(System.nanoTime() - start))
+                                .doOnError(e -> call.onError(e, System.nanoTime() - start))
+                                .onErrorReturn(whenFailed);
+                    })
+                    .defaultIfEmpty(Mono.just(whenLimited))
+                    .flatMap(Function.identity())
+                    .doFinally(signal -> call.release());
+        });
+    }
+
+    private Mono<T> attempt(ProviderPermit permit, Priority priority, Deadline deadline, Object body) {
+        return hedging.apply(send(permit, deadline, body), () -> hedge(priority, deadline, body), deadline);
+    }
+
+    // a retry needs a permit of its own, but does not queue for one; without one the call ends
+    // rate-limited, which says nothing about the provider's health, so the breaker is not told
+    private Mono<T> retry(CircuitBreaker.Permit call, Priority priority, Deadline deadline, Object body) {
+        var permit = permits.tryAcquire(priority);
+        if (permit == null) {
+            call.release();
+            return Mono.just(whenLimited);
+        }
+        return attempt(permit, priority, deadline, body);
+    }
+
+    // null without a permit, so the hedge is neither sent nor paid for
+    private Mono<T> hedge(Priority priority, Deadline deadline, Object body) {
+        var permit = permits.tryAcquire(priority);
+        return permit == null ? null : send(permit, deadline, body);
+    }
+
+    private Mono<T> send(ProviderPermit permit, Deadline deadline, Object body) {
+        return Mono.defer(() -> {
+            var start = System.nanoTime();
+            return client.post()
+                    .uri(path)
+                    .bodyValue(body)
+                    .httpRequest(httpRequest -> permit.markSent())
+                    .retrieve()
+                    .bodyToMono(responseType)
+                    .timeout(deadline.cap(timeout))
+                    .doOnNext(response -> {
+                        var took = System.nanoTime() - start;
+                        latency.record(took, TimeUnit.NANOSECONDS);
+                        feedback.onResponse(took);
+                    })
+                    .doOnError(feedback::onError)
+                    .doOnCancel(permit::releaseIfUnsent);
+        });
+    }
+}
@@ -0,0 +1,69 @@
+package com.mal.integration;
+
+import com.mal.config.HedgingProperties;
+import com.mal.config.RetryProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+
+/**
+ * Builds the per-provider {@link ProviderCall} for each client, wiring in the provider's
+ * rate limiter, circuit breaker and resilience policies.
+ */
+@Component
+public class ProviderCallFactory {
+
+    private final ProviderRateLimiters limiters;
+    private final ProviderCircuitBreakers breakers;
+    private final HedgingProperties hedging;
+    private final RetryProperties retry;
+    private final MeterRegistry meterRegistry;
+
+    public ProviderCallFactory(
+            ProviderRateLimiters limiters,
+            ProviderCircuitBreakers breakers,
+            HedgingProperties hedging,
+            RetryProperties retry,
+            MeterRegistry meterRegistry) {
+        this.limiters = limiters;
+        this.breakers = breakers;
+        this.hedging = hedging;
+        this.retry = retry;
+        this.meterRegistry = meterRegistry;
+    }
+
+    <T> ProviderCall<T> create(
+            Provider provider,
+            WebClient client,
+            String path,
+            Class<T> responseType,
+            Duration timeout,
+            T whenLimited,
+            T whenFailed) {
+
+        var policy = hedging.forProvider(provider);
+        var latency = Timer.builder("kyc.provider.latency")
+                .tag("provider", provider.key())
+                .publishPercentiles(0.5, policy.getPercentile(), 0.99)
+                .register(meterRegistry);
+
+        return new ProviderCall<>(
+                provider,
+                client,
+                path,
+                responseType,
+                timeout,
+                limiters.admission(provider),
+                limiters.feedback(provider),
+                breakers.forProvider(provider),
+                latency,
+                new Hedging(provider, policy, latency, meterRegistry),
+                new Retrying(provider, retry, meterRegistry),
+                whenLimited,
+                whenFailed
+        );
+    }
+}
@@ -0,0 +1,28 @@
+package com.mal.integration;
+
+import com.mal.config.CircuitBreakerProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * One {@link CircuitBreaker} per provider, so an outage at one provider fails fast without
+ * affecting calls to the others.
+ */
+@Component
+public class ProviderCircuitBreakers {
+
+    private final Map<Provider, CircuitBreaker> breakers = new EnumMap<>(Provider.class);
+
+    public ProviderCircuitBreakers(CircuitBreakerProperties props, MeterRegistry meterRegistry) {
+        for (var provider : Provider.values()) {
+            breakers.put(provider, new CircuitBreaker(provider, props.forProvider(provider), meterRegistry, System::nanoTime));
+        }
+    }
+
+    public CircuitBreaker forProvider(Provider provider) {
+        return breakers.get(provider);
+    }
+}
@@ -0,0 +1,27 @@
+package com.mal.integration;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Rate-limit permit held by a single provider call. If the call is cancelled before the
+ * request reaches the wire, the permit is handed back so the quota is not burned.
+ */
+final class ProviderPermit {
+
+    private final Runnable release;
+    private final AtomicBoolean settled = new AtomicBoolean();
+
+    ProviderPermit(Runnable release) {
+        this.release = release;
+    }
+
+    void markSent() {
+        settled.set(true);
+    }
+
+    void releaseIfUnsent() {
+        if (settled.compareAndSet(false, true)) {
+            release.run();
+        }
+    }
+}
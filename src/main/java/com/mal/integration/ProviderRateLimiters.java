@@ -0,0 +1,136 @@
+package com.mal.integration;
+
+import com.mal.config.RateLimitProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * One rate limiter per provider, so a busy provider cannot use up another provider's quota,
+ * each behind its own admission queue that holds part of the quota back for interactive calls.
+ * The limiters come from the {@link RateLimiter} backend chosen by {@code kyc.rate-limit.backend},
+ * optionally behind an {@link AdaptiveRateLimiter} that follows the provider's real capacity.
+ */
+@Slf4j
+@Component
+public class ProviderRateLimiters implements DisposableBean {
+
+    private final Map<Provider, RateLimiter> limiters = new EnumMap<>(Provider.class);
+    private final Map<Provider, PermitQueue> queues = new EnumMap<>(Provider.class);
+    private final Map<Provider, RateLimitFeedback> feedback = new EnumMap<>(Provider.class);
+    private final List<Closeable> resources = new ArrayList<>();
+
+    public ProviderRateLimiters(RateLimitProperties props, MeterRegistry meterRegistry) {
+        var queueing = props.getAdmission() == RateLimitProperties.Admission.QUEUE;
+        var backend = backend(props);
+        for (var provider : Provider.values()) {
+            var quota = props.forProvider(provider);
+            var limiter = backend.create(provider, quota);
+            if (props.getAdaptive().isEnabled()) {
+                var adaptive = adaptive(provider, limiter, quota, props.getAdaptive());
+                meterRegistry.gauge("kyc.ratelimit.limit", Tags.of("provider", provider.key()),
+                        adaptive, AdaptiveRateLimiter::limit);
+                feedback.put(provider, adaptive);
+                limiter = adaptive;
+            }
+            limiters.put(provider, limiter);
+            queues.put(provider, new PermitQueue(provider, limiter,
+                    queueing, props.getMaxQueueDepth(), props.getMaxWait(), quota.reservedPermits(), meterRegistry));
+            log.info("rate_limit provider={} backend={} limit={} windowMs={} burst={} reserved={} admission={}",
+                    provider.key(), props.getBackend(), quota.getLimit(), quota.getWindowMillis(), quota.getBurst(),
+                    quota.reservedPermits(), props.getAdmission());
+        }
+    }
+
+    public RateLimiter forProvider(Provider provider) {
+        return limiters.get(provider);
+    }
+
+    PermitQueue admission(Provider provider) {
+        return queues.get(provider);
+    }
+
+    RateLimitFeedback feedback(Provider provider) {
+        return feedback.getOrDefault(provider, RateLimitFeedback.NONE);
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        for (var resource : resources) {
+            resource.close();
+        }
+    }
+
+    private Backend backend(RateLimitProperties props) {
+        return switch (props.getBackend()) {
+            case MEMORY -> (provider, quota) -> new TokenBucketRateLimiter(
+                    quota.getLimit(), window(quota), quota.getBurst());
+            case MAPPED_FILE -> {
+                var file = mappedFile(Path.of(props.getMappedFile().getPath()));
+                yield (provider, quota) -> file.limiter(provider, quota.getLimit(), window(quota), quota.getBurst());
+            }
+            case REDIS -> {
+                var redis = props.getRedis();
+                var client = new RespClient(redis.getHost(), redis.getPort(), redis.getTimeout());
+                ExecutorService leases = Executors.newSingleThreadExecutor(r -> {
+                    var thread = new Thread(r, "kyc-rate-limit-lease");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                resources.add(client);
+                resources.add(leases::shutdownNow);
+                yield (provider, quota) -> {
+                    var limiter = new RedisRateLimiter(provider, client, leases, redis.getKeyPrefix(),
+                            quota.getLimit(), window(quota), redis.getLeaseSize(), System::currentTimeMillis);
+                    limiter.prefetch();
+                    return limiter;
+                };
+            }
+        };
+    }
+
+    private MappedRateLimitFile mappedFile(Path path) {
+        try {
+            var file = new MappedRateLimitFile(path);
+            resources.add(file);
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot map rate-limit file " + path, e);
+        }
+    }
+
+    private static AdaptiveRateLimiter adaptive(
+            Provider provider,
+            RateLimiter limiter,
+            RateLimitProperties.Quota quota,
+            RateLimitProperties.Adaptive adaptive) {
+        return new AdaptiveRateLimiter(provider, limiter,
+                quota.getLimit(), window(quota), quota.getBurst(),
+                adaptive.getMinLimit(), adaptive.getDecreaseFactor(), adaptive.getLatencyThreshold(),
+                adaptive.getCooldown(), adaptive.getMaxPause(), System::nanoTime, Clock.systemUTC());
+    }
+
+    private static Duration window(RateLimitProperties.Quota quota) {
+        return Duration.ofMillis(quota.getWindowMillis());
+    }
+
+    private interface Backend {
+
+        RateLimiter create(Provider provider, RateLimitProperties.Quota quota);
+    }
+}
@@ -0,0 +1,21 @@
+package com.mal.integration;
+
+/**
+ * What provider responses tell the rate limiter about the provider's real capacity.
+ */
+interface RateLimitFeedback {
+
+    RateLimitFeedback NONE = new RateLimitFeedback() {
+        @Override
+        public void onResponse(long latencyNanos) {
+        }
+
+        @Override
+        public void onError(Throwable error) {
+        }
+    };
+
+    void onResponse(long latencyNanos);
+
+    void onError(Throwable error);
+}
@@ -0,0 +1,31 @@
+package com.mal.integration;
+
+/**
+ * Per-provider permit source behind {@link PermitQueue}. Implementations are selected with
+ * {@code kyc.rate-limit.backend}: an in-process bucket, a bucket in a memory-mapped file shared
+ * by the JVMs on one host, or counters on a Redis-protocol server shared by all instances.
+ *
+ * <p>Every method is called on the request path and must not block.
+ */
+public interface RateLimiter {
+
+    default boolean tryAcquire() {
+        return tryAcquire(0);
+    }
+
+    /**
+     * Takes a permit only if at least {@code reserved} permits are left afterwards.
+     */
+    boolean tryAcquire(int reserved);
+
+    /**
+     * Hands back a permit that was acquired but not used.
+     */
+    void release();
+
+    /**
+     * Best estimate of the time until {@link #tryAcquire(int)} would succeed for the caller
+     * standing behind {@code ahead} others.
+     */
+    long nanosUntilAvailable(int ahead, int reserved);
+}
@@ -0,0 +1,151 @@
+package com.mal.integration;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Rate limiter shared by every instance through counters on a Redis-protocol server.
+ *
+ * <p>Permits are leased from the server in chunks of {@code leaseSize} and handed out locally,
+ * so the request path never waits on the network: {@link #tryAcquire(int)} only touches the
+ * local pool, and the next lease is fetched in the background once the pool runs low. The
+ * server keeps one counter per provider and window; a lease is granted against a sliding
+ * window estimate ({@code previous * (1 - elapsed) + current}), so there is no boundary burst.
+ * Leased permits stay usable after their window ends; they were already counted when leased,
+ * so an instance can run ahead of the shared limit by at most one lease.
+ *
+ * <p>While the server is unreachable no new permits are leased (fail closed).
+ */
+@Slf4j
+final class RedisRateLimiter implements RateLimiter {
+
+    private final Provider provider;
+    private final RespClient redis;
+    private final Executor executor;
+    private final String keyPrefix;
+    private final int limit;
+    private final long windowMillis;
+    private final int leaseSize;
+    private final long intervalMillis;
+    private final LongSupplier millisClock;
+
+    private final AtomicInteger tokens = new AtomicInteger();
+    private final AtomicBoolean leasing = new AtomicBoolean();
+    private volatile long remoteRemaining;
+    private volatile long nextLeaseAtMillis;
+
+    RedisRateLimiter(
+            Provider provider,
+            RespClient redis,
+            Executor executor,
+            String keyPrefix,
+            int limit,
+            Duration window,
+            int leaseSize,
+            LongSupplier millisClock) {
+        if (limit <= 0 || leaseSize <= 0 || window.toMillis() <= 0) {
+            throw new IllegalArgumentException(
+                    "invalid rate limit: limit=" + limit + " window=" + window + " lease=" + leaseSize);
+        }
+        this.provider = provider;
+        this.redis = redis;
+        this.executor = executor;
+        this.keyPrefix = keyPrefix;
+        this.limit = limit;
+        this.windowMillis = window.toMillis();
+        this.leaseSize = Math.min(leaseSize, limit);
+        this.intervalMillis = Math.max(1, windowMillis / limit);
+        this.millisClock = millisClock;
+    }
+
+    /**
+     * Fetches the first lease so the pool is not empty when traffic starts.
+     */
+    void prefetch() {
+        lease();
+    }
+
+    @Override
+    public boolean tryAcquire(int reserved) {
+        while (true) {
+            int available = tokens.get();
+            if (available <= 0 || available + remoteRemaining <= reserved) {
+                lease();
+                return false;
+            }
+            if (tokens.compareAndSet(available, available - 1)) {
+                if (available - 1 <= leaseSize / 2) {
+                    lease();
+                }
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public void release() {
+        tokens.incrementAndGet();
+    }
+
+    @Override
+    public long nanosUntilAvailable(int ahead, int reserved) {
+        if (tokens.get() > ahead && tokens.get() + remoteRemaining > reserved) {
+            return 0;
+        }
+        long untilLease = Math.max(1, nextLeaseAtMillis - millisClock.getAsLong());
+        return TimeUnit.MILLISECONDS.toNanos(untilLease + intervalMillis * ahead);
+    }
+
+    private void lease() {
+        if (millisClock.getAsLong() < nextLeaseAtMillis || !leasing.compareAndSet(false, true)) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                fetchLease();
+            } catch (IOException | RuntimeException e) {
+                log.warn("rate_limit_lease_failed provider={} error={}", provider.key(), e.toString());
+                nextLeaseAtMillis = millisClock.getAsLong() + intervalMillis;
+            } finally {
+                leasing.set(false);
+            }
+        });
+    }
+
+    private void fetchLease() throws IOException {
+        long now = millisClock.getAsLong();
+        long window = now / windowMillis;
+        double elapsed = (double) (now % windowMillis) / windowMillis;
+        var current = key(window);
+
+        var replies = redis.pipeline(List.of(
+                List.of("INCRBY", current, Integer.toString(leaseSize)),
+                List.of("PEXPIRE", current, Long.toString(windowMillis * 2)),
+                List.of("GET", key(window - 1))));
+        long counted = (Long) replies.get(0);
+        long previous = replies.get(2) == null ? 0 : Long.parseLong((String) replies.get(2));
+
+        double usedBefore = previous * (1 - elapsed) + (counted - leaseSize);
+        int granted = (int) Math.max(0, Math.min(leaseSize, Math.floor(limit - usedBefore)));
+        if (granted < leaseSize) {
+            redis.pipeline(List.of(List.of("DECRBY", current, Integer.toString(leaseSize - granted))));
+        }
+        remoteRemaining = (long) Math.max(0, Math.floor(limit - usedBefore - granted));
+        if (granted == 0) {
+            nextLeaseAtMillis = now + intervalMillis;
+        }
+        tokens.addAndGet(granted);
+    }
+
+    private String key(long window) {
+        return keyPrefix + ":" + provider.key() + ":" + window;
+    }
+}
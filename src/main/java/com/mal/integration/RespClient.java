@@ -0,0 +1,152 @@
+package com.mal.integration;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal blocking client for the Redis serialization protocol (RESP2): just enough to send
+ * pipelined commands and read integer, bulk-string and array replies. One connection,
+ * reopened after any I/O error. Not for use on request threads.
+ */
+final class RespClient implements Closeable {
+
+    private final String host;
+    private final int port;
+    private final int timeoutMillis;
+
+    private Socket socket;
+    private InputStream in;
+    private OutputStream out;
+
+    RespClient(String host, int port, Duration timeout) {
+        this.host = host;
+        this.port = port;
+        this.timeoutMillis = (int) timeout.toMillis();
+    }
+
+    /**
+     * Sends all commands in one write and returns their replies in order.
+     */
+    synchronized List<Object> pipeline(List<List<String>> commands) throws IOException {
+        try {
+            connect();
+            for (var command : commands) {
+                writeCommand(command);
+            }
+            out.flush();
+
+            var replies = new ArrayList<>(commands.size());
+            for (int i = 0; i < commands.size(); i++) {
+                replies.add(readReply());
+            }
+            return replies;
+        } catch (IOException e) {
+            disconnect();
+            throw e;
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        disconnect();
+    }
+
+    private void connect() throws IOException {
+        if (socket != null) {
+            return;
+        }
+        var s = new Socket();
+        s.connect(new InetSocketAddress(host, port), timeoutMillis);
+        s.setSoTimeout(timeoutMillis);
+        s.setTcpNoDelay(true);
+        socket = s;
+        in = new BufferedInputStream(s.getInputStream());
+        out = new BufferedOutputStream(s.getOutputStream());
+    }
+
+    private void disconnect() {
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // already broken
+            }
+        }
+        socket = null;
+        in = null;
+        out = null;
+    }
+
+    private void writeCommand(List<String> args) throws IOException {
+        out.write(('*' + Integer.toString(args.size()) + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        for (var arg : args) {
+            var bytes = arg.getBytes(StandardCharsets.UTF_8);
+            out.write(('$' + Integer.toString(bytes.length) + "\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.write(bytes);
+            out.write('\r');
+            out.write('\n');
+        }
+    }
+
+    private Object readReply() throws IOException {
+        int type = in.read();
+        var line = readLine();
+        return switch (type) {
+            case '+' -> line;
+            case '-' -> throw new IOException("server error: " + line);
+            case ':' -> Long.parseLong(line);
+            case '$' -> readBulk(Integer.parseInt(line));
+            case '*' -> readArray(Integer.parseInt(line));
+            case -1 -> throw new IOException("connection closed");
+            default -> throw new IOException("unexpected reply type: " + (char) type);
+        };
+    }
+
+    private String readBulk(int length) throws IOException {
+        if (length < 0) {
+            return null;
+        }
+        var bytes = in.readNBytes(length);
+        if (bytes.length < length) {
+            throw new IOException("connection closed");
+        }
+        readLine();
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private List<Object> readArray(int length) throws IOException {
+        if (length < 0) {
+            return null;
+        }
+        var items = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            items.add(readReply());
+        }
+        return items;
+    }
+
+    private String readLine() throws IOException {
+        var sb = new StringBuilder();
+        int c;
+        while ((c = in.read()) != '\r') {
+            if (c == -1) {
+                throw new IOException("connection closed");
+            }
+            sb.append((char) c);
+        }
+        if (in.read() != '\n') {
+            throw new IOException("malformed reply");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,110 @@
+package com.mal.integration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mal.config.ResultCacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Provider results reused by request fingerprint, so a repeated request does not spend the
+ * provider's quota or latency again. Only results the {@code cacheable} predicate accepts are
+ * stored; anything else, including fallbacks, always goes back to the provider. Eviction is
+ * Caffeine's size-bounded W-TinyLFU plus a write TTL.
+ *
+ * <p>A call that started before {@link #invalidateAll()} does not store its result.
+ */
+final class ResultCache<Q, R> {
+
+    private final boolean enabled;
+    private final Function<Q, String> key;
+    private final Predicate<R> cacheable;
+    private final Cache<String, R> results;
+    private final AtomicLong generation = new AtomicLong();
+    private final Counter saved;
+
+    ResultCache(
+            Provider provider,
+            ResultCacheProperties.Policy policy,
+            Function<Q, String> key,
+            Predicate<R> cacheable,
+            MeterRegistry meterRegistry) {
+        this.enabled = policy.isEnabled();
+        this.key = key;
+        this.cacheable = cacheable;
+        this.results = Caffeine.newBuilder()
+                .maximumSize(policy.getMaxSize())
+                .expireAfterWrite(policy.getTtl())
+                .recordStats()
+                .build();
+        this.saved = meterRegistry.counter("kyc.cache.quota.saved", "provider", provider.key());
+
+        if (enabled) {
+            CaffeineCacheMetrics.monitor(meterRegistry, results, provider.key());
+            meterRegistry.gauge("kyc.cache.hit.ratio", Tags.of("cache", provider.key()),
+                    results, cache -> cache.stats().hitRate());
+        }
+    }
+
+    Mono<R> get(Q request, Supplier<Mono<R>> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        return Mono.defer(() -> {
+            var fingerprint = key.apply(request);
+            var cached = results.getIfPresent(fingerprint);
+            if (cached != null) {
+                saved.increment();
+                return Mono.just(cached);
+            }
+            var startedIn = generation.get();
+            return call.get().doOnNext(result -> {
+                if (cacheable.test(result) && generation.get() == startedIn) {
+                    results.put(fingerprint, result);
+                }
+            });
+        });
+    }
+
+    /**
+     * @return how many entries were dropped
+     */
+    long invalidateAll() {
+        generation.incrementAndGet();
+        var dropped = results.estimatedSize();
+        results.invalidateAll();
+        return dropped;
+    }
+
+    long size() {
+        return results.estimatedSize();
+    }
+
+    /**
+     * SHA-256 over the already-normalized parts, so the cache never holds the identifying values.
+     */
+    static String fingerprint(String... parts) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            for (var part : parts) {
+                digest.update((part == null ? "" : part).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
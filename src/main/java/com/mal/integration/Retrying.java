@@ -0,0 +1,88 @@
+package com.mal.integration;
+
+import com.mal.config.RetryProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Retries a failed attempt after an exponential, jittered backoff. Only failures another attempt
+ * can fix are retried (timeouts, connection errors, the configured 5xx statuses), and only while
+ * the backoff fits the caller's deadline and the provider's retry budget has a token, so an outage
+ * adds at most {@code budget-ratio} extra calls instead of multiplying traffic by {@code attempts}.
+ */
+final class Retrying {
+
+    private static final int MAX_BURST = 10;
+
+    private final Provider provider;
+    private final RetryProperties props;
+    private final AttemptBudget budget;
+    private final MeterRegistry meterRegistry;
+
+    Retrying(Provider provider, RetryProperties props, MeterRegistry meterRegistry) {
+        this.provider = provider;
+        this.props = props;
+        this.budget = new AttemptBudget(props.getBudgetRatio(), MAX_BURST, MAX_BURST);
+        this.meterRegistry = meterRegistry;
+    }
+
+    <T> Mono<T> apply(Mono<T> first, Supplier<Mono<T>> retry, Deadline deadline) {
+        if (props.getAttempts() <= 1) {
+            return first;
+        }
+        budget.deposit();
+
+        var retrying = new AtomicBoolean();
+        return Mono.defer(() -> retrying.getAndSet(true) ? retry.get() : first)
+                .retryWhen(Retry.from(signals -> signals.concatMap(signal -> {
+                    var delay = delay(signal.totalRetries());
+                    if (signal.totalRetries() + 1 >= props.getAttempts() || !shouldRetry(signal.failure(), delay, deadline)) {
+                        return Mono.error(signal.failure());
+                    }
+                    count("retried");
+                    return Mono.delay(delay);
+                })));
+    }
+
+    Duration delay(long retries) {
+        var base = props.getBackoff().toNanos() * (1L << Math.min(retries, 30));
+        var capped = Math.min(base, props.getMaxBackoff().toNanos());
+        var jitter = (long) (capped * props.getJitter() * ThreadLocalRandom.current().nextDouble());
+        return Duration.ofNanos(capped - jitter);
+    }
+
+    private boolean shouldRetry(Throwable error, Duration delay, Deadline deadline) {
+        if (!retryable(error)) {
+            return false;
+        }
+        if (deadline.remaining().compareTo(delay) <= 0) {
+            count("deadline");
+            return false;
+        }
+        if (!budget.tryWithdraw()) {
+            count("budget_exhausted");
+            return false;
+        }
+        return true;
+    }
+
+    private boolean retryable(Throwable error) {
+        if (error instanceof WebClientResponseException e) {
+            return props.getStatuses().contains(e.getStatusCode().value());
+        }
+        return error instanceof TimeoutException || error instanceof WebClientRequestException;
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("kyc.retry.total", "provider", provider.key(), "outcome", outcome).increment();
+    }
+}
@@ -0,0 +1,168 @@
+package com.mal.integration;
+
+import com.mal.config.BatchingProperties;
+import com.mal.integration.dto.SanctionsBulkRequest;
+import com.mal.integration.dto.SanctionsBulkResponse;
+import com.mal.integration.dto.SanctionsRequest;
+import com.mal.integration.dto.SanctionsResponse;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Collects concurrent sanctions checks into one bulk screening call, so a batch costs one
+ * rate-limit permit instead of one per name. A batch is sent once it holds {@code max-size}
+ * checks or its first check has waited {@code max-wait}, and the results are handed back to
+ * each caller by position.
+ *
+ * <p>The bulk call runs under the loosest deadline in the batch, and as interactive if any
+ * caller is. Each caller still waits only as long as its own deadline allows and then gets the
+ * sanctions fallback, so one short budget cannot cut the bulk call short for the others. A bulk
+ * answer that is missing or does not match the batch gives every caller the sanctions fallback.
+ */
+@Slf4j
+final class SanctionsBatcher {
+
+    private record Pending(
+            SanctionsRequest request,
+            MonoSink<SanctionsResponse> sink,
+            Deadline deadline,
+            Priority priority,
+            AtomicBoolean cancelled) {
+    }
+
+    private final Function<SanctionsBulkRequest, Mono<SanctionsBulkResponse>> bulk;
+    private final SanctionsResponse fallback;
+    private final int maxSize;
+    private final Duration maxWait;
+    private final DistributionSummary batchSize;
+    private final Scheduler timer = Schedulers.parallel();
+
+    private List<Pending> pending = new ArrayList<>();
+    private Disposable flushTimer;
+
+    SanctionsBatcher(
+            BatchingProperties.Policy policy,
+            Function<SanctionsBulkRequest, Mono<SanctionsBulkResponse>> bulk,
+            SanctionsResponse fallback,
+            MeterRegistry meterRegistry) {
+        this.bulk = bulk;
+        this.fallback = fallback;
+        this.maxSize = Math.max(1, policy.getMaxSize());
+        this.maxWait = policy.getMaxWait();
+        this.batchSize = DistributionSummary.builder("kyc.sanctions.batch.size")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    Mono<SanctionsResponse> check(SanctionsRequest request) {
+        return Mono.deferContextual(ctx -> {
+            var deadline = Deadline.from(ctx);
+            Mono<SanctionsResponse> batched = Mono.create(sink -> {
+                var cancelled = new AtomicBoolean();
+                sink.onCancel(() -> cancelled.set(true));
+                add(new Pending(request, sink, deadline, Priority.from(ctx), cancelled));
+            });
+            if (deadline == Deadline.none()) {
+                return batched;
+            }
+            // timing out cancels the check, so it is left out of a batch not yet sent
+            return batched.timeout(deadline.remaining(), Mono.fromSupplier(() -> {
+                log.warn("sanctions_batch_skipped reason=DEADLINE");
+                return fallback;
+            }));
+        });
+    }
+
+    private void add(Pending check) {
+        List<Pending> full = null;
+        synchronized (this) {
+            pending.add(check);
+            if (pending.size() >= maxSize) {
+                full = take();
+            } else if (pending.size() == 1) {
+                var batch = pending;
+                flushTimer = timer.schedule(() -> flush(batch), maxWait.toNanos(), TimeUnit.NANOSECONDS);
+            }
+        }
+        if (full != null) {
+            send(full);
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        synchronized (this) {
+            // already sent because it filled up
+            if (batch != pending) {
+                return;
+            }
+            take();
+        }
+        send(batch);
+    }
+
+    private List<Pending> take() {
+        var batch = pending;
+        pending = new ArrayList<>(maxSize);
+        if (flushTimer != null) {
+            flushTimer.dispose();
+            flushTimer = null;
+        }
+        return batch;
+    }
+
+    private void send(List<Pending> batch) {
+        var live = batch.stream().filter(check -> !check.cancelled().get()).toList();
+        if (live.isEmpty()) {
+            return;
+        }
+        batchSize.record(live.size());
+
+        var deadline = live.get(0).deadline();
+        var priority = Priority.BACKGROUND;
+        for (var check : live) {
+            if (check.deadline().remaining().compareTo(deadline.remaining()) > 0) {
+                deadline = check.deadline();
+            }
+            if (check.priority() == Priority.INTERACTIVE) {
+                priority = Priority.INTERACTIVE;
+            }
+        }
+
+        var within = deadline;
+        var as = priority;
+        bulk.apply(new SanctionsBulkRequest(live.stream().map(Pending::request).toList()))
+                .contextWrite(ctx -> as.writeTo(within.writeTo(ctx)))
+                .map(SanctionsBulkResponse::results)
+                .onErrorReturn(List.of())
+                .defaultIfEmpty(List.of())
+                .subscribe(results -> demultiplex(live, results));
+    }
+
+    private void demultiplex(List<Pending> batch, List<SanctionsResponse> results) {
+        if (results.size() != batch.size()) {
+            // an empty answer is the call's own fallback, already logged by ProviderCall
+            if (!results.isEmpty()) {
+                log.warn("sanctions_bulk_mismatch sent={} received={}", batch.size(), results.size());
+            }
+            batch.forEach(check -> check.sink().success(fallback));
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            var result = results.get(i);
+            batch.get(i).sink().success(result == null ? fallback : result);
+        }
+    }
+}
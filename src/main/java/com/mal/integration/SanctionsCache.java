@@ -0,0 +1,98 @@
+package com.mal.integration;
+
+import com.mal.config.ResultCacheProperties;
+import com.mal.integration.dto.SanctionsRequest;
+import com.mal.integration.dto.SanctionsResponse;
+import com.mal.integration.dto.SanctionsStatus;
+import com.mal.screening.Names;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+import java.util.Locale;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Remembers {@code CLEAR} screenings by identity, so retries, re-onboarding and re-screens of the
+ * same person do not spend the sanctions quota again. Only a {@code CLEAR} from the provider is
+ * stored; a {@code HIT} (including every fallback) always goes back to the provider.
+ *
+ * <p>Keys are a fingerprint of the normalized name, date of birth and nationality, so spelling
+ * variants in case, accents, punctuation or spacing share an entry. A new watchlist version, from
+ * the provider or of the local watchlist that clears names without asking it, empties the cache,
+ * and a screening that started under the previous version is not stored.
+ */
+@Slf4j
+final class SanctionsCache {
+
+    private static final Pattern NON_DIGITS = Pattern.compile("\\D+");
+
+    private final ResultCache<SanctionsRequest, SanctionsResponse> clear;
+
+    private volatile String watchlistVersion;
+    private volatile String localWatchlistVersion;
+
+    SanctionsCache(ResultCacheProperties.Policy policy, MeterRegistry meterRegistry) {
+        this.clear = new ResultCache<>(Provider.SANCTIONS, policy, SanctionsCache::fingerprint,
+                response -> response.status() == SanctionsStatus.CLEAR, meterRegistry);
+    }
+
+    Mono<SanctionsResponse> check(SanctionsRequest request, Supplier<Mono<SanctionsResponse>> screening) {
+        return clear.get(request, screening);
+    }
+
+    /**
+     * Called with the watchlist version the provider reports; a change drops every entry.
+     */
+    void onWatchlistVersion(String version) {
+        if (version == null || version.isBlank() || version.equals(watchlistVersion)) {
+            return;
+        }
+        synchronized (this) {
+            var previous = watchlistVersion;
+            if (version.equals(previous)) {
+                return;
+            }
+            watchlistVersion = version;
+            invalidate("provider", previous, version);
+        }
+    }
+
+    /**
+     * Called with each version of the local watchlist; a change drops every entry.
+     */
+    void onLocalWatchlistVersion(String version) {
+        if (version == null || version.equals(localWatchlistVersion)) {
+            return;
+        }
+        synchronized (this) {
+            var previous = localWatchlistVersion;
+            if (version.equals(previous)) {
+                return;
+            }
+            localWatchlistVersion = version;
+            invalidate("local", previous, version);
+        }
+    }
+
+    private void invalidate(String list, String previous, String version) {
+        if (previous != null) {
+            var dropped = clear.invalidateAll();
+            log.info("sanctions_cache_invalidated list={} previous={} version={} dropped={}",
+                    list, previous, version, dropped);
+        }
+    }
+
+    long size() {
+        return clear.size();
+    }
+
+    static String fingerprint(SanctionsRequest request) {
+        return ResultCache.fingerprint(
+                Names.normalize(request.fullName()),
+                NON_DIGITS.matcher(Objects.toString(request.dateOfBirth(), "")).replaceAll(""),
+                Objects.toString(request.nationality(), "").trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -1,57 +1,106 @@
 package com.mal.integration;
 
+import com.mal.config.BatchingProperties;
+import com.mal.config.ResultCacheProperties;
+import com.mal.integration.dto.SanctionsBulkResponse;
 import com.mal.integration.dto.SanctionsRequest;
 import com.mal.integration.dto.SanctionsResponse;
 import com.mal.integration.dto.SanctionsStatus;
+import com.mal.screening.WatchlistScreening;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Recover;
-import org.springframework.retry.annotation.Retryable;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 
 import java.time.Duration;
+import java.util.List;
 
 @Component
 public class SanctionsClient {
 
-    private final WebClient client;
-    private final Duration timeout;
-    private final SimpleRateLimiter limiter;
+    static final String WATCHLIST_VERSION = "X-Watchlist-Version";
+
+    private static final SanctionsResponse FALLBACK = new SanctionsResponse(SanctionsStatus.HIT, 0, null);
+    private static final SanctionsResponse LOCALLY_CLEAR = new SanctionsResponse(SanctionsStatus.CLEAR, 0, null);
+    private static final SanctionsBulkResponse BULK_FALLBACK = new SanctionsBulkResponse(List.of());
+
+    private final ProviderCall<SanctionsResponse> call;
+    private final SanctionsCache cache;
+    private final SanctionsBatcher batcher;
+    private final WatchlistScreening screening;
 
     public SanctionsClient(
             WebClient.Builder builder,
-            SimpleRateLimiter limiter,
+            ProviderCallFactory calls,
+            ResultCacheProperties cacheProps,
+            BatchingProperties batchingProps,
+            WatchlistScreening screening,
+            MeterRegistry meterRegistry,
             @Value("${kyc.endpoints.sanctions}") String url,
-            @Value("${kyc.timeout.sanctions}") Duration timeout) {
+            @Value("${kyc.timeout.sanctions}") Duration timeout,
+            @Value("${kyc.sanctions.keep-matches:false}") boolean keepMatches) {
 
-        this.limiter = limiter;
-        this.client = builder.baseUrl(url).build();
-        this.timeout = timeout;
-    }
+        this.screening = screening;
+        this.cache = new SanctionsCache(cacheProps.getSanctions(), meterRegistry);
+        screening.onVersion(cache::onLocalWatchlistVersion);
+        // responses are read by SanctionsResponseDeserializer, which skips the match list unless kept
+        var decoder = new Jackson2JsonDecoder(Jackson2ObjectMapperBuilder.json()
+                .modulesToInstall(SanctionsResponseDeserializer.module(keepMatches))
+                .build());
+        var client = builder.baseUrl(url)
+                .codecs(codecs -> codecs.defaultCodecs().jackson2JsonDecoder(decoder))
+                .filter(ExchangeFilterFunction.ofResponseProcessor(response -> {
+                    response.headers().header(WATCHLIST_VERSION).stream().findFirst()
+                            .ifPresent(cache::onWatchlistVersion);
+                    return Mono.just(response);
+                }))
+                .build();
+        this.call = calls.create(
+                Provider.SANCTIONS,
+                client,
+                "/api/v1/check-sanctions",
+                SanctionsResponse.class,
+                timeout,
+                FALLBACK,
+                FALLBACK
+        );
 
-    @Retryable(
-            maxAttemptsExpression = "#{${kyc.retry.attempts}}",
-            backoff = @Backoff(delayExpression = "#{${kyc.retry.backoff}.toMillis()}")
-    )
-    public SanctionsResponse check(SanctionsRequest request) {
-
-        if (!limiter.tryAcquire()) {
-            return new SanctionsResponse(SanctionsStatus.HIT, 0, null);
+        var batching = batchingProps.getSanctions();
+        if (batching.isEnabled()) {
+            var bulk = calls.create(
+                    Provider.SANCTIONS,
+                    client,
+                    batching.getPath(),
+                    SanctionsBulkResponse.class,
+                    timeout,
+                    BULK_FALLBACK,
+                    BULK_FALLBACK
+            );
+            this.batcher = new SanctionsBatcher(batching, bulk::execute, FALLBACK, meterRegistry);
+        } else {
+            this.batcher = null;
         }
+    }
 
-        return client.post()
-                .uri("/api/v1/check-sanctions")
-                .bodyValue(request)
-                .retrieve()
-                .bodyToMono(SanctionsResponse.class)
-                .timeout(timeout)
-                .onErrorReturn(new SanctionsResponse(SanctionsStatus.HIT, 0, null))
-                .block();
+    /**
+     * True for the {@code HIT} answered when the provider could not be asked (no permit, open
+     * breaker, timeout, error), as opposed to one the provider reported.
+     */
+    public static boolean isFallback(SanctionsResponse response) {
+        return response == FALLBACK;
     }
 
-    @Recover
-    public SanctionsResponse recover(Throwable t, SanctionsRequest req) {
-        return new SanctionsResponse(SanctionsStatus.HIT, 0, null);
+    public Mono<SanctionsResponse> check(SanctionsRequest request) {
+        return cache.check(request, () -> Mono.defer(() -> {
+            // names with no candidate on the local watchlist never reach the provider
+            if (screening.clearsLocally(request.fullName(), request.dateOfBirth(), request.nationality())) {
+                return Mono.just(LOCALLY_CLEAR);
+            }
+            return batcher == null ? call.execute(request) : batcher.check(request);
+        }));
     }
 }
@@ -0,0 +1,66 @@
+package com.mal.integration;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.mal.integration.dto.SanctionsMatch;
+import com.mal.integration.dto.SanctionsResponse;
+import com.mal.integration.dto.SanctionsStatus;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Reads a {@link SanctionsResponse} straight off the token stream. A common name can return
+ * hundreds of matches. Only {@code status} and {@code matchCount} decide anything, so by default
+ * the match list is skipped without building a single object for it. With {@code keepMatches},
+ * matches are bound to {@link SanctionsMatch} instead of generic maps. Fields may come in any order.
+ */
+final class SanctionsResponseDeserializer extends StdDeserializer<SanctionsResponse> {
+
+    private static final JavaType MATCHES = TypeFactory.defaultInstance()
+            .constructCollectionType(List.class, SanctionsMatch.class);
+
+    private final boolean keepMatches;
+
+    SanctionsResponseDeserializer(boolean keepMatches) {
+        super(SanctionsResponse.class);
+        this.keepMatches = keepMatches;
+    }
+
+    static Module module(boolean keepMatches) {
+        return new SimpleModule("sanctions-response")
+                .addDeserializer(SanctionsResponse.class, new SanctionsResponseDeserializer(keepMatches));
+    }
+
+    @Override
+    public SanctionsResponse deserialize(JsonParser parser, DeserializationContext ctx) throws IOException {
+        if (!parser.isExpectedStartObjectToken()) {
+            return (SanctionsResponse) ctx.handleUnexpectedToken(SanctionsResponse.class, parser);
+        }
+        SanctionsStatus status = null;
+        int matchCount = 0;
+        List<SanctionsMatch> matches = null;
+        for (var field = parser.nextFieldName(); field != null; field = parser.nextFieldName()) {
+            var token = parser.nextToken();
+            switch (field) {
+                case "status" -> status = token == JsonToken.VALUE_NULL ? null : ctx.readValue(parser, SanctionsStatus.class);
+                case "matchCount" -> matchCount = parser.getValueAsInt();
+                case "matches" -> {
+                    if (keepMatches && token == JsonToken.START_ARRAY) {
+                        matches = ctx.readValue(parser, MATCHES);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        return new SanctionsResponse(status, matchCount, matches);
+    }
+}
@@ -0,0 +1,33 @@
+package com.mal.integration;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * In-process {@link GcraRateLimiter}, with its state in one {@link AtomicLong}.
+ */
+public class TokenBucketRateLimiter extends GcraRateLimiter {
+
+    private final AtomicLong nextFree;
+
+    public TokenBucketRateLimiter(int limit, Duration window, int burst) {
+        this(limit, window, burst, System::nanoTime);
+    }
+
+    TokenBucketRateLimiter(int limit, Duration window, int burst, LongSupplier nanoClock) {
+        super(limit, window, burst, nanoClock);
+        // starts full
+        this.nextFree = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    @Override
+    long nextFree() {
+        return nextFree.get();
+    }
+
+    @Override
+    boolean compareAndSetNextFree(long expected, long next) {
+        return nextFree.compareAndSet(expected, next);
+    }
+}
@@ -0,0 +1,8 @@
+package com.mal.integration.dto;
+
+import java.util.List;
+
+public record SanctionsBulkRequest(
+        List<SanctionsRequest> checks
+) {
+}
@@ -0,0 +1,8 @@
+package com.mal.integration.dto;
+
+import java.util.List;
+
+public record SanctionsBulkResponse(
+        List<SanctionsResponse> results   // same order as the request's checks
+) {
+}
@@ -0,0 +1,9 @@
+package com.mal.integration.dto;
+
+public record SanctionsMatch(
+        String id,              // provider's id of the listed entry
+        String name,            // listed name or alias that matched
+        String list,            // e.g. OFAC-SDN, UN
+        double score
+) {
+}
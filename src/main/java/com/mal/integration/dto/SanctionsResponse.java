@@ -5,6 +5,6 @@ import java.util.List;
 public record SanctionsResponse(
         SanctionsStatus status,   // CLEAR | HIT
         int matchCount,
-        List<Object> matches
+        List<SanctionsMatch> matches   // null unless kyc.sanctions.keep-matches
 ) {
 }
@@ -0,0 +1,7 @@
+package com.mal.model;
+
+public enum JobStatus {
+    PENDING,
+    COMPLETED,
+    FAILED
+}
@@ -6,6 +6,8 @@ import com.mal.integration.dto.DocumentVerificationResponse;
 import com.mal.integration.dto.SanctionsResponse;
 
 public record KycDecision(
+        String requestId,
+        String customerId,
         KycDecisionType decision,
         DocumentVerificationResponse document,
         BiometricResponse biometric,
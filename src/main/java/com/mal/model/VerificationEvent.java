@@ -0,0 +1,19 @@
+package com.mal.model;
+
+/**
+ * Progress of a streamed verification: one event per provider result as it arrives,
+ * followed by the final decision.
+ */
+public record VerificationEvent(
+        String name,    // document | biometric | address | sanctions | decision
+        Object data
+) {
+
+    public static VerificationEvent result(String provider, Object result) {
+        return new VerificationEvent(provider, result);
+    }
+
+    public static VerificationEvent decision(KycDecision decision) {
+        return new VerificationEvent("decision", decision);
+    }
+}
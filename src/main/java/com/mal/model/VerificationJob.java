@@ -0,0 +1,22 @@
+package com.mal.model;
+
+public record VerificationJob(
+        String id,
+        JobStatus status,
+        KycDecision result,
+        String submittedAt,
+        String completedAt
+) {
+
+    public static VerificationJob pending(String id, String submittedAt) {
+        return new VerificationJob(id, JobStatus.PENDING, null, submittedAt, null);
+    }
+
+    public VerificationJob completed(KycDecision decision, String completedAt) {
+        return new VerificationJob(id, JobStatus.COMPLETED, decision, submittedAt, completedAt);
+    }
+
+    public VerificationJob failed(String completedAt) {
+        return new VerificationJob(id, JobStatus.FAILED, null, submittedAt, completedAt);
+    }
+}
@@ -1,5 +1,9 @@
 package com.mal.model;
 
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+
 public record VerificationRequest(
         String requestId,
         String customerId,
@@ -15,6 +19,21 @@ public record VerificationRequest(
         String address,
         String proofType,
         String proofDate,
-        String proofUrl
+        String proofUrl,
+        Set<VerificationType> verificationTypes   // empty = all checks
 ) {
+
+    // thrown while binding the body, so a null type is a 400 rather than a failure mid-verification
+    public VerificationRequest {
+        if (verificationTypes != null && verificationTypes.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("verificationTypes must not contain null");
+        }
+    }
+
+    public Set<VerificationType> requestedTypes() {
+        if (verificationTypes == null || verificationTypes.isEmpty()) {
+            return EnumSet.allOf(VerificationType.class);
+        }
+        return EnumSet.copyOf(verificationTypes);
+    }
 }
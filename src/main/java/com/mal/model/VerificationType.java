@@ -0,0 +1,8 @@
+package com.mal.model;
+
+public enum VerificationType {
+    ID_DOCUMENT,
+    FACE_MATCH,
+    ADDRESS,
+    SANCTIONS
+}
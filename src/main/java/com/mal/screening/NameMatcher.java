@@ -0,0 +1,224 @@
+package com.mal.screening;
+
+import java.util.Arrays;
+
+/**
+ * Name similarity for screening, on names held as pre-normalized char arrays: the tokens of a name
+ * are stored back to back without spaces and {@code ends} holds the end offset of each token, so
+ * token {@code t} spans {@code [t == 0 ? 0 : ends[t - 1], ends[t])} and a run of tokens is one
+ * contiguous range. Many names can share one {@code chars} / {@code ends} pair.
+ *
+ * <p>The score is the better of
+ * <ul>
+ *     <li>token-set similarity: every token is paired with its best Jaro-Winkler match in the
+ *     other name and the scores are averaged per name; a best match under {@value #TOKEN_FLOOR}
+ *     counts half, an initial counts {@value #TOKEN_FLOOR} against a token starting with it. The
+ *     better of the two averages weighs three times the other, so word order and a missing middle
+ *     name cost little, while a shared first name alone does not make a match</li>
+ *     <li>Jaro of the names with spaces removed, for names split differently (Abdel Rahman,
+ *     Abdelrahman): only when the token counts differ and both are about the same length</li>
+ * </ul>
+ * Comparisons allocate nothing; the match flags live in per-thread scratch arrays.
+ */
+public final class NameMatcher {
+
+    private static final double WINKLER_THRESHOLD = 0.7;
+    private static final double WINKLER_SCALE = 0.1;
+    private static final int WINKLER_PREFIX = 4;
+
+    // a token's best match under this is taken to be a different word
+    public static final double TOKEN_FLOOR = 0.8;
+
+    // below this, one name is mostly a prefix of the other and Jaro-Winkler overrates the pair
+    static final double JOINED_LENGTH_RATIO = 0.85;
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private NameMatcher() {
+    }
+
+    /**
+     * A single name in the char-array form, tokens {@code 0} to {@code ends.length}.
+     */
+    public record Prepared(char[] chars, int[] ends) {
+
+        public int tokens() {
+            return ends.length;
+        }
+    }
+
+    public static Prepared prepare(String name) {
+        var tokens = Names.tokens(Names.normalize(name));
+        var chars = new StringBuilder();
+        var ends = new int[tokens.length];
+        for (int t = 0; t < tokens.length; t++) {
+            chars.append(tokens[t]);
+            ends[t] = chars.length();
+        }
+        return new Prepared(chars.toString().toCharArray(), ends);
+    }
+
+    public static double similarity(String a, String b) {
+        var left = prepare(a);
+        var right = prepare(b);
+        return similarity(left.chars(), left.ends(), 0, left.tokens(), right.chars(), right.ends(), 0, right.tokens());
+    }
+
+    /**
+     * Similarity in {@code [0, 1]} of tokens {@code [aFirst, aLast)} of {@code a} and
+     * {@code [bFirst, bLast)} of {@code b}.
+     */
+    public static double similarity(
+            char[] a, int[] aEnds, int aFirst, int aLast,
+            char[] b, int[] bEnds, int bFirst, int bLast) {
+        if (aFirst >= aLast || bFirst >= bLast) {
+            return 0;
+        }
+        var scratch = SCRATCH.get();
+        var bestOfB = scratch.best(bLast - bFirst);
+
+        double forward = 0;
+        for (int i = aFirst; i < aLast; i++) {
+            int aFrom = start(aEnds, i);
+            double best = 0;
+            for (int j = bFirst; j < bLast; j++) {
+                var score = tokenSimilarity(a, aFrom, aEnds[i], b, start(bEnds, j), bEnds[j], scratch);
+                best = Math.max(best, score);
+                bestOfB[j - bFirst] = Math.max(bestOfB[j - bFirst], score);
+            }
+            forward += weigh(best);
+        }
+        double backward = 0;
+        for (int j = 0; j < bLast - bFirst; j++) {
+            backward += weigh(bestOfB[j]);
+            bestOfB[j] = 0;
+        }
+        forward /= aLast - aFirst;
+        backward /= bLast - bFirst;
+        var tokenSet = 0.75 * Math.max(forward, backward) + 0.25 * Math.min(forward, backward);
+
+        int aFrom = start(aEnds, aFirst);
+        int bFrom = start(bEnds, bFirst);
+        if (aLast - aFirst == bLast - bFirst
+                || !comparableLengths(aEnds[aLast - 1] - aFrom, bEnds[bLast - 1] - bFrom)) {
+            return tokenSet;
+        }
+        var joined = jaro(a, aFrom, aEnds[aLast - 1], b, bFrom, bEnds[bLast - 1], scratch);
+        return Math.max(tokenSet, joined);
+    }
+
+    private static double tokenSimilarity(char[] a, int aFrom, int aTo, char[] b, int bFrom, int bTo, Scratch scratch) {
+        if ((aTo - aFrom == 1 || bTo - bFrom == 1) && a[aFrom] == b[bFrom]) {
+            return aTo - aFrom == bTo - bFrom ? 1 : TOKEN_FLOOR;
+        }
+        return jaroWinkler(a, aFrom, aTo, b, bFrom, bTo, scratch);
+    }
+
+    private static double weigh(double best) {
+        return best >= TOKEN_FLOOR ? best : best / 2;
+    }
+
+    static boolean comparableLengths(int a, int b) {
+        return Math.min(a, b) >= JOINED_LENGTH_RATIO * Math.max(a, b);
+    }
+
+    public static double jaroWinkler(String a, String b) {
+        return jaroWinkler(a.toCharArray(), 0, a.length(), b.toCharArray(), 0, b.length(), SCRATCH.get());
+    }
+
+    static double jaroWinkler(char[] a, int aFrom, int aTo, char[] b, int bFrom, int bTo) {
+        return jaroWinkler(a, aFrom, aTo, b, bFrom, bTo, SCRATCH.get());
+    }
+
+    private static double jaroWinkler(char[] a, int aFrom, int aTo, char[] b, int bFrom, int bTo, Scratch scratch) {
+        var jaro = jaro(a, aFrom, aTo, b, bFrom, bTo, scratch);
+        if (jaro <= WINKLER_THRESHOLD) {
+            return jaro;
+        }
+        int prefix = 0;
+        int max = Math.min(WINKLER_PREFIX, Math.min(aTo - aFrom, bTo - bFrom));
+        while (prefix < max && a[aFrom + prefix] == b[bFrom + prefix]) {
+            prefix++;
+        }
+        return jaro + prefix * WINKLER_SCALE * (1 - jaro);
+    }
+
+    private static double jaro(char[] a, int aFrom, int aTo, char[] b, int bFrom, int bTo, Scratch scratch) {
+        int aLength = aTo - aFrom;
+        int bLength = bTo - bFrom;
+        if (aLength == 0 || bLength == 0) {
+            return 0;
+        }
+        var aMatched = scratch.aFlags(aLength);
+        var bMatched = scratch.bFlags(bLength);
+        int window = Math.max(0, Math.max(aLength, bLength) / 2 - 1);
+
+        int matches = 0;
+        for (int i = 0; i < aLength; i++) {
+            int from = Math.max(0, i - window);
+            int to = Math.min(bLength, i + window + 1);
+            for (int j = from; j < to; j++) {
+                if (!bMatched[j] && a[aFrom + i] == b[bFrom + j]) {
+                    aMatched[i] = true;
+                    bMatched[j] = true;
+                    matches++;
+                    break;
+                }
+            }
+        }
+
+        int halfTranspositions = 0;
+        for (int i = 0, j = 0; i < aLength; i++) {
+            if (aMatched[i]) {
+                while (!bMatched[j]) {
+                    j++;
+                }
+                if (a[aFrom + i] != b[bFrom + j]) {
+                    halfTranspositions++;
+                }
+                j++;
+            }
+        }
+        Arrays.fill(aMatched, 0, aLength, false);
+        Arrays.fill(bMatched, 0, bLength, false);
+
+        if (matches == 0) {
+            return 0;
+        }
+        double m = matches;
+        return (m / aLength + m / bLength + (m - halfTranspositions / 2.0) / m) / 3;
+    }
+
+    static int start(int[] ends, int token) {
+        return token == 0 ? 0 : ends[token - 1];
+    }
+
+    // left all-false / all-zero after every comparison
+    private static final class Scratch {
+
+        boolean[] aFlags = new boolean[32];
+        boolean[] bFlags = new boolean[32];
+        double[] best = new double[8];
+
+        boolean[] aFlags(int length) {
+            if (aFlags.length < length) {
+                aFlags = new boolean[length];
+            }
+            return aFlags;
+        }
+
+        boolean[] bFlags(int length) {
+            if (bFlags.length < length) {
+                bFlags = new boolean[length];
+            }
+            return bFlags;
+        }
+
+        double[] best(int length) {
+            if (best.length < length) {
+                best = new double[length];
+            }
+            return best;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.mal.screening;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Name normalization shared by screening and the sanctions cache: accents and other marks are
+ * dropped, case is folded, letters without a decomposition (ß, ø, ł, ...) and Cyrillic and Greek
+ * are transliterated to Latin, and every run of punctuation or spacing becomes a single space.
+ */
+public final class Names {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    // lower-case letters NFKD leaves alone, and a simplified Cyrillic and Greek romanization
+    private static final Map<Character, String> LATIN = Map.ofEntries(
+            Map.entry('ß', "ss"), Map.entry('æ', "ae"), Map.entry('œ', "oe"), Map.entry('ø', "o"),
+            Map.entry('ł', "l"), Map.entry('đ', "d"), Map.entry('ð', "d"), Map.entry('þ', "th"),
+            Map.entry('ı', "i"), Map.entry('ħ', "h"),
+            Map.entry('а', "a"), Map.entry('б', "b"), Map.entry('в', "v"), Map.entry('г', "g"),
+            Map.entry('д', "d"), Map.entry('е', "e"), Map.entry('ж', "zh"), Map.entry('з', "z"),
+            Map.entry('и', "i"), Map.entry('к', "k"), Map.entry('л', "l"), Map.entry('м', "m"),
+            Map.entry('н', "n"), Map.entry('о', "o"), Map.entry('п', "p"), Map.entry('р', "r"),
+            Map.entry('с', "s"), Map.entry('т', "t"), Map.entry('у', "u"), Map.entry('ф', "f"),
+            Map.entry('х', "kh"), Map.entry('ц', "ts"), Map.entry('ч', "ch"), Map.entry('ш', "sh"),
+            Map.entry('щ', "shch"), Map.entry('ъ', ""), Map.entry('ы', "y"), Map.entry('ь', ""),
+            Map.entry('э', "e"), Map.entry('ю', "yu"), Map.entry('я', "ya"), Map.entry('і', "i"),
+            Map.entry('ї', "i"), Map.entry('є', "ye"), Map.entry('ґ', "g"),
+            Map.entry('α', "a"), Map.entry('β', "v"), Map.entry('γ', "g"), Map.entry('δ', "d"),
+            Map.entry('ε', "e"), Map.entry('ζ', "z"), Map.entry('η', "i"), Map.entry('θ', "th"),
+            Map.entry('ι', "i"), Map.entry('κ', "k"), Map.entry('λ', "l"), Map.entry('μ', "m"),
+            Map.entry('ν', "n"), Map.entry('ξ', "x"), Map.entry('ο', "o"), Map.entry('π', "p"),
+            Map.entry('ρ', "r"), Map.entry('σ', "s"), Map.entry('ς', "s"), Map.entry('τ', "t"),
+            Map.entry('υ', "y"), Map.entry('φ', "f"), Map.entry('χ', "ch"), Map.entry('ψ', "ps"),
+            Map.entry('ω', "o"));
+
+    private static final Pattern DIGITS = Pattern.compile("\\d+");
+
+    // Soundex digit for a..z; '0' for vowels and h, w, y
+    private static final String SOUNDEX = "01230120022455012623010202";
+
+    private Names() {
+    }
+
+    public static String normalize(String name) {
+        if (name == null) {
+            return "";
+        }
+        var stripped = MARKS.matcher(Normalizer.normalize(name, Normalizer.Form.NFKD)).replaceAll("");
+        return SEPARATORS.matcher(latin(stripped.toLowerCase(Locale.ROOT))).replaceAll(" ").trim();
+    }
+
+    private static String latin(String lower) {
+        StringBuilder out = null;
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            var replacement = c < 0x80 ? null : LATIN.get(c);
+            if (replacement != null && out == null) {
+                out = new StringBuilder(lower.length() + 8).append(lower, 0, i);
+            }
+            if (out != null) {
+                if (replacement != null) {
+                    out.append(replacement);
+                } else {
+                    out.append(c);
+                }
+            }
+        }
+        return out == null ? lower : out.toString();
+    }
+
+    /**
+     * A date of birth as {@code yyyy * 10000 + day-or-month * 100 + month-or-day}, the smaller of
+     * day and month first so that {@code dd-MM-yyyy} and {@code yyyy-MM-dd} agree; just
+     * {@code yyyy * 10000} when only the year is known, and 0 without a year.
+     */
+    public static int birthDate(String date) {
+        if (date == null) {
+            return 0;
+        }
+        int year = 0;
+        int lo = 0;
+        int hi = 0;
+        var digits = DIGITS.matcher(date);
+        while (digits.find()) {
+            var group = digits.group();
+            if (group.length() == 4 && year == 0) {
+                year = Integer.parseInt(group);
+            } else if (group.length() <= 2) {
+                int value = Integer.parseInt(group);
+                if (lo == 0) {
+                    lo = value;
+                } else if (hi == 0) {
+                    hi = value;
+                }
+            }
+        }
+        if (year == 0) {
+            return 0;
+        }
+        return lo == 0 || hi == 0 ? year * 10000 : year * 10000 + Math.min(lo, hi) * 100 + Math.max(lo, hi);
+    }
+
+    public static String[] tokens(String normalized) {
+        return normalized.isEmpty() ? new String[0] : normalized.split(" ");
+    }
+
+    /**
+     * American Soundex of a normalized token, or {@code null} if it has no letter a-z.
+     */
+    public static String soundex(String token) {
+        return soundex(token, 4);
+    }
+
+    /**
+     * Soundex with {@code size} characters instead of four, for long tokens such as two names
+     * written together.
+     */
+    public static String soundex(String token, int size) {
+        var code = new char[size];
+        int length = 0;
+        char last = 0;
+        for (int i = 0; i < token.length() && length < size; i++) {
+            char c = token.charAt(i);
+            if (c < 'a' || c > 'z') {
+                continue;
+            }
+            char digit = SOUNDEX.charAt(c - 'a');
+            if (length == 0) {
+                code[length++] = Character.toUpperCase(c);
+            } else if (digit != '0' && digit != last) {
+                code[length++] = digit;
+            }
+            // h and w do not separate letters with the same code; vowels do
+            if (c != 'h' && c != 'w') {
+                last = digit;
+            }
+        }
+        if (length == 0) {
+            return null;
+        }
+        while (length < size) {
+            code[length++] = '0';
+        }
+        return new String(code);
+    }
+}
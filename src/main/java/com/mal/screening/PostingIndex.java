@@ -0,0 +1,105 @@
+package com.mal.screening;
+
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable map from a packed {@code long} key to a sorted run of int ids, held in three buffers:
+ * the sorted keys, where each key's run starts, and all runs back to back. Looked up by binary
+ * search; no objects per key, and about 12 bytes per key plus 4 per posting.
+ */
+final class PostingIndex {
+
+    private final LongBuffer keys;
+    private final IntBuffer starts;
+    private final IntBuffer ids;
+
+    PostingIndex(LongBuffer keys, IntBuffer starts, IntBuffer ids) {
+        this.keys = keys;
+        this.starts = starts;
+        this.ids = ids;
+    }
+
+    /**
+     * Position of {@code key}, or -1 if it has no postings.
+     */
+    int find(long key) {
+        int low = 0;
+        int high = keys.limit() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long at = keys.get(mid);
+            if (at < key) {
+                low = mid + 1;
+            } else if (at > key) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    // postings of the key at position k are ids [from(k), to(k)); an absent key has none
+    int from(int k) {
+        return k < 0 ? 0 : starts.get(k);
+    }
+
+    int to(int k) {
+        return k < 0 ? 0 : starts.get(k + 1);
+    }
+
+    int id(int i) {
+        return ids.get(i);
+    }
+
+    int size() {
+        return keys.limit();
+    }
+
+    /**
+     * The three columns of a built index, as written to a {@link WatchlistFile}.
+     */
+    record Columns(long[] keys, int[] starts, int[] ids) {
+    }
+
+    /**
+     * Collects postings while the index is built; ids must be added in ascending order.
+     */
+    static final class Builder {
+
+        private final Map<Long, int[]> lists = new HashMap<>();
+        private final Map<Long, Integer> sizes = new HashMap<>();
+
+        void add(long key, int id) {
+            var list = lists.get(key);
+            int size = sizes.getOrDefault(key, 0);
+            if (list == null) {
+                list = new int[4];
+            } else if (size > 0 && list[size - 1] == id) {
+                return;
+            } else if (size == list.length) {
+                list = Arrays.copyOf(list, size * 2);
+            }
+            list[size] = id;
+            lists.put(key, list);
+            sizes.put(key, size + 1);
+        }
+
+        Columns build() {
+            var keys = lists.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+            var starts = new int[keys.length + 1];
+            for (int k = 0; k < keys.length; k++) {
+                starts[k + 1] = starts[k] + sizes.get(keys[k]);
+            }
+            var ids = new int[starts[keys.length]];
+            for (int k = 0; k < keys.length; k++) {
+                System.arraycopy(lists.get(keys[k]), 0, ids, starts[k], starts[k + 1] - starts[k]);
+            }
+            return new Columns(keys, starts, ids);
+        }
+    }
+}
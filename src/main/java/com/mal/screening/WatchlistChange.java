@@ -0,0 +1,18 @@
+package com.mal.screening;
+
+import java.util.List;
+
+/**
+ * A new watchlist version and the entries it added or changed. Removed entries are not listed,
+ * since they cannot make anyone a new match.
+ */
+public record WatchlistChange(
+        String previousVersion,
+        String version,
+        List<WatchlistEntry> entries
+) {
+
+    public WatchlistChange {
+        entries = List.copyOf(entries);
+    }
+}
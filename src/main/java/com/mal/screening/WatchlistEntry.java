@@ -0,0 +1,17 @@
+package com.mal.screening;
+
+import java.util.List;
+
+public record WatchlistEntry(
+        String id,
+        String name,
+        List<String> aliases,
+        String dateOfBirth,
+        String nationality,
+        String source           // list the entry comes from, e.g. OFAC-SDN
+) {
+
+    public WatchlistEntry {
+        aliases = aliases == null ? List.of() : List.copyOf(aliases);
+    }
+}
@@ -0,0 +1,199 @@
+package com.mal.screening;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The storage behind a {@link WatchlistIndex}: one buffer of primitive sections, either a
+ * read-only memory-mapped file or, for an index that is never written out, direct memory. Either
+ * way the index lives outside the Java heap, so a large list adds nothing for the collector to
+ * trace, and two versions side by side during a swap cost page cache rather than heap.
+ *
+ * <p>Layout, little-endian: a 64 byte header (magic, format, section count, total length), a
+ * table with the offset and length of every {@link Section}, then the sections, each 8-byte
+ * aligned. The watchlist version is itself a section. A file is written under a temporary name of
+ * its own and moved into place, so a reader never maps a half-written one, even with several
+ * instances writing the same version into a shared directory. A mapping is limited to 2 GB.
+ */
+final class WatchlistFile {
+
+    private static final long MAGIC = 0x4B59_4357_4C30_3031L; // "KYCWL001"
+    private static final int FORMAT = 2;
+    private static final int HEADER = 64;
+    private static final int TABLE = HEADER + 16 * Section.values().length;
+
+    enum Section {
+        VERSION,
+        ENTRY_STARTS, ENTRY_RECORDS, BIRTHS, NATIONALITY_IDS, NATIONALITIES,
+        ENTRY_OF, NAME_FIELDS, FIRST_TOKEN, CHARS, TOKEN_ENDS,
+        VOCABULARY, VOCABULARY_ENDS, GRAM_COUNTS, LENGTH_STARTS, SINGLE_TOKENS,
+        TOKEN_NAME_STARTS, TOKEN_NAMES, SOLO_NAME_STARTS, SOLO_NAMES,
+        GRAM_KEYS, GRAM_STARTS, GRAM_IDS,
+        CODE_KEYS, CODE_STARTS, CODE_IDS,
+        JOINED_CODE_KEYS, JOINED_CODE_STARTS, JOINED_CODE_IDS
+    }
+
+    private final ByteBuffer buffer;
+    private final long[] offsets = new long[Section.values().length];
+    private final long[] lengths = new long[Section.values().length];
+
+    private WatchlistFile(ByteBuffer buffer, String source) throws IOException {
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.capacity() < TABLE || buffer.getLong(0) != MAGIC) {
+            throw new IOException("not a watchlist index: " + source);
+        }
+        if (buffer.getInt(8) != FORMAT || buffer.getInt(12) != Section.values().length
+                || buffer.getLong(16) != buffer.capacity()) {
+            throw new IOException("unsupported or truncated watchlist index: " + source);
+        }
+        for (int s = 0; s < offsets.length; s++) {
+            offsets[s] = buffer.getLong(HEADER + 16 * s);
+            lengths[s] = buffer.getLong(HEADER + 16 * s + 8);
+            if (offsets[s] < TABLE || lengths[s] < 0 || offsets[s] + lengths[s] > buffer.capacity()) {
+                throw new IOException("corrupt watchlist index: " + source + " section " + Section.values()[s]);
+            }
+        }
+    }
+
+    static WatchlistFile map(Path path) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // the mapping outlives the channel and is released when the buffer is collected
+            return new WatchlistFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), path.toString());
+        }
+    }
+
+    IntBuffer ints(Section section) {
+        return slice(section).asIntBuffer();
+    }
+
+    LongBuffer longs(Section section) {
+        return slice(section).asLongBuffer();
+    }
+
+    CharBuffer chars(Section section) {
+        return slice(section).asCharBuffer();
+    }
+
+    ByteBuffer bytes(Section section) {
+        return slice(section);
+    }
+
+    private ByteBuffer slice(Section section) {
+        int s = section.ordinal();
+        return buffer.slice((int) offsets[s], (int) lengths[s]).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Collects the sections of a new index and lays them out in a file or in direct memory.
+     */
+    static final class Writer {
+
+        private final Map<Section, Object> sections = new EnumMap<>(Section.class);
+
+        Writer put(Section section, int[] values) {
+            sections.put(section, values);
+            return this;
+        }
+
+        Writer put(Section section, long[] values) {
+            sections.put(section, values);
+            return this;
+        }
+
+        Writer put(Section section, char[] values) {
+            sections.put(section, values);
+            return this;
+        }
+
+        Writer put(Section section, byte[] values) {
+            sections.put(section, values);
+            return this;
+        }
+
+        WatchlistFile toMemory() throws IOException {
+            var buffer = ByteBuffer.allocateDirect(Math.toIntExact(length())).order(ByteOrder.LITTLE_ENDIAN);
+            fill(buffer);
+            return new WatchlistFile(buffer, "memory");
+        }
+
+        WatchlistFile toFile(Path path) throws IOException {
+            var temp = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName() + ".", ".tmp");
+            try {
+                try (var channel = FileChannel.open(temp, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                    var buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length());
+                    fill(buffer.order(ByteOrder.LITTLE_ENDIAN));
+                    buffer.force();
+                }
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(temp);
+                throw e;
+            }
+            return map(path);
+        }
+
+        private long length() {
+            long length = TABLE;
+            for (var section : Section.values()) {
+                length = align(length) + bytes(sections.get(section));
+            }
+            if (length > Integer.MAX_VALUE) {
+                throw new IllegalStateException("watchlist index over 2 GB: " + length + " bytes");
+            }
+            return length;
+        }
+
+        private void fill(ByteBuffer buffer) {
+            buffer.putLong(0, MAGIC)
+                    .putInt(8, FORMAT)
+                    .putInt(12, Section.values().length)
+                    .putLong(16, buffer.capacity());
+            int offset = TABLE;
+            for (var section : Section.values()) {
+                offset = (int) align(offset);
+                var values = sections.get(section);
+                var target = buffer.slice(offset, (int) bytes(values)).order(ByteOrder.LITTLE_ENDIAN);
+                if (values instanceof int[] ints) {
+                    target.asIntBuffer().put(ints);
+                } else if (values instanceof long[] longs) {
+                    target.asLongBuffer().put(longs);
+                } else if (values instanceof char[] chars) {
+                    target.asCharBuffer().put(chars);
+                } else if (values instanceof byte[] bytes) {
+                    target.put(bytes);
+                }
+                buffer.putLong(HEADER + 16 * section.ordinal(), offset)
+                        .putLong(HEADER + 16 * section.ordinal() + 8, bytes(values));
+                offset += (int) bytes(values);
+            }
+        }
+
+        private static long bytes(Object values) {
+            if (values instanceof int[] ints) {
+                return 4L * ints.length;
+            } else if (values instanceof long[] longs) {
+                return 8L * longs.length;
+            } else if (values instanceof char[] chars) {
+                return 2L * chars.length;
+            } else if (values instanceof byte[] bytes) {
+                return bytes.length;
+            }
+            throw new IllegalStateException("watchlist index section missing");
+        }
+
+        private static long align(long offset) {
+            return (offset + 7) & ~7L;
+        }
+    }
+}
@@ -0,0 +1,888 @@
+package com.mal.screening;
+
+import com.mal.screening.WatchlistFile.Section;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Index over a watchlist's names and aliases for local pre-screening.
+ *
+ * <p>Names are normalized ({@link Names}) and split into tokens. Every distinct token goes into a
+ * vocabulary, indexed by its character trigrams and its Soundex code as {@link PostingIndex}es of
+ * int token ids, with the ids of the names containing it. Adjacent tokens written together (so
+ * Al Qadi also reads as alqadi) are in the vocabulary as well, but only under an eight-character
+ * Soundex code, since the usual four characters would hardly get past the first name; this keeps
+ * the trigram and Soundex postings to real tokens. They only match single query tokens of about
+ * the same length, and only at {@value #JOINED_FLOOR}. A search:
+ * <ol>
+ *     <li>looks each query token, and each pair of adjacent query tokens written together, up in the
+ *     vocabulary: tokens sharing enough trigrams (Dice coefficient of at least {@value #GRAM_BLOCK})
+ *     or the Soundex code, and scoring at least {@link NameMatcher#TOKEN_FLOOR} Jaro-Winkler against it,
+ *     count as a match. Trigrams catch typos, Soundex catches spelling variants such as Smith and
+ *     Smyth</li>
+ *     <li>takes the names in which at least two query tokens matched (one for a one-token query or
+ *     a one-token name)</li>
+ *     <li>scores those with {@link NameMatcher}</li>
+ * </ol>
+ * Counting happens in reusable arrays and only ever visits tokens and names sharing a key with the
+ * query, so a lookup in a list of a million names stays well under a millisecond. The arrays are
+ * sized to the whole list, so they are pooled, one set per core, rather than kept by every thread
+ * that searches; a search finding the pool empty uses a set of its own and drops it.
+ *
+ * <p>Names are also kept pre-tokenized in one shared char section, so scoring a candidate only
+ * copies its few chars into scratch. When the query carries a date of birth or nationality and the
+ * entry lists one too, a different birth year or nationality lowers the score and a matching full
+ * date raises it.
+ *
+ * <p>Everything, including the entries themselves, is held in the sections of a
+ * {@link WatchlistFile} rather than in heap objects; an entry is only decoded when it matches.
+ * Immutable once built, so one index can be shared by any number of threads.
+ */
+public final class WatchlistIndex {
+
+    static final double GRAM_BLOCK = 0.4;
+    static final double JOINED_FLOOR = 0.9;
+    private static final int JOINED_CODE = 8;
+
+    // rough cost of one binary search in a name list, in name list entries walked
+    private static final int LOOKUP_COST = 16;
+
+    // query tokens tracked per candidate name, one bit each
+    private static final int MAX_QUERY_TOKENS = 31;
+
+    // score adjustments when both the query and the entry carry the attribute
+    private static final double BIRTH_YEAR_MISMATCH = 0.9;
+    private static final double BIRTH_DATE_MATCH = 0.05;
+    private static final double NATIONALITY_MISMATCH = 0.97;
+
+    // nationality ids besides those listed: none given, and one no entry has
+    private static final int NO_NATIONALITY = -1;
+    private static final int UNLISTED_NATIONALITY = -2;
+
+    private final String version;
+
+    // per entry: where its record starts, birth date (see Names.birthDate) and nationality id
+    private final IntBuffer entryStarts;
+    private final ByteBuffer entryRecords;
+    private final IntBuffer births;
+    private final IntBuffer nationalityIds;
+    private final Map<String, Integer> nationalities = new HashMap<>();
+
+    // per name id: owning entry, 0 for its name or 1 + alias index, first token in chars / tokenEnds
+    private final IntBuffer entryOf;
+    private final IntBuffer nameFields;
+    private final IntBuffer firstToken;
+
+    // all names' tokens back to back, see NameMatcher
+    private final CharBuffer chars;
+    private final IntBuffer tokenEnds;
+
+    // per vocabulary token: its chars, distinct trigram count, the names containing it and those
+    // of them with no other token; single
+    // tokens come first, so the counters a search touches stay close together, shortest first, so
+    // the single tokens of one length are the ids from lengthStarts[length]
+    private final CharBuffer vocabulary;
+    private final IntBuffer vocabularyEnds;
+    private final IntBuffer gramCounts;
+    private final int singleTokens;
+    private final IntBuffer lengthStarts;
+    private final IntBuffer tokenNameStarts;
+    private final IntBuffer tokenNames;
+    private final IntBuffer soloNameStarts;
+    private final IntBuffer soloNames;
+    private final PostingIndex grams;
+    private final PostingIndex codes;
+    private final PostingIndex joinedCodes;
+
+    private final Queue<Scratch> scratches = new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors());
+
+    private WatchlistIndex(WatchlistFile file) {
+        this.version = StandardCharsets.UTF_8.decode(file.bytes(Section.VERSION)).toString();
+        this.entryStarts = file.ints(Section.ENTRY_STARTS);
+        this.entryRecords = file.bytes(Section.ENTRY_RECORDS);
+        this.births = file.ints(Section.BIRTHS);
+        this.nationalityIds = file.ints(Section.NATIONALITY_IDS);
+        var listed = file.bytes(Section.NATIONALITIES);
+        for (var reader = new RecordReader(listed, 0); reader.position < listed.limit(); ) {
+            nationalities.put(reader.string(), nationalities.size());
+        }
+        this.entryOf = file.ints(Section.ENTRY_OF);
+        this.nameFields = file.ints(Section.NAME_FIELDS);
+        this.firstToken = file.ints(Section.FIRST_TOKEN);
+        this.chars = file.chars(Section.CHARS);
+        this.tokenEnds = file.ints(Section.TOKEN_ENDS);
+        this.vocabulary = file.chars(Section.VOCABULARY);
+        this.vocabularyEnds = file.ints(Section.VOCABULARY_ENDS);
+        this.gramCounts = file.ints(Section.GRAM_COUNTS);
+        this.singleTokens = file.ints(Section.SINGLE_TOKENS).get(0);
+        this.lengthStarts = file.ints(Section.LENGTH_STARTS);
+        this.tokenNameStarts = file.ints(Section.TOKEN_NAME_STARTS);
+        this.tokenNames = file.ints(Section.TOKEN_NAMES);
+        this.soloNameStarts = file.ints(Section.SOLO_NAME_STARTS);
+        this.soloNames = file.ints(Section.SOLO_NAMES);
+        this.grams = new PostingIndex(file.longs(Section.GRAM_KEYS), file.ints(Section.GRAM_STARTS),
+                file.ints(Section.GRAM_IDS));
+        this.codes = new PostingIndex(file.longs(Section.CODE_KEYS), file.ints(Section.CODE_STARTS),
+                file.ints(Section.CODE_IDS));
+        this.joinedCodes = new PostingIndex(file.longs(Section.JOINED_CODE_KEYS),
+                file.ints(Section.JOINED_CODE_STARTS), file.ints(Section.JOINED_CODE_IDS));
+    }
+
+    /**
+     * Builds the index in direct memory.
+     */
+    public static WatchlistIndex build(String version, List<WatchlistEntry> entries) {
+        try {
+            return new WatchlistIndex(sections(version, entries).toMemory());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Builds the index into the file at {@code path} and maps it.
+     */
+    public static WatchlistIndex write(String version, List<WatchlistEntry> entries, Path path) throws IOException {
+        return new WatchlistIndex(sections(version, entries).toFile(path));
+    }
+
+    /**
+     * Maps an index file written by {@link #write}.
+     */
+    public static WatchlistIndex map(Path path) throws IOException {
+        return new WatchlistIndex(WatchlistFile.map(path));
+    }
+
+    public String version() {
+        return version;
+    }
+
+    public int size() {
+        return births.limit();
+    }
+
+    /**
+     * Every entry, decoded in listed order.
+     */
+    public List<WatchlistEntry> entries() {
+        var entries = new ArrayList<WatchlistEntry>(size());
+        for (int e = 0; e < size(); e++) {
+            entries.add(entry(e));
+        }
+        return entries;
+    }
+
+    /**
+     * Entries with a name or alias scoring at least {@code floor} against {@code name}, best first,
+     * one match per entry.
+     */
+    public List<WatchlistMatch> search(String name, double floor, int limit) {
+        return search(name, null, null, floor, limit);
+    }
+
+    /**
+     * As {@link #search(String, double, int)}, with the score adjusted by date of birth and
+     * nationality where both sides have them.
+     */
+    public List<WatchlistMatch> search(String name, String dateOfBirth, String nationality, double floor, int limit) {
+        var query = NameMatcher.prepare(name);
+        if (query.tokens() == 0 || entryOf.limit() == 0) {
+            return List.of();
+        }
+        int birth = Names.birthDate(dateOfBirth);
+        var from = nationality(nationality);
+        int nationalityId = from == null ? NO_NATIONALITY : nationalities.getOrDefault(from, UNLISTED_NATIONALITY);
+
+        var pooled = scratches.poll();
+        var scratch = pooled != null ? pooled : new Scratch(vocabularyEnds.limit(), entryOf.limit());
+        int queryTokens = Math.min(query.tokens(), MAX_QUERY_TOKENS);
+        var singles = new ArrayList<Hits>(queryTokens);
+        var pairs = new ArrayList<Hits>(queryTokens);
+        var ends = query.ends();
+        for (int q = 0; q < queryTokens; q++) {
+            singles.add(hits(query.chars(), NameMatcher.start(ends, q), ends[q], 1 << q, false, scratch));
+            if (q > 0) {
+                pairs.add(hits(query.chars(), NameMatcher.start(ends, q - 1), ends[q], 3 << (q - 1), true, scratch));
+            }
+        }
+
+        // a name needs two matched query tokens, so it must match one of all but the commonest
+        // token: that one only has to mark names already found, and add the one-token names it
+        // matches, which need no other
+        int required = Math.min(queryTokens, 2);
+        singles.sort(Comparator.comparingLong(Hits::volume));
+        int candidates = 0;
+        for (int i = 0; i <= queryTokens - required; i++) {
+            candidates = mark(singles.get(i).bits(), singles.get(i).runs(), tokenNames, scratch, candidates);
+        }
+        for (var pair : pairs) {
+            candidates = mark(pair.bits(), pair.runs(), tokenNames, scratch, candidates);
+        }
+        for (int i = queryTokens - required + 1; i < queryTokens; i++) {
+            markFound(singles.get(i), scratch, candidates);
+            candidates = mark(singles.get(i).bits(), singles.get(i).solos(), soloNames, scratch, candidates);
+        }
+
+        var scored = new ArrayList<Scored>();
+        for (int i = 0; i < candidates; i++) {
+            int id = scratch.candidates[i];
+            int matched = Integer.bitCount(scratch.matched[id]);
+            scratch.matched[id] = 0;
+            if (matched < Math.min(required, firstToken.get(id + 1) - firstToken.get(id))) {
+                continue;
+            }
+            int tokens = nameTokens(id, scratch);
+            var score = NameMatcher.similarity(
+                    query.chars(), query.ends(), 0, query.tokens(),
+                    scratch.name, scratch.nameEnds, 0, tokens);
+            int entry = entryOf.get(id);
+            score = adjust(score, entry, birth, nationalityId);
+            if (score >= floor) {
+                scored.add(new Scored(entry, id, score));
+            }
+        }
+        // back to the pool only once reset; a full pool drops it
+        scratches.offer(scratch);
+        if (scored.isEmpty()) {
+            return List.of();
+        }
+
+        scored.sort(Comparator.comparingDouble(Scored::score).reversed());
+        var seen = new HashSet<Integer>();
+        var best = new ArrayList<WatchlistMatch>();
+        for (var match : scored) {
+            if (best.size() == limit) {
+                break;
+            }
+            if (seen.add(match.entry())) {
+                var entry = entry(match.entry());
+                int field = nameFields.get(match.name());
+                var matchedName = field == 0 ? entry.name() : entry.aliases().get(field - 1);
+                best.add(new WatchlistMatch(entry, matchedName, match.score()));
+            }
+        }
+        return best;
+    }
+
+    private record Scored(int entry, int name, double score) {
+    }
+
+    /**
+     * Names containing a vocabulary token that matches query tokens {@code bits}, their text
+     * {@code query[from, to)}: one token, or two written together if {@code pair}. The names are
+     * runs of {@code tokenNames}, as {@code from, to} pairs; {@code solos} the runs of
+     * {@code soloNames} among them.
+     */
+    private record Hits(int bits, IntList runs, IntList solos, long volume) {
+    }
+
+    private Hits hits(char[] query, int from, int to, int bits, boolean pair, Scratch scratch) {
+        var token = new String(query, from, to - from);
+        var tokenGrams = trigrams(token);
+
+        // trigram counts, rarest key first; the commonest keys only count tokens already seen,
+        // since a token sharing none of the rarer keys cannot reach the block
+        var keys = new long[tokenGrams.length];
+        for (int k = 0; k < tokenGrams.length; k++) {
+            int key = grams.find(tokenGrams[k]);
+            keys[k] = (long) (grams.to(key) - grams.from(key)) << 32 | (key & 0xFFFFFFFFL);
+        }
+        Arrays.sort(keys);
+        int minShared = Math.max(1, (int) Math.ceil(GRAM_BLOCK * tokenGrams.length / (2 - GRAM_BLOCK)));
+        int admitting = tokenGrams.length - minShared + 1;
+
+        // two tokens written together only match single tokens of about their length
+        int idFrom = 0;
+        int idTo = singleTokens;
+        if (pair) {
+            idFrom = lengthStart((int) Math.ceil(NameMatcher.JOINED_LENGTH_RATIO * (to - from)));
+            idTo = lengthStart((int) ((to - from) / NameMatcher.JOINED_LENGTH_RATIO) + 1);
+        }
+        int touched = 0;
+        for (int k = 0; k < keys.length; k++) {
+            int key = (int) keys[k];
+            int end = grams.to(key);
+            for (int i = lowerBound(grams, grams.from(key), end, idFrom); i < end; i++) {
+                int t = grams.id(i);
+                if (t >= idTo) {
+                    break;
+                }
+                if (scratch.grams[t] == 0) {
+                    if (k >= admitting) {
+                        continue;
+                    }
+                    scratch.touched[touched++] = t;
+                }
+                scratch.grams[t]++;
+            }
+        }
+
+        // keep the tokens reaching the block at the front of touched
+        int kept = 0;
+        for (int i = 0; i < touched; i++) {
+            int t = scratch.touched[i];
+            var reached = dice(scratch.grams[t], tokenGrams.length, gramCounts.get(t)) >= GRAM_BLOCK;
+            scratch.grams[t] = 0;
+            if (reached) {
+                scratch.grams[t] = -1;
+                scratch.touched[kept++] = t;
+            }
+        }
+        // and those with the same Soundex code, unless already kept
+        kept = keep(codes, soundex(token, 4), idFrom, idTo, scratch, kept);
+        if (!pair) {
+            kept = keep(joinedCodes, soundex(token, JOINED_CODE), singleTokens, vocabularyEnds.limit(), scratch, kept);
+        }
+
+        var runs = new IntList();
+        var solos = new IntList();
+        long volume = 0;
+        for (int i = 0; i < kept; i++) {
+            int t = scratch.touched[i];
+            scratch.grams[t] = 0;
+            int tokenFrom = t == 0 ? 0 : vocabularyEnds.get(t - 1);
+            int length = vocabularyEnds.get(t) - tokenFrom;
+            var isJoined = t >= singleTokens;
+            if ((pair || isJoined) && !NameMatcher.comparableLengths(to - from, length)) {
+                continue;
+            }
+            var candidate = scratch.token(length);
+            vocabulary.get(tokenFrom, candidate, 0, length);
+            var score = NameMatcher.jaroWinkler(query, from, to, candidate, 0, length);
+            if (score < (pair || isJoined ? JOINED_FLOOR : NameMatcher.TOKEN_FLOOR)) {
+                continue;
+            }
+            int namesFrom = tokenNameStarts.get(t);
+            int namesTo = tokenNameStarts.get(t + 1);
+            runs.add(namesFrom);
+            runs.add(namesTo);
+            volume += namesTo - namesFrom;
+            if (!isJoined && soloNameStarts.get(t) < soloNameStarts.get(t + 1)) {
+                solos.add(soloNameStarts.get(t));
+                solos.add(soloNameStarts.get(t + 1));
+            }
+        }
+        return new Hits(bits, runs, solos, volume);
+    }
+
+    /**
+     * Marks {@code bits} on the names in {@code runs} of {@code names}, adding names seen for the
+     * first time to the candidates.
+     */
+    private static int mark(int bits, IntList runs, IntBuffer names, Scratch scratch, int candidates) {
+        for (int r = 0; r < runs.size(); r += 2) {
+            for (int i = runs.get(r), end = runs.get(r + 1); i < end; i++) {
+                int id = names.get(i);
+                if (scratch.matched[id] == 0) {
+                    scratch.candidates[candidates++] = id;
+                }
+                scratch.matched[id] |= bits;
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Marks the hits on candidates already found only, looking each one up in the sorted name runs
+     * when that is cheaper than walking them.
+     */
+    private void markFound(Hits hits, Scratch scratch, int candidates) {
+        var runs = hits.runs();
+        if ((long) candidates * (runs.size() / 2) * LOOKUP_COST < hits.volume()) {
+            for (int c = 0; c < candidates; c++) {
+                int id = scratch.candidates[c];
+                for (int r = 0; r < runs.size(); r += 2) {
+                    int i = lowerBound(tokenNames, runs.get(r), runs.get(r + 1), id);
+                    if (i < runs.get(r + 1) && tokenNames.get(i) == id) {
+                        scratch.matched[id] |= hits.bits();
+                        break;
+                    }
+                }
+            }
+            return;
+        }
+        for (int r = 0; r < runs.size(); r += 2) {
+            for (int i = runs.get(r), end = runs.get(r + 1); i < end; i++) {
+                int id = tokenNames.get(i);
+                if (scratch.matched[id] != 0) {
+                    scratch.matched[id] |= hits.bits();
+                }
+            }
+        }
+    }
+
+    private static int keep(PostingIndex index, long key, int idFrom, int idTo, Scratch scratch, int kept) {
+        int k = index.find(key);
+        for (int i = index.from(k), end = index.to(k); i < end; i++) {
+            int t = index.id(i);
+            if (t >= idFrom && t < idTo && scratch.grams[t] == 0) {
+                scratch.grams[t] = -1;
+                scratch.touched[kept++] = t;
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Copies the tokens of name {@code id} into the scratch name arrays.
+     *
+     * @return the number of tokens
+     */
+    private int nameTokens(int id, Scratch scratch) {
+        int first = firstToken.get(id);
+        int tokens = firstToken.get(id + 1) - first;
+        int from = first == 0 ? 0 : tokenEnds.get(first - 1);
+        int length = tokenEnds.get(first + tokens - 1) - from;
+        scratch.fitName(length, tokens);
+        chars.get(from, scratch.name, 0, length);
+        for (int t = 0; t < tokens; t++) {
+            scratch.nameEnds[t] = tokenEnds.get(first + t) - from;
+        }
+        return tokens;
+    }
+
+    private int lengthStart(int length) {
+        return lengthStarts.get(Math.min(length, lengthStarts.limit() - 1));
+    }
+
+    // first position in [from, to) of the ascending ids holding at least key
+    private static int lowerBound(PostingIndex index, int from, int to, int key) {
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (index.id(mid) < key) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return from;
+    }
+
+    private static int lowerBound(IntBuffer ids, int from, int to, int key) {
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (ids.get(mid) < key) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return from;
+    }
+
+    private double adjust(double score, int entry, int birth, int nationality) {
+        int listed = births.get(entry);
+        if (birth != 0 && listed != 0) {
+            if (Math.abs(birth / 10000 - listed / 10000) > 1) {
+                score *= BIRTH_YEAR_MISMATCH;
+            } else if (birth == listed && birth % 10000 != 0) {
+                score = Math.min(1, score + BIRTH_DATE_MATCH);
+            }
+        }
+        int listedNationality = nationalityIds.get(entry);
+        if (nationality != NO_NATIONALITY && listedNationality != NO_NATIONALITY && nationality != listedNationality) {
+            score *= NATIONALITY_MISMATCH;
+        }
+        return score;
+    }
+
+    private WatchlistEntry entry(int e) {
+        var reader = new RecordReader(entryRecords, entryStarts.get(e));
+        var id = reader.string();
+        var name = reader.string();
+        var dateOfBirth = reader.string();
+        var nationality = reader.string();
+        var source = reader.string();
+        var aliases = new ArrayList<String>();
+        for (int a = reader.integer(); a > 0; a--) {
+            aliases.add(reader.string());
+        }
+        return new WatchlistEntry(id, name, aliases, dateOfBirth, nationality, source);
+    }
+
+    private static String nationality(String nationality) {
+        var normalized = Names.normalize(nationality);
+        return normalized.isEmpty() ? null : normalized;
+    }
+
+    private static double dice(int shared, int queryKeys, int tokenKeys) {
+        return shared == 0 ? 0 : 2.0 * shared / (queryKeys + tokenKeys);
+    }
+
+    /**
+     * Distinct trigrams of the space-padded text, three 16-bit chars packed per {@code long}.
+     */
+    static long[] trigrams(String normalized) {
+        var padded = " " + normalized + " ";
+        var grams = new long[padded.length() - 2];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = ((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2);
+        }
+        return distinct(grams);
+    }
+
+    /**
+     * Soundex code of a token, up to eight ASCII chars packed in a {@code long}, or 0 without one.
+     */
+    static long soundex(String token, int size) {
+        var code = Names.soundex(token, size);
+        if (code == null) {
+            return 0;
+        }
+        long packed = 0;
+        for (int i = 0; i < size; i++) {
+            packed = packed << 8 | code.charAt(i);
+        }
+        return packed;
+    }
+
+    private static long[] distinct(long[] keys) {
+        if (keys.length < 2) {
+            return keys;
+        }
+        Arrays.sort(keys);
+        int n = 1;
+        for (int i = 1; i < keys.length; i++) {
+            if (keys[i] != keys[n - 1]) {
+                keys[n++] = keys[i];
+            }
+        }
+        return n == keys.length ? keys : Arrays.copyOf(keys, n);
+    }
+
+    private static WatchlistFile.Writer sections(String version, List<WatchlistEntry> entries) {
+        var builder = new Builder();
+        var records = new RecordWriter();
+        var entryStarts = new int[entries.size() + 1];
+        var births = new int[entries.size()];
+        var nationalityIds = new int[entries.size()];
+        var nationalities = new HashMap<String, Integer>();
+        var listed = new RecordWriter();
+        for (int e = 0; e < entries.size(); e++) {
+            var entry = entries.get(e);
+            var seen = new HashSet<String>();
+            builder.add(e, 0, entry.name(), seen);
+            for (int a = 0; a < entry.aliases().size(); a++) {
+                builder.add(e, a + 1, entry.aliases().get(a), seen);
+            }
+
+            entryStarts[e] = records.size();
+            records.string(entry.id());
+            records.string(entry.name());
+            records.string(entry.dateOfBirth());
+            records.string(entry.nationality());
+            records.string(entry.source());
+            records.integer(entry.aliases().size());
+            entry.aliases().forEach(records::string);
+            births[e] = Names.birthDate(entry.dateOfBirth());
+            var nationality = nationality(entry.nationality());
+            nationalityIds[e] = nationality == null ? NO_NATIONALITY : nationalities.computeIfAbsent(nationality, key -> {
+                listed.string(key);
+                return nationalities.size();
+            });
+        }
+        entryStarts[entries.size()] = records.size();
+        builder.firstToken.add(builder.tokenEnds.size());
+
+        // single tokens first and by length, then the joined ones
+        int size = builder.tokens.size();
+        var order = new int[size];
+        int singles = 0;
+        int longest = 0;
+        for (int t = builder.joined.nextClearBit(0); t < size; t = builder.joined.nextClearBit(t + 1)) {
+            order[singles++] = t;
+            longest = Math.max(longest, builder.tokens.get(t).length());
+        }
+        var byLength = Arrays.stream(order, 0, singles).boxed()
+                .sorted(Comparator.comparingInt(t -> builder.tokens.get(t).length()))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        System.arraycopy(byLength, 0, order, 0, singles);
+        for (int t = builder.joined.nextSetBit(0), n = singles; t >= 0; t = builder.joined.nextSetBit(t + 1)) {
+            order[n++] = t;
+        }
+        var lengthStarts = new int[longest + 2];
+        for (int length = 0, t = 0; length < lengthStarts.length; length++) {
+            while (t < singles && builder.tokens.get(order[t]).length() < length) {
+                t++;
+            }
+            lengthStarts[length] = t;
+        }
+
+        var vocabulary = new StringBuilder();
+        var vocabularyEnds = new int[size];
+        var gramCounts = new int[size];
+        var tokenNames = new IntList();
+        var tokenNameStarts = new int[size + 1];
+        var soloNames = new IntList();
+        var soloNameStarts = new int[size + 1];
+        var grams = new PostingIndex.Builder();
+        var codes = new PostingIndex.Builder();
+        var joinedCodes = new PostingIndex.Builder();
+        for (int t = 0; t < size; t++) {
+            var token = builder.tokens.get(order[t]);
+            vocabulary.append(token);
+            vocabularyEnds[t] = vocabulary.length();
+            if (t >= singles) {
+                var code = soundex(token, JOINED_CODE);
+                if (code != 0) {
+                    joinedCodes.add(code, t);
+                }
+            } else {
+                var tokenGrams = trigrams(token);
+                gramCounts[t] = tokenGrams.length;
+                for (var gram : tokenGrams) {
+                    grams.add(gram, t);
+                }
+                var code = soundex(token, 4);
+                if (code != 0) {
+                    codes.add(code, t);
+                }
+            }
+            tokenNames.addAll(builder.tokenNames.get(order[t]));
+            tokenNameStarts[t + 1] = tokenNames.size();
+            soloNames.addAll(builder.soloNames.get(order[t]));
+            soloNameStarts[t + 1] = soloNames.size();
+        }
+
+        var gramColumns = grams.build();
+        var codeColumns = codes.build();
+        var joinedCodeColumns = joinedCodes.build();
+        return new WatchlistFile.Writer()
+                .put(Section.VERSION, version.getBytes(StandardCharsets.UTF_8))
+                .put(Section.ENTRY_STARTS, entryStarts)
+                .put(Section.ENTRY_RECORDS, records.toArray())
+                .put(Section.BIRTHS, births)
+                .put(Section.NATIONALITY_IDS, nationalityIds)
+                .put(Section.NATIONALITIES, listed.toArray())
+                .put(Section.ENTRY_OF, builder.entryOf.toArray())
+                .put(Section.NAME_FIELDS, builder.nameFields.toArray())
+                .put(Section.FIRST_TOKEN, builder.firstToken.toArray())
+                .put(Section.CHARS, builder.chars.toString().toCharArray())
+                .put(Section.TOKEN_ENDS, builder.tokenEnds.toArray())
+                .put(Section.VOCABULARY, vocabulary.toString().toCharArray())
+                .put(Section.VOCABULARY_ENDS, vocabularyEnds)
+                .put(Section.GRAM_COUNTS, gramCounts)
+                .put(Section.LENGTH_STARTS, lengthStarts)
+                .put(Section.SINGLE_TOKENS, new int[]{singles})
+                .put(Section.TOKEN_NAME_STARTS, tokenNameStarts)
+                .put(Section.TOKEN_NAMES, tokenNames.toArray())
+                .put(Section.SOLO_NAME_STARTS, soloNameStarts)
+                .put(Section.SOLO_NAMES, soloNames.toArray())
+                .put(Section.GRAM_KEYS, gramColumns.keys())
+                .put(Section.GRAM_STARTS, gramColumns.starts())
+                .put(Section.GRAM_IDS, gramColumns.ids())
+                .put(Section.CODE_KEYS, codeColumns.keys())
+                .put(Section.CODE_STARTS, codeColumns.starts())
+                .put(Section.CODE_IDS, codeColumns.ids())
+                .put(Section.JOINED_CODE_KEYS, joinedCodeColumns.keys())
+                .put(Section.JOINED_CODE_STARTS, joinedCodeColumns.starts())
+                .put(Section.JOINED_CODE_IDS, joinedCodeColumns.ids());
+    }
+
+    private static final class Builder {
+
+        private final IntList entryOf = new IntList();
+        private final IntList nameFields = new IntList();
+        private final IntList firstToken = new IntList();
+        private final StringBuilder chars = new StringBuilder();
+        private final IntList tokenEnds = new IntList();
+
+        private final Map<String, Integer> tokenIds = new HashMap<>();
+        private final List<String> tokens = new ArrayList<>();
+        private final List<IntList> tokenNames = new ArrayList<>();
+        private final List<IntList> soloNames = new ArrayList<>();
+        // set for tokens only ever seen as two tokens written together
+        private final BitSet joined = new BitSet();
+
+        void add(int entry, int field, String name, Set<String> seen) {
+            var normalized = Names.normalize(name);
+            if (normalized.isEmpty() || !seen.add(normalized)) {
+                return;
+            }
+            int id = entryOf.size();
+            entryOf.add(entry);
+            nameFields.add(field);
+            firstToken.add(tokenEnds.size());
+            var split = Names.tokens(normalized);
+            for (int t = 0; t < split.length; t++) {
+                chars.append(split[t]);
+                tokenEnds.add(chars.length());
+                addToken(split[t], id, false);
+                if (t > 0) {
+                    addToken(split[t - 1] + split[t], id, true);
+                }
+            }
+            if (split.length == 1) {
+                soloNames.get(tokenIds.get(split[0])).add(id);
+            }
+        }
+
+        private void addToken(String token, int name, boolean pair) {
+            var tokenId = tokenIds.computeIfAbsent(token, key -> {
+                tokens.add(key);
+                tokenNames.add(new IntList());
+                soloNames.add(new IntList());
+                joined.set(tokens.size() - 1, pair);
+                return tokens.size() - 1;
+            });
+            if (!pair) {
+                joined.clear(tokenId);
+            }
+            var postings = tokenNames.get(tokenId);
+            // names are added in ascending id order, so a repeat can only be the last one
+            if (postings.size() == 0 || postings.last() != name) {
+                postings.add(name);
+            }
+        }
+    }
+
+    private static final class IntList {
+
+        private int[] values = new int[2];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void addAll(IntList other) {
+            if (size + other.size > values.length) {
+                values = Arrays.copyOf(values, Math.max(size + other.size, size * 2));
+            }
+            System.arraycopy(other.values, 0, values, size, other.size);
+            size += other.size;
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+
+        int size() {
+            return size;
+        }
+
+        int last() {
+            return values[size - 1];
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    // entry records: strings as a length (-1 for null) and UTF-8 bytes, ints little-endian
+    private static final class RecordWriter {
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        void string(String value) {
+            if (value == null) {
+                integer(-1);
+                return;
+            }
+            var encoded = value.getBytes(StandardCharsets.UTF_8);
+            integer(encoded.length);
+            bytes.writeBytes(encoded);
+        }
+
+        void integer(int value) {
+            bytes.write(value);
+            bytes.write(value >>> 8);
+            bytes.write(value >>> 16);
+            bytes.write(value >>> 24);
+        }
+
+        int size() {
+            return bytes.size();
+        }
+
+        byte[] toArray() {
+            return bytes.toByteArray();
+        }
+    }
+
+    private static final class RecordReader {
+
+        private final ByteBuffer records;
+        private int position;
+
+        RecordReader(ByteBuffer records, int position) {
+            this.records = records;
+            this.position = position;
+        }
+
+        int integer() {
+            int value = records.getInt(position);
+            position += 4;
+            return value;
+        }
+
+        String string() {
+            int length = integer();
+            if (length < 0) {
+                return null;
+            }
+            var encoded = new byte[length];
+            records.get(position, encoded);
+            position += length;
+            return new String(encoded, StandardCharsets.UTF_8);
+        }
+    }
+
+    // counters and marks of one search, reset as they are read so the next search starts from zero
+    private static final class Scratch {
+
+        final int[] grams;
+        final int[] touched;
+        final int[] matched;
+        final int[] candidates;
+        char[] token = new char[32];
+        char[] name = new char[64];
+        int[] nameEnds = new int[8];
+
+        Scratch(int tokens, int names) {
+            this.grams = new int[tokens];
+            this.touched = new int[tokens];
+            this.matched = new int[names];
+            this.candidates = new int[names];
+        }
+
+        char[] token(int length) {
+            if (token.length < length) {
+                token = new char[length];
+            }
+            return token;
+        }
+
+        void fitName(int length, int tokens) {
+            if (name.length < length) {
+                name = new char[length];
+            }
+            if (nameEnds.length < tokens) {
+                nameEnds = new int[tokens];
+            }
+        }
+    }
+}
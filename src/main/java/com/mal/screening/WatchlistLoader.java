@@ -0,0 +1,232 @@
+package com.mal.screening;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Reads a watchlist export into a {@link WatchlistIndex}. The format follows the file extension:
+ * <ul>
+ *     <li>{@code .json}: an array of {@link WatchlistEntry} objects</li>
+ *     <li>anything else: CSV with a header row naming the columns {@code id}, {@code name},
+ *     {@code aliases} ({@code ;}-separated), {@code date_of_birth}, {@code nationality} and
+ *     {@code source}; only {@code id} and {@code name} are required</li>
+ * </ul>
+ * The index version is a hash of the file content, so an unchanged file keeps its version.
+ *
+ * <p>A delta file has the same format plus an optional {@code action} column (field in JSON):
+ * {@code remove} drops the entry with that id, anything else adds the entry or replaces the one
+ * with the same id. Applying a delta chains its hash onto the version, so a list rebuilt from the
+ * export and the same deltas gets the same version however it was reached.
+ */
+public final class WatchlistLoader {
+
+    private static final ObjectMapper JSON = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private WatchlistLoader() {
+    }
+
+    /**
+     * A parsed delta file: entries to add or replace, and ids to remove.
+     */
+    record Delta(List<WatchlistEntry> upserts, Set<String> removals) {
+    }
+
+    private record DeltaRow(
+            String action,
+            String id,
+            String name,
+            List<String> aliases,
+            String dateOfBirth,
+            String nationality,
+            String source) {
+    }
+
+    public static WatchlistIndex load(Path path) throws IOException {
+        var content = Files.readAllBytes(path);
+        return WatchlistIndex.build(version(content), entries(path, content));
+    }
+
+    static List<WatchlistEntry> entries(Path path, byte[] content) throws IOException {
+        return isJson(path)
+                ? Arrays.asList(JSON.readValue(content, WatchlistEntry[].class))
+                : csv(new String(content, StandardCharsets.UTF_8));
+    }
+
+    static Delta delta(Path path, byte[] content) throws IOException {
+        var upserts = new ArrayList<WatchlistEntry>();
+        var removals = new HashSet<String>();
+        if (isJson(path)) {
+            for (var row : JSON.readValue(content, DeltaRow[].class)) {
+                if (isRemoval(row.action())) {
+                    removals.add(row.id());
+                } else {
+                    upserts.add(new WatchlistEntry(row.id(), row.name(), row.aliases(), row.dateOfBirth(),
+                            row.nationality(), row.source()));
+                }
+            }
+        } else {
+            csv(new String(content, StandardCharsets.UTF_8), (entry, action) -> {
+                if (isRemoval(action)) {
+                    removals.add(entry.id());
+                } else {
+                    upserts.add(entry);
+                }
+            });
+        }
+        return new Delta(upserts, removals);
+    }
+
+    /**
+     * The entries with the delta applied: removed and replaced entries dropped, then the delta's
+     * entries appended in file order.
+     */
+    static List<WatchlistEntry> apply(List<WatchlistEntry> entries, Delta delta) {
+        var changed = new HashSet<>(delta.removals());
+        delta.upserts().forEach(entry -> changed.add(entry.id()));
+        var applied = new ArrayList<WatchlistEntry>(entries.size() + delta.upserts().size());
+        for (var entry : entries) {
+            if (!changed.contains(entry.id())) {
+                applied.add(entry);
+            }
+        }
+        applied.addAll(delta.upserts());
+        return applied;
+    }
+
+    static List<WatchlistEntry> csv(String content) throws IOException {
+        var entries = new ArrayList<WatchlistEntry>();
+        csv(content, (entry, action) -> entries.add(entry));
+        return entries;
+    }
+
+    private static void csv(String content, BiConsumer<WatchlistEntry, String> rowHandler) throws IOException {
+        var rows = rows(content);
+        if (rows.isEmpty()) {
+            return;
+        }
+        var columns = new HashMap<String, Integer>();
+        var header = rows.get(0);
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("id") || !columns.containsKey("name")) {
+            throw new IOException("watchlist CSV needs id and name columns, found " + header);
+        }
+
+        for (var row : rows.subList(1, rows.size())) {
+            var aliases = column(row, columns, "aliases");
+            rowHandler.accept(new WatchlistEntry(
+                    column(row, columns, "id"),
+                    column(row, columns, "name"),
+                    aliases == null ? List.of() : Arrays.stream(aliases.split(";"))
+                            .map(String::trim)
+                            .filter(alias -> !alias.isEmpty())
+                            .toList(),
+                    column(row, columns, "date_of_birth"),
+                    column(row, columns, "nationality"),
+                    column(row, columns, "source")), column(row, columns, "action"));
+        }
+    }
+
+    private static boolean isJson(Path path) {
+        return path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".json");
+    }
+
+    private static boolean isRemoval(String action) {
+        return action != null && action.trim().equalsIgnoreCase("remove");
+    }
+
+    private static String column(List<String> row, Map<String, Integer> columns, String name) {
+        var index = columns.get(name);
+        if (index == null || index >= row.size()) {
+            return null;
+        }
+        var value = row.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    // RFC 4180: fields may be quoted, quotes inside are doubled, quoted fields may span lines
+    private static List<List<String>> rows(String content) throws IOException {
+        var rows = new ArrayList<List<String>>();
+        var row = new ArrayList<String>();
+        var field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < content.length(); i++) {
+            char c = content.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < content.length() && content.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                row.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r' && i + 1 < content.length() && content.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                row.add(field.toString());
+                field.setLength(0);
+                addRow(rows, row);
+                row = new ArrayList<>();
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IOException("watchlist CSV ends inside a quoted field");
+        }
+        row.add(field.toString());
+        addRow(rows, row);
+        return rows;
+    }
+
+    private static void addRow(List<List<String>> rows, List<String> row) {
+        if (row.size() > 1 || !row.get(0).isBlank()) {
+            rows.add(row);
+        }
+    }
+
+    static String version(byte[] content) {
+        return version(null, content);
+    }
+
+    /**
+     * Version of a list at {@code previous} after a delta with this content.
+     */
+    static String version(String previous, byte[] content) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            if (previous != null) {
+                digest.update(previous.getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest(content), 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.mal.screening;
+
+public record WatchlistMatch(
+        WatchlistEntry entry,
+        String matchedName,     // the name or alias that matched
+        double score            // 0-1
+) {
+}
@@ -0,0 +1,188 @@
+package com.mal.screening;
+
+import com.mal.config.WatchlistProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Local pre-screening against the watchlist in {@code kyc.watchlist.path}. With
+ * {@code clear-locally}, a name without candidates is cleared here and only names with candidates
+ * go to the remote sanctions provider. Without a loaded list every name goes remote.
+ *
+ * <p>Every {@code reload-interval} a background thread checks the export and {@code delta-dir}
+ * ({@link WatchlistStore}). A new version is built on that thread and swapped in with one volatile
+ * write, so searches never wait for a reload; a search already running finishes on the index it
+ * started with. If a reload fails, the current index stays.
+ *
+ * <p>Every swap is also published as a {@link WatchlistChange}, for re-screening existing customers
+ * against what the new version added.
+ */
+@Slf4j
+@Component
+public class WatchlistScreening implements DisposableBean {
+
+    private final WatchlistProperties props;
+    private final MeterRegistry meterRegistry;
+    private final WatchlistStore store;
+    private final List<Consumer<String>> versionListeners = new CopyOnWriteArrayList<>();
+    private final List<Consumer<WatchlistChange>> changeListeners = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService reloads;
+
+    private volatile WatchlistIndex index;
+    private volatile WatchlistChange lastChange;
+
+    public WatchlistScreening(WatchlistProperties props, MeterRegistry meterRegistry) {
+        this.props = props;
+        this.meterRegistry = meterRegistry;
+        this.store = props.isEnabled() ? store(props) : null;
+        this.index = store == null ? null : load(store, props.getPath());
+        this.lastChange = index == null ? null : store.change();
+
+        meterRegistry.gauge("kyc.watchlist.entries", this, screening -> screening.index == null ? 0 : screening.index.size());
+
+        var interval = props.getReloadInterval();
+        if (store != null && interval != null && !interval.isZero() && !interval.isNegative()) {
+            this.reloads = Executors.newSingleThreadScheduledExecutor(r -> {
+                var thread = new Thread(r, "kyc-watchlist-reload");
+                thread.setDaemon(true);
+                return thread;
+            });
+            reloads.scheduleWithFixedDelay(this::reload, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        } else {
+            this.reloads = null;
+        }
+    }
+
+    public boolean isActive() {
+        return index != null;
+    }
+
+    /**
+     * Listed entries resembling the person, best first; date of birth and nationality may be
+     * {@code null}.
+     */
+    public List<WatchlistMatch> candidates(String fullName, String dateOfBirth, String nationality) {
+        var current = index;
+        return current == null ? List.of() : current.search(fullName, dateOfBirth, nationality,
+                props.getSimilarityFloor(), props.getMaxCandidates());
+    }
+
+    /**
+     * True if the person has no candidates and may be cleared without asking the provider.
+     */
+    public boolean clearsLocally(String fullName, String dateOfBirth, String nationality) {
+        if (index == null || !props.isClearLocally()) {
+            return false;
+        }
+        var candidates = candidates(fullName, dateOfBirth, nationality);
+        meterRegistry.counter("kyc.watchlist.screenings", "outcome", candidates.isEmpty() ? "cleared" : "candidates")
+                .increment();
+        return candidates.isEmpty();
+    }
+
+    /**
+     * Calls {@code listener} with the version in use now, if any, and with every version swapped in
+     * later. It runs after the swap, so anything screened from then on used the new version.
+     */
+    public void onVersion(Consumer<String> listener) {
+        versionListeners.add(listener);
+        var current = index;
+        if (current != null) {
+            listener.accept(current.version());
+        }
+    }
+
+    /**
+     * Calls {@code listener} with the last change, if any, including one found at startup against
+     * the index the previous run used, and with every change after it. A change may therefore reach
+     * a listener twice.
+     */
+    public void onChange(Consumer<WatchlistChange> listener) {
+        changeListeners.add(listener);
+        var last = lastChange;
+        if (last != null) {
+            listener.accept(last);
+        }
+    }
+
+    /**
+     * Picks up a changed export or new delta files.
+     *
+     * @return true if a new version is in use
+     */
+    public synchronized boolean reload() {
+        if (store == null) {
+            return false;
+        }
+        var current = index;
+        try {
+            var start = System.nanoTime();
+            var next = current == null ? store.load() : store.refresh(current);
+            if (next == null || current != null && next.version().equals(current.version())) {
+                return false;
+            }
+            index = next;
+            log.info("watchlist_swapped previous={} version={} entries={} tookMs={}",
+                    current == null ? null : current.version(), next.version(), next.size(),
+                    (System.nanoTime() - start) / 1_000_000);
+            meterRegistry.counter("kyc.watchlist.swaps").increment();
+            versionListeners.forEach(listener -> listener.accept(next.version()));
+            var change = store.change();
+            if (change != null) {
+                lastChange = change;
+                changeListeners.forEach(listener -> listener.accept(change));
+            }
+            store.retire(next);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.error("watchlist_reload_failed path={} version={} error={}",
+                    props.getPath(), current == null ? null : current.version(), e.toString());
+            return false;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (reloads != null) {
+            reloads.shutdownNow();
+        }
+    }
+
+    private static WatchlistStore store(WatchlistProperties props) {
+        if (props.getPath() == null || props.getPath().isBlank()) {
+            log.error("watchlist_not_loaded reason=no kyc.watchlist.path");
+            return null;
+        }
+        return new WatchlistStore(Path.of(props.getPath()), path(props.getDeltaDir()), path(props.getIndexDir()));
+    }
+
+    private static Path path(String path) {
+        return path == null || path.isBlank() ? null : Path.of(path);
+    }
+
+    private static WatchlistIndex load(WatchlistStore store, String path) {
+        try {
+            var start = System.nanoTime();
+            var index = store.load();
+            log.info("watchlist_loaded path={} version={} entries={} tookMs={}",
+                    path, index.version(), index.size(), (System.nanoTime() - start) / 1_000_000);
+            store.retire(index);
+            return index;
+        } catch (IOException | RuntimeException e) {
+            // every name then goes to the remote provider, which is slower but never wrong
+            log.error("watchlist_not_loaded path={} error={}", path, e.toString());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.mal.screening;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * The files behind the local watchlist: the export, delta files applied on top of it in file name
+ * order, and the compiled index files that are mapped for searching.
+ *
+ * <p>A compiled file is named after the version it holds, so an index built earlier, by this or
+ * another instance sharing the directory, is mapped instead of rebuilt. New delta files are applied
+ * to the entries of the current index without parsing the export again; a changed export, or a
+ * delta file that went away, rebuilds from scratch. Delta files are expected to be written once and
+ * moved into place, never edited; later changes go in a new file.
+ *
+ * <p>Each load or refresh also works out the {@link WatchlistChange} from the version before: the
+ * new deltas' entries, or, after a rebuild, the entries that differ from the previous index. At
+ * startup the previous index is the compiled file left by the last run, if any.
+ *
+ * <p>Not thread-safe; {@link WatchlistScreening} calls it from one reload at a time.
+ */
+@Slf4j
+final class WatchlistStore {
+
+    private static final String PREFIX = "watchlist-";
+    private static final String SUFFIX = ".idx";
+
+    private record Stamp(long size, FileTime modified) {
+    }
+
+    private final Path source;
+    private final Path deltaDir;
+    private final Path indexDir;
+
+    // what the current index was built from
+    private Stamp sourceStamp;
+    private String sourceVersion;
+    private List<Path> applied = List.of();
+    private WatchlistChange change;
+
+    /**
+     * @param deltaDir may be {@code null} for no deltas
+     * @param indexDir may be {@code null} to hold the index in direct memory instead of a file
+     */
+    WatchlistStore(Path source, Path deltaDir, Path indexDir) {
+        this.source = source;
+        this.deltaDir = deltaDir;
+        this.indexDir = indexDir;
+    }
+
+    /**
+     * The index for the export and every delta file.
+     */
+    WatchlistIndex load() throws IOException {
+        return load(null);
+    }
+
+    /**
+     * What the last load or refresh changed, or {@code null} without a previous version to
+     * compare with.
+     */
+    WatchlistChange change() {
+        return change;
+    }
+
+    private WatchlistIndex load(WatchlistIndex previous) throws IOException {
+        var stamp = stamp(source);
+        var content = Files.readAllBytes(source);
+        var deltas = deltas();
+        var contents = new ArrayList<byte[]>(deltas.size());
+        var exported = WatchlistLoader.version(content);
+        var version = exported;
+        for (var delta : deltas) {
+            contents.add(Files.readAllBytes(delta));
+            version = WatchlistLoader.version(version, contents.get(contents.size() - 1));
+        }
+
+        var index = compiled(version);
+        if (index == null) {
+            var entries = WatchlistLoader.entries(source, content);
+            for (int d = 0; d < deltas.size(); d++) {
+                entries = WatchlistLoader.apply(entries, WatchlistLoader.delta(deltas.get(d), contents.get(d)));
+            }
+            index = write(version, entries);
+        }
+        if (previous == null) {
+            previous = lastCompiled(version);
+        }
+        this.change = previous == null ? null : new WatchlistChange(previous.version(), index.version(),
+                changed(previous, index));
+        this.sourceStamp = stamp;
+        this.sourceVersion = exported;
+        this.applied = deltas;
+        return index;
+    }
+
+    /**
+     * The index after whatever changed since {@code current} was loaded, or {@code null} if
+     * nothing did.
+     */
+    WatchlistIndex refresh(WatchlistIndex current) throws IOException {
+        var stamp = stamp(source);
+        if (!stamp.equals(sourceStamp)) {
+            // touched or copied over with the same content keeps the version
+            if (!WatchlistLoader.version(Files.readAllBytes(source)).equals(sourceVersion)) {
+                return load(current);
+            }
+            sourceStamp = stamp;
+        }
+        var deltas = deltas();
+        if (deltas.equals(applied)) {
+            return null;
+        }
+        if (deltas.size() < applied.size() || !deltas.subList(0, applied.size()).equals(applied)) {
+            return load(current);
+        }
+
+        var added = deltas.subList(applied.size(), deltas.size());
+        var parsed = new ArrayList<WatchlistLoader.Delta>(added.size());
+        var changed = new LinkedHashMap<String, WatchlistEntry>();
+        var version = current.version();
+        for (var delta : added) {
+            var content = Files.readAllBytes(delta);
+            version = WatchlistLoader.version(version, content);
+            parsed.add(WatchlistLoader.delta(delta, content));
+            parsed.get(parsed.size() - 1).removals().forEach(changed::remove);
+            parsed.get(parsed.size() - 1).upserts().forEach(entry -> changed.put(entry.id(), entry));
+        }
+        var index = compiled(version);
+        if (index == null) {
+            var entries = current.entries();
+            for (var delta : parsed) {
+                entries = WatchlistLoader.apply(entries, delta);
+            }
+            index = write(version, entries);
+        }
+        this.change = new WatchlistChange(current.version(), index.version(), List.copyOf(changed.values()));
+        this.applied = deltas;
+        return index;
+    }
+
+    /**
+     * Deletes the compiled files of versions written before the current one. A newer file, which
+     * another instance sharing the directory may have just built, is left alone. Searches still
+     * running on an older index keep their mapping; the space is freed once that index is collected.
+     */
+    void retire(WatchlistIndex current) {
+        if (indexDir == null) {
+            return;
+        }
+        var keep = file(current.version());
+        try (var files = Files.list(indexDir)) {
+            var written = Files.getLastModifiedTime(keep);
+            for (var file : files.filter(WatchlistStore::isCompiled).filter(file -> !file.equals(keep)).toList()) {
+                try {
+                    if (Files.getLastModifiedTime(file).compareTo(written) < 0) {
+                        Files.deleteIfExists(file);
+                    }
+                } catch (NoSuchFileException e) {
+                    // retired by another instance meanwhile
+                }
+            }
+        } catch (IOException e) {
+            log.warn("watchlist_retire_failed dir={} error={}", indexDir, e.toString());
+        }
+    }
+
+    // the compiled file most recently written for another version
+    private WatchlistIndex lastCompiled(String version) throws IOException {
+        if (indexDir == null || !Files.isDirectory(indexDir)) {
+            return null;
+        }
+        Path last = null;
+        try (var files = Files.list(indexDir)) {
+            for (var file : files.filter(WatchlistStore::isCompiled).filter(file -> !file.equals(file(version))).toList()) {
+                if (last == null || Files.getLastModifiedTime(file).compareTo(Files.getLastModifiedTime(last)) > 0) {
+                    last = file;
+                }
+            }
+        }
+        if (last == null) {
+            return null;
+        }
+        var name = last.getFileName().toString();
+        return compiled(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    // entries of next that previous does not have in the same form
+    private static List<WatchlistEntry> changed(WatchlistIndex previous, WatchlistIndex next) {
+        if (previous.version().equals(next.version())) {
+            return List.of();
+        }
+        var before = new HashSet<>(previous.entries());
+        return next.entries().stream().filter(entry -> !before.contains(entry)).toList();
+    }
+
+    private WatchlistIndex compiled(String version) {
+        if (indexDir == null || !Files.isRegularFile(file(version))) {
+            return null;
+        }
+        try {
+            return WatchlistIndex.map(file(version));
+        } catch (IOException e) {
+            // rebuilt over it
+            log.warn("watchlist_index_unreadable path={} error={}", file(version), e.toString());
+            return null;
+        }
+    }
+
+    private WatchlistIndex write(String version, List<WatchlistEntry> entries) throws IOException {
+        if (indexDir == null) {
+            return WatchlistIndex.build(version, entries);
+        }
+        Files.createDirectories(indexDir);
+        return WatchlistIndex.write(version, entries, file(version));
+    }
+
+    private Path file(String version) {
+        return indexDir.resolve(PREFIX + version + SUFFIX);
+    }
+
+    private List<Path> deltas() throws IOException {
+        if (deltaDir == null || !Files.isDirectory(deltaDir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(deltaDir)) {
+            return files.filter(Files::isRegularFile)
+                    .filter(WatchlistStore::isDelta)
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static boolean isDelta(Path file) {
+        var name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".csv") || name.endsWith(".json");
+    }
+
+    private static boolean isCompiled(Path file) {
+        var name = file.getFileName().toString();
+        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+    }
+
+    private static Stamp stamp(Path file) throws IOException {
+        return new Stamp(Files.size(file), Files.getLastModifiedTime(file));
+    }
+}
@@ -0,0 +1,218 @@
+package com.mal.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mal.integration.Priority;
+import com.mal.model.KycDecision;
+import com.mal.model.KycDecisionType;
+import com.mal.model.VerificationRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+
+/**
+ * Verifies a stream of requests (JSON array or NDJSON) with bounded concurrency. Entries are
+ * read from the input only as fast as decisions are written out, so memory stays flat
+ * whatever the batch size; decisions are emitted in completion order.
+ *
+ * <p>An entry that cannot be read gets a {@code MANUAL_REVIEW} decision, with its request and
+ * customer id where they can be made out, and the batch goes on. NDJSON is parsed line by
+ * line, so even a syntax error costs only its line; in a JSON array a syntax error ends the
+ * batch, as the next entry cannot be found.
+ */
+@Slf4j
+@Service
+public class BatchVerificationService {
+
+    private final KycService kycService;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+    private final int concurrency;
+
+    public BatchVerificationService(
+            KycService kycService,
+            ObjectMapper objectMapper,
+            Clock clock,
+            @Value("${kyc.batch.concurrency:8}") int concurrency) {
+        this.kycService = kycService;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+        this.concurrency = concurrency;
+    }
+
+    public Flux<KycDecision> verify(InputStream input) {
+        return readEntries(input)
+                .flatMap(entry -> entry.request() == null ? Mono.just(invalid(entry)) : verify(entry.request()),
+                        concurrency);
+    }
+
+    private Mono<KycDecision> verify(VerificationRequest request) {
+        return kycService.verify(request)
+                // batches are re-screening work and must not eat the interactive quota
+                .contextWrite(Priority.BACKGROUND::writeTo)
+                .onErrorResume(e -> {
+                    log.warn("kyc_batch_entry_failed requestId={} customerId={}",
+                            request.requestId(), request.customerId(), e);
+                    return Mono.just(manualReview(request.requestId(), request.customerId()));
+                });
+    }
+
+    private Flux<Entry> readEntries(InputStream input) {
+        return Flux.<Entry, Entries>generate(
+                        () -> new Entries(input),
+                        (entries, sink) -> {
+                            var entry = entries.next();
+                            if (entry == null) {
+                                sink.complete();
+                            } else {
+                                sink.next(entry);
+                            }
+                            return entries;
+                        },
+                        this::close)
+                // blocking reads from the request body
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private KycDecision invalid(Entry entry) {
+        var requestId = text(entry.node(), "requestId");
+        var customerId = text(entry.node(), "customerId");
+        log.warn("kyc_batch_entry_invalid index={} requestId={} customerId={} error={}",
+                entry.index(), requestId, customerId, entry.error().getOriginalMessage());
+        return manualReview(requestId, customerId);
+    }
+
+    private static String text(JsonNode node, String field) {
+        var value = node == null ? null : node.get(field);
+        return value == null || !value.isValueNode() ? null : value.asText();
+    }
+
+    private void close(Entries entries) {
+        try {
+            entries.close();
+        } catch (IOException e) {
+            log.warn("kyc_batch_close_failed", e);
+        }
+    }
+
+    private KycDecision manualReview(String requestId, String customerId) {
+        return new KycDecision(
+                requestId,
+                customerId,
+                KycDecisionType.MANUAL_REVIEW,
+                null,
+                null,
+                null,
+                null,
+                Instant.now(clock).toString()
+        );
+    }
+
+    /**
+     * One batch entry: the request, or the error it could not be read with and as much of it as
+     * was parsed.
+     */
+    private record Entry(int index, VerificationRequest request, JsonNode node, JsonProcessingException error) {
+    }
+
+    /**
+     * Reads entries from a JSON array or, if the body does not start with {@code [}, from NDJSON.
+     */
+    private final class Entries implements Closeable {
+
+        private final MappingIterator<JsonNode> array;
+        private final BufferedReader lines;
+        private int index;
+        private boolean broken;
+
+        Entries(InputStream input) throws IOException {
+            var buffered = new BufferedInputStream(input);
+            if (firstNonWhitespace(buffered) == '[') {
+                this.array = objectMapper.readerFor(JsonNode.class).readValues(buffered);
+                this.lines = null;
+            } else {
+                this.array = null;
+                this.lines = new BufferedReader(new InputStreamReader(buffered, StandardCharsets.UTF_8));
+            }
+        }
+
+        Entry next() {
+            try {
+                return array != null ? nextInArray() : nextLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private Entry nextInArray() throws IOException {
+            if (broken) {
+                return null;
+            }
+            try {
+                return array.hasNextValue() ? bind(array.nextValue()) : null;
+            } catch (JsonProcessingException e) {
+                broken = true;
+                return new Entry(index++, null, null, e);
+            }
+        }
+
+        private Entry nextLine() throws IOException {
+            String line;
+            do {
+                line = lines.readLine();
+            } while (line != null && line.isBlank());
+            if (line == null) {
+                return null;
+            }
+            try {
+                return bind(objectMapper.readTree(line));
+            } catch (JsonProcessingException e) {
+                return new Entry(index++, null, null, e);
+            }
+        }
+
+        private Entry bind(JsonNode node) {
+            int i = index++;
+            try {
+                return new Entry(i, objectMapper.treeToValue(node, VerificationRequest.class), node, null);
+            } catch (JsonProcessingException e) {
+                return new Entry(i, null, node, e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (array != null) {
+                array.close();
+            } else {
+                lines.close();
+            }
+        }
+
+        private static int firstNonWhitespace(BufferedInputStream input) throws IOException {
+            input.mark(Integer.MAX_VALUE);
+            int b;
+            do {
+                b = input.read();
+            } while (b == ' ' || b == '\t' || b == '\r' || b == '\n');
+            input.reset();
+            return b;
+        }
+    }
+}
@@ -2,11 +2,15 @@ package com.mal.service;
 
 import com.mal.integration.dto.*;
 import com.mal.model.KycDecisionType;
+import com.mal.model.VerificationType;
 import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 @Slf4j
 @Component
 public class DecisionEngine {
@@ -27,9 +31,22 @@ public class DecisionEngine {
             BiometricResponse bio,
             AddressVerificationResponse addr,
             SanctionsResponse sanc) {
+        return decide(EnumSet.allOf(VerificationType.class), doc, bio, addr, sanc);
+    }
 
-        log.info("decision_input doc={} bio={} addr={} sanc={}",
-                summarize(doc), summarize(bio), summarize(addr), summarize(sanc));
+    /**
+     * Decides over the requested checks only; a requested check without a result is sent
+     * to manual review rather than treated as passed.
+     */
+    public KycDecisionType decide(
+            Set<VerificationType> requested,
+            DocumentVerificationResponse doc,
+            BiometricResponse bio,
+            AddressVerificationResponse addr,
+            SanctionsResponse sanc) {
+
+        log.info("decision_input requested={} doc={} bio={} addr={} sanc={}",
+                requested, summarize(doc), summarize(bio), summarize(addr), summarize(sanc));
 
         KycDecisionType result;
         String reason;
@@ -37,15 +54,16 @@ public class DecisionEngine {
         if (sanc != null && sanc.status() == SanctionsStatus.HIT) {
             result = KycDecisionType.REJECTED;
             reason = "SANCTIONS_HIT";
+        } else if (isMissing(requested, doc, bio, addr, sanc)) {
+            result = KycDecisionType.MANUAL_REVIEW;
+            reason = "MISSING";
         } else if (isFail(doc) || isFail(bio) || isFail(addr)) {
             result = KycDecisionType.MANUAL_REVIEW;
             reason = "FAIL";
         } else if (isManual(doc) || isManual(bio) || isManual(addr)) {
             result = KycDecisionType.MANUAL_REVIEW;
             reason = "MANUAL";
-        } else if (!above(doc.confidence()) ||
-                !above(bio.confidence()) ||
-                !above(addr.confidence())) {
+        } else if (isLowConfidence(doc) || isLowConfidence(bio) || isLowConfidence(addr)) {
             result = KycDecisionType.MANUAL_REVIEW;
             reason = "LOW_CONFIDENCE";
         } else {
@@ -75,6 +93,25 @@ public class DecisionEngine {
         return false;
     }
 
+    private boolean isLowConfidence(Object o) {
+        if (o instanceof DocumentVerificationResponse d) return !above(d.confidence());
+        if (o instanceof BiometricResponse b) return !above(b.confidence());
+        if (o instanceof AddressVerificationResponse a) return !above(a.confidence());
+        return false;
+    }
+
+    private boolean isMissing(
+            Set<VerificationType> requested,
+            DocumentVerificationResponse doc,
+            BiometricResponse bio,
+            AddressVerificationResponse addr,
+            SanctionsResponse sanc) {
+        return requested.contains(VerificationType.ID_DOCUMENT) && doc == null
+                || requested.contains(VerificationType.FACE_MATCH) && bio == null
+                || requested.contains(VerificationType.ADDRESS) && addr == null
+                || requested.contains(VerificationType.SANCTIONS) && sanc == null;
+    }
+
     private boolean above(int v) {
         return v >= confidenceThreshold;
     }
@@ -1,24 +1,41 @@
 package com.mal.service;
 
+import com.mal.config.DeadlineProperties;
 import com.mal.integration.AddressVerificationClient;
 import com.mal.integration.BiometricClient;
+import com.mal.integration.Deadline;
 import com.mal.integration.DocumentVerificationClient;
+import com.mal.integration.Provider;
 import com.mal.integration.SanctionsClient;
 import com.mal.integration.dto.AddressVerificationRequest;
+import com.mal.integration.dto.AddressVerificationResponse;
 import com.mal.integration.dto.BiometricRequest;
+import com.mal.integration.dto.BiometricResponse;
 import com.mal.integration.dto.DocumentVerificationRequest;
+import com.mal.integration.dto.DocumentVerificationResponse;
 import com.mal.integration.dto.SanctionsRequest;
+import com.mal.integration.dto.SanctionsResponse;
+import com.mal.integration.dto.SanctionsStatus;
 import com.mal.model.KycDecision;
 import com.mal.model.KycDecisionType;
+import com.mal.model.VerificationEvent;
 import com.mal.model.VerificationRequest;
+import com.mal.model.VerificationType;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
-import java.util.concurrent.CompletableFuture;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @Slf4j
 @Service
@@ -29,59 +46,148 @@ public class KycService {
     private final BiometricClient biometricClient;
     private final AddressVerificationClient addressClient;
     private final SanctionsClient sanctionsClient;
+    private final ProviderExecution execution;
     private final DecisionEngine decisionEngine;
+    private final DeadlineProperties deadlineProperties;
+    private final VerificationDeduplicator deduplicator;
     private final MeterRegistry meterRegistry;
     private final Clock clock;
 
-    public KycDecision verify(VerificationRequest request) {
+    public Mono<KycDecision> verify(VerificationRequest request) {
+        return verify(request, null);
+    }
 
-        var timer = meterRegistry.timer(
-                "kyc.verify.time",
-                "customerId", request.customerId()
-        );
+    /**
+     * @param budget time the caller is willing to wait; {@code null} uses {@code kyc.deadline.budget},
+     *               larger values are capped at {@code kyc.deadline.max}
+     */
+    public Mono<KycDecision> verify(VerificationRequest request, Duration budget) {
+        return deduplicator.deduplicate(request, () -> verify(request, budget, event -> {
+        }));
+    }
 
-        return timer.record(() -> doVerify(request));
+    /**
+     * Same verification as {@link #verify(VerificationRequest, Duration)}, emitting each provider
+     * result as it completes and the decision last.
+     */
+    public Flux<VerificationEvent> verifyStream(VerificationRequest request, Duration budget) {
+        return Flux.create(sink -> {
+            var subscription = verify(request, budget, sink::next).subscribe(
+                    decision -> {
+                        sink.next(VerificationEvent.decision(decision));
+                        sink.complete();
+                    },
+                    sink::error,
+                    sink::complete);
+            sink.onDispose(subscription);
+        });
     }
 
-    private KycDecision doVerify(VerificationRequest request) {
-        log.info("kyc_request customerId={} nationality={} documentType={}",
-                request.customerId(), request.nationality(), request.documentType());
-        var start = System.currentTimeMillis();
+    private Mono<KycDecision> verify(
+            VerificationRequest request,
+            Duration budget,
+            Consumer<VerificationEvent> progress) {
+
+        // tagged by mode only: a per-customer tag would keep a histogram per customer
+        var timer = Timer.builder("kyc.verify.time")
+                .tag("mode", execution.mode().name())
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+
+        return Mono.defer(() -> {
+            var sample = Timer.start(meterRegistry);
+            return doVerify(request, progress).doFinally(signal -> sample.stop(timer));
+        }).contextWrite(ctx -> Deadline.after(effectiveBudget(budget)).writeTo(ctx));
+    }
 
-        var docFuture = CompletableFuture.supplyAsync(() -> documentClient.verify(buildDocumentPayload(request)));
-        var bioFuture = CompletableFuture.supplyAsync(() -> biometricClient.match(buildBiometricPayload(request)));
-        var addrFuture = CompletableFuture.supplyAsync(() -> addressClient.verify(buildAddressPayload(request)));
-        var sancFuture = CompletableFuture.supplyAsync(() -> sanctionsClient.check(buildSanctionsPayload(request)));
+    private Mono<KycDecision> doVerify(VerificationRequest request, Consumer<VerificationEvent> progress) {
+        var requested = request.requestedTypes();
+        log.info("kyc_request customerId={} nationality={} documentType={} types={}",
+                request.customerId(), request.nationality(), request.documentType(), requested);
+        var start = System.currentTimeMillis();
 
-        CompletableFuture.allOf(docFuture, bioFuture, addrFuture, sancFuture).join();
+        var sanctions = call(requested, VerificationType.SANCTIONS, progress,
+                () -> sanctionsClient.check(buildSanctionsPayload(request))).cache();
+
+        var all = Mono.zip(
+                call(requested, VerificationType.ID_DOCUMENT, progress,
+                        () -> documentClient.verify(buildDocumentPayload(request))),
+                call(requested, VerificationType.FACE_MATCH, progress,
+                        () -> biometricClient.match(buildBiometricPayload(request))),
+                call(requested, VerificationType.ADDRESS, progress,
+                        () -> addressClient.verify(buildAddressPayload(request))),
+                sanctions
+        ).map(results -> new ProviderResults(
+                results.getT1().orElse(null),
+                results.getT2().orElse(null),
+                results.getT3().orElse(null),
+                results.getT4().orElse(null)));
+
+        // a sanctions hit rejects regardless of the other checks, so stop waiting for them
+        var sanctionsHit = sanctions
+                .flatMap(Mono::justOrEmpty)
+                .filter(sanc -> sanc.status() == SanctionsStatus.HIT)
+                .map(sanc -> new ProviderResults(null, null, null, sanc));
+
+        return Mono.firstWithValue(sanctionsHit, all).map(results -> {
+            var total = System.currentTimeMillis() - start;
+            KycDecisionType decision = decisionEngine.decide(requested,
+                    results.document(), results.biometric(), results.address(), results.sanctions());
+            log.info("kyc_decision customerId={} result={} totalMs={}",
+                    request.customerId(), decision, total);
+
+            return new KycDecision(
+                    request.requestId(),
+                    request.customerId(),
+                    decision,
+                    results.document(),
+                    results.biometric(),
+                    results.address(),
+                    results.sanctions(),
+                    Instant.now(clock).toString()
+            );
+        });
+    }
 
-        var doc = safeGet(docFuture);
-        var bio = safeGet(bioFuture);
-        var addr = safeGet(addrFuture);
-        var sanc = safeGet(sancFuture);
+    private Duration effectiveBudget(Duration requested) {
+        if (requested == null || requested.isNegative() || requested.isZero()) {
+            return deadlineProperties.getBudget();
+        }
+        var max = deadlineProperties.getMax();
+        return requested.compareTo(max) > 0 ? max : requested;
+    }
 
-        var total = System.currentTimeMillis() - start;
-        KycDecisionType decision = decisionEngine.decide(doc, bio, addr, sanc);
-        log.info("kyc_decision customerId={} result={} totalMs={}",
-                request.customerId(), decision, total);
+    private <T> Mono<Optional<T>> call(
+            Set<VerificationType> requested,
+            VerificationType type,
+            Consumer<VerificationEvent> progress,
+            Supplier<Mono<T>> call) {
 
+        if (!requested.contains(type)) {
+            return Mono.just(Optional.empty());
+        }
+        var provider = provider(type);
+        return execution.dispatch(provider, call.get())
+                .doOnNext(result -> progress.accept(VerificationEvent.result(provider.key(), result)))
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty());
+    }
 
-        return new KycDecision(
-                decision,
-                doc,
-                bio,
-                addr,
-                sanc,
-                Instant.now(clock).toString()
-        );
+    private static Provider provider(VerificationType type) {
+        return switch (type) {
+            case ID_DOCUMENT -> Provider.DOCUMENT;
+            case FACE_MATCH -> Provider.BIOMETRIC;
+            case ADDRESS -> Provider.ADDRESS;
+            case SANCTIONS -> Provider.SANCTIONS;
+        };
     }
 
-    private <T> T safeGet(CompletableFuture<T> f) {
-        try {
-            return f.get();
-        } catch (Exception e) {
-            return null;
-        }
+    private record ProviderResults(
+            DocumentVerificationResponse document,
+            BiometricResponse biometric,
+            AddressVerificationResponse address,
+            SanctionsResponse sanctions
+    ) {
     }
 
     private DocumentVerificationRequest buildDocumentPayload(VerificationRequest req) {
@@ -0,0 +1,75 @@
+package com.mal.service;
+
+import com.mal.config.ExecutionProperties;
+import com.mal.config.ExecutionProperties.ExecutionMode;
+import com.mal.integration.Provider;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Decides where provider calls run. REACTIVE keeps them on the WebClient event loop;
+ * PLATFORM and VIRTUAL hold one thread per call (a bounded pool per provider, or a
+ * virtual thread per call) so the modes can be compared under the same load.
+ */
+@Slf4j
+@Component
+public class ProviderExecution implements DisposableBean {
+
+    private final ExecutionMode mode;
+    private final Map<Provider, Scheduler> schedulers = new EnumMap<>(Provider.class);
+
+    public ProviderExecution(ExecutionProperties props) {
+        this.mode = props.getMode();
+
+        for (Provider provider : Provider.values()) {
+            var name = "kyc-" + provider.key();
+            switch (mode) {
+                case PLATFORM -> schedulers.put(provider,
+                        Schedulers.newBoundedElastic(props.getPoolSize(), props.getQueueCapacity(), name));
+                case VIRTUAL -> schedulers.put(provider,
+                        Schedulers.fromExecutorService(virtualThreadPerTask(), name + "-virtual"));
+                case REACTIVE -> {
+                }
+            }
+        }
+
+        log.info("provider_execution mode={} poolSize={} queueCapacity={}",
+                mode, props.getPoolSize(), props.getQueueCapacity());
+    }
+
+    public ExecutionMode mode() {
+        return mode;
+    }
+
+    public <T> Mono<T> dispatch(Provider provider, Mono<T> call) {
+        if (mode == ExecutionMode.REACTIVE) {
+            return call;
+        }
+        // block() starts a fresh subscription, so hand the caller's context (deadline) over explicitly
+        return Mono.deferContextual(ctx -> Mono.fromCallable(() -> call.contextWrite(ctx).block()))
+                .subscribeOn(schedulers.get(provider));
+    }
+
+    @Override
+    public void destroy() {
+        schedulers.values().forEach(Scheduler::dispose);
+    }
+
+    private static ExecutorService virtualThreadPerTask() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(
+                    "kyc.execution.mode=virtual requires a Java 21 runtime (build with -Pjava21)", e);
+        }
+    }
+}
@@ -0,0 +1,420 @@
+package com.mal.service;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mal.config.RescreeningProperties;
+import com.mal.config.WatchlistProperties;
+import com.mal.integration.Priority;
+import com.mal.integration.SanctionsClient;
+import com.mal.integration.dto.SanctionsRequest;
+import com.mal.integration.dto.SanctionsResponse;
+import com.mal.integration.dto.SanctionsStatus;
+import com.mal.screening.WatchlistChange;
+import com.mal.screening.WatchlistEntry;
+import com.mal.screening.WatchlistIndex;
+import com.mal.screening.WatchlistMatch;
+import com.mal.screening.WatchlistScreening;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Re-screens every stored customer when the local watchlist adds or changes entries
+ * ({@link WatchlistChange}). Customers are streamed from the {@code customers} export and
+ * matched against only the changed entries, through a small {@link WatchlistIndex} of those.
+ * Only customers with a candidate go to the sanctions provider. They go as
+ * {@link Priority#BACKGROUND}, so they draw on the rate limiter's low-priority share and never
+ * starve live onboarding. Provider hits are appended to {@code results}.
+ *
+ * <p>The export is read in chunks of {@code chunk-size}. After each chunk, the progress is
+ * checkpointed together with the changes still to screen: the offset up to which every customer
+ * has been screened, and which customers past it have been too. If the provider could not be
+ * asked for some customer, the run stops after the chunk and retries after {@code retry-delay},
+ * asking only for customers still unscreened, so hits are not reported twice. Only a crash
+ * between a hit and the next checkpoint can repeat one; no customer is ever skipped. Changes
+ * arriving during a run queue behind it, merged into one.
+ */
+@Slf4j
+@Service
+public class RescreeningService implements DisposableBean {
+
+    /**
+     * Changed entries still to screen, the export offset up to which every customer has been
+     * screened, and the end offsets of customers past it that have been screened too.
+     */
+    record Run(String version, List<WatchlistEntry> entries, long offset, Set<Long> done) {
+
+        Run {
+            done = done == null ? Set.of() : Set.copyOf(done);
+        }
+
+        Run(String version, List<WatchlistEntry> entries) {
+            this(version, entries, 0, Set.of());
+        }
+    }
+
+    record Checkpoint(String lastVersion, List<Run> runs) {
+    }
+
+    private record Customer(SanctionsRequest identity, long end) {
+    }
+
+    private record Hit(
+            String customerId,
+            String watchlistVersion,
+            List<String> candidates,
+            int matchCount,
+            String screenedAt) {
+    }
+
+    private static final class Unresolved extends RuntimeException {
+
+        Unresolved() {
+            super("sanctions provider could not be asked", null, false, false);
+        }
+    }
+
+    private final RescreeningProperties props;
+    private final WatchlistProperties watchlist;
+    private final SanctionsClient sanctionsClient;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+    private final Path checkpoint;
+
+    // guarded by this; runs.get(0) is the one screening
+    private final List<Run> runs = new ArrayList<>();
+    private String lastVersion;
+    private Disposable running;
+    private Disposable retry;
+
+    public RescreeningService(
+            RescreeningProperties props,
+            WatchlistProperties watchlist,
+            WatchlistScreening screening,
+            SanctionsClient sanctionsClient,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            Clock clock) {
+        this.props = props;
+        this.watchlist = watchlist;
+        this.sanctionsClient = sanctionsClient;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+        this.checkpoint = Path.of(props.getCheckpoint());
+
+        if (!props.isEnabled()) {
+            return;
+        }
+        if (props.getCustomers() == null || props.getCustomers().isBlank()) {
+            log.error("rescreening_disabled reason=no kyc.rescreening.customers");
+            return;
+        }
+        restore();
+        meterRegistry.gauge("kyc.rescreening.pending", this, RescreeningService::pending);
+        screening.onChange(this::onChange);
+        start();
+    }
+
+    /**
+     * Queues the change's entries for screening; a version already queued or screened is ignored.
+     */
+    synchronized void onChange(WatchlistChange change) {
+        if (change.version().equals(lastVersion)) {
+            return;
+        }
+        lastVersion = change.version();
+        if (!change.entries().isEmpty()) {
+            if (runs.size() > 1) {
+                // not started yet: screen both changes in one pass
+                var queued = runs.remove(runs.size() - 1);
+                runs.add(new Run(change.version(), merge(queued.entries(), change.entries())));
+            } else {
+                runs.add(new Run(change.version(), change.entries()));
+            }
+            log.info("rescreening_queued version={} entries={} pending={}",
+                    change.version(), change.entries().size(), runs.size());
+        }
+        save();
+        start();
+    }
+
+    synchronized int pending() {
+        return runs.size();
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (running != null) {
+            running.dispose();
+        }
+        if (retry != null) {
+            retry.dispose();
+        }
+    }
+
+    private synchronized void start() {
+        if (running != null || runs.isEmpty()) {
+            return;
+        }
+        var run = runs.get(0);
+        log.info("rescreening_started version={} entries={} offset={}", run.version(), run.entries().size(), run.offset());
+        running = screen(run).subscribe(null, error -> finished(run, error), () -> finished(run, null));
+    }
+
+    private synchronized void finished(Run run, Throwable error) {
+        running = null;
+        if (error == null) {
+            runs.remove(0);
+            save();
+            log.info("rescreening_completed version={} pending={}", run.version(), runs.size());
+            start();
+            return;
+        }
+        var offset = runs.get(0).offset();
+        if (error instanceof Unresolved) {
+            log.warn("rescreening_paused version={} offset={} retryInMs={} reason=provider_unavailable",
+                    run.version(), offset, props.getRetryDelay().toMillis());
+        } else {
+            log.error("rescreening_failed version={} offset={} retryInMs={} error={}",
+                    run.version(), offset, props.getRetryDelay().toMillis(), error.toString());
+        }
+        retry = Mono.delay(props.getRetryDelay()).subscribe(tick -> start());
+    }
+
+    private Mono<Void> screen(Run run) {
+        var delta = WatchlistIndex.build(run.version(), run.entries());
+        return Flux.using(
+                        this::openResults,
+                        results -> customers(run.offset())
+                                .buffer(Math.max(1, props.getChunkSize()))
+                                .concatMap(chunk -> {
+                                    var resolved = ConcurrentHashMap.<Long>newKeySet();
+                                    return Flux.fromIterable(chunk)
+                                            // screened before a retry; asking again would repeat their hits
+                                            .filter(customer -> !run.done().contains(customer.end()))
+                                            .flatMap(customer -> screen(customer.identity(), delta, results)
+                                                            .doOnNext(screened -> {
+                                                                if (screened) {
+                                                                    resolved.add(customer.end());
+                                                                }
+                                                            }),
+                                                    Math.max(1, props.getConcurrency()))
+                                            .then(checkpoint(results, chunk, resolved));
+                                }),
+                        this::close)
+                .then();
+    }
+
+    /**
+     * @return false if the provider could not be asked, so the customer is still unscreened
+     */
+    private Mono<Boolean> screen(SanctionsRequest customer, WatchlistIndex delta, Writer results) {
+        var candidates = delta.search(customer.fullName(), customer.dateOfBirth(), customer.nationality(),
+                watchlist.getSimilarityFloor(), watchlist.getMaxCandidates());
+        if (candidates.isEmpty()) {
+            count("cleared");
+            return Mono.just(true);
+        }
+        return sanctionsClient.check(customer)
+                .contextWrite(Priority.BACKGROUND::writeTo)
+                .filter(response -> !SanctionsClient.isFallback(response))
+                .map(response -> {
+                    if (response.status() == SanctionsStatus.HIT) {
+                        count("hit");
+                        hit(results, customer, delta.version(), candidates, response);
+                    } else {
+                        count("clear");
+                    }
+                    return true;
+                })
+                .switchIfEmpty(Mono.fromSupplier(() -> {
+                    count("unresolved");
+                    return false;
+                }));
+    }
+
+    private void hit(
+            Writer results,
+            SanctionsRequest customer,
+            String version,
+            List<WatchlistMatch> candidates,
+            SanctionsResponse response) {
+        var ids = candidates.stream().map(match -> match.entry().id()).toList();
+        log.warn("rescreening_hit customerId={} version={} candidates={}", customer.customerId(), version, ids);
+        try {
+            var line = objectMapper.writeValueAsString(new Hit(customer.customerId(), version, ids,
+                    response.matchCount(), Instant.now(clock).toString()));
+            synchronized (results) {
+                results.write(line);
+                results.write('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Moves the offset past the resolved customers at the head of the chunk and keeps the others
+     * that resolved, so a retry only asks for those still unscreened.
+     */
+    private Mono<Void> checkpoint(Writer results, List<Customer> chunk, Set<Long> resolved) {
+        return Mono.defer(() -> {
+            try {
+                // hits first, so a checkpoint never covers a hit that was not written
+                synchronized (results) {
+                    results.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            synchronized (this) {
+                var run = runs.get(0);
+                var done = new HashSet<>(run.done());
+                done.addAll(resolved);
+                var offset = run.offset();
+                for (var customer : chunk) {
+                    if (!done.remove(customer.end())) {
+                        break;
+                    }
+                    offset = customer.end();
+                }
+                runs.set(0, new Run(run.version(), run.entries(), offset, done));
+                save();
+                return offset == chunk.get(chunk.size() - 1).end() ? Mono.<Void>empty() : Mono.<Void>error(new Unresolved());
+            }
+        });
+    }
+
+    private Flux<Customer> customers(long offset) {
+        return Flux.<Customer, CustomerReader>generate(
+                        () -> new CustomerReader(Path.of(props.getCustomers()), offset),
+                        (reader, sink) -> {
+                            var customer = reader.next();
+                            if (customer == null) {
+                                sink.complete();
+                            } else {
+                                sink.next(customer);
+                            }
+                            return reader;
+                        },
+                        this::close)
+                // blocking reads from the export
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private Writer openResults() throws IOException {
+        var path = Path.of(props.getResults());
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        return Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private void close(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            log.warn("rescreening_close_failed", e);
+        }
+    }
+
+    private void restore() {
+        if (!Files.exists(checkpoint)) {
+            return;
+        }
+        try {
+            var restored = objectMapper.readValue(checkpoint.toFile(), Checkpoint.class);
+            synchronized (this) {
+                lastVersion = restored.lastVersion();
+                runs.addAll(restored.runs());
+            }
+            log.info("rescreening_restored lastVersion={} pending={}", lastVersion, runs.size());
+        } catch (IOException e) {
+            // starting over would silently skip customers, so refuse to start instead
+            throw new UncheckedIOException("cannot read rescreening checkpoint " + checkpoint, e);
+        }
+    }
+
+    // written aside and moved into place, so a crash leaves either checkpoint whole
+    private synchronized void save() {
+        try {
+            if (checkpoint.getParent() != null) {
+                Files.createDirectories(checkpoint.getParent());
+            }
+            var temp = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+            objectMapper.writeValue(temp.toFile(), new Checkpoint(lastVersion, List.copyOf(runs)));
+            Files.move(temp, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.error("rescreening_checkpoint_failed path={} error={}", checkpoint, e.toString());
+        }
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("kyc.rescreening.customers", "outcome", outcome).increment();
+    }
+
+    private static List<WatchlistEntry> merge(List<WatchlistEntry> earlier, List<WatchlistEntry> later) {
+        var merged = new LinkedHashMap<String, WatchlistEntry>();
+        earlier.forEach(entry -> merged.put(entry.id(), entry));
+        later.forEach(entry -> merged.put(entry.id(), entry));
+        return List.copyOf(merged.values());
+    }
+
+    /**
+     * Reads the NDJSON export from a byte offset, reporting where each customer ends.
+     */
+    private final class CustomerReader implements Closeable {
+
+        private final long start;
+        private final FileChannel channel;
+        private final MappingIterator<SanctionsRequest> lines;
+
+        CustomerReader(Path path, long start) throws IOException {
+            this.start = start;
+            this.channel = FileChannel.open(path, StandardOpenOption.READ).position(start);
+            this.lines = objectMapper.readerFor(SanctionsRequest.class).readValues(Channels.newInputStream(channel));
+        }
+
+        Customer next() {
+            if (!lines.hasNext()) {
+                return null;
+            }
+            var identity = lines.next();
+            return new Customer(identity, start + lines.getParser().currentLocation().getByteOffset());
+        }
+
+        @Override
+        public void close() throws IOException {
+            lines.close();
+            channel.close();
+        }
+    }
+}
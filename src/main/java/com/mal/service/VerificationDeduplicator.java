@@ -0,0 +1,84 @@
+package com.mal.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mal.config.IdempotencyProperties;
+import com.mal.model.KycDecision;
+import com.mal.model.VerificationRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Makes verification idempotent on {@code requestId}. Concurrent duplicates join the
+ * verification already running, and duplicates arriving after it finished get the stored
+ * decision back without calling any provider.
+ *
+ * <p>Entries are keyed on customerId and requestId together, so a requestId reused by another
+ * customer never returns someone else's decision. Failed verifications are not stored.
+ */
+@Slf4j
+@Component
+public class VerificationDeduplicator {
+
+    private final boolean enabled;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Mono<KycDecision>> inFlight = new ConcurrentHashMap<>();
+    private final Cache<String, KycDecision> completed;
+
+    public VerificationDeduplicator(IdempotencyProperties props, MeterRegistry meterRegistry) {
+        this.enabled = props.isEnabled();
+        this.meterRegistry = meterRegistry;
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(props.getMaxSize())
+                .expireAfterWrite(props.getTtl())
+                .build();
+
+        meterRegistry.gauge("kyc.idempotency.inflight", inFlight, Map::size);
+        meterRegistry.gauge("kyc.idempotency.stored", completed, Cache::estimatedSize);
+    }
+
+    public Mono<KycDecision> deduplicate(VerificationRequest request, Supplier<Mono<KycDecision>> verification) {
+        if (!enabled || request.requestId() == null || request.requestId().isBlank()) {
+            return verification.get();
+        }
+        var key = request.customerId() + "/" + request.requestId();
+
+        return Mono.defer(() -> {
+            var stored = completed.getIfPresent(key);
+            if (stored != null) {
+                record(request, "completed");
+                return Mono.just(stored);
+            }
+
+            var started = new AtomicBoolean();
+            var shared = inFlight.computeIfAbsent(key, k -> {
+                started.set(true);
+                // cache() keeps the verification running for the joined callers even if the
+                // caller that started it goes away
+                return verification.get()
+                        .doOnNext(decision -> completed.put(k, decision))
+                        .doFinally(signal -> inFlight.remove(k))
+                        .cache();
+            });
+            if (started.get()) {
+                meterRegistry.counter("kyc.idempotency.requests", "outcome", "executed").increment();
+            } else {
+                record(request, "inflight");
+            }
+            return shared;
+        });
+    }
+
+    private void record(VerificationRequest request, String outcome) {
+        log.info("kyc_duplicate customerId={} requestId={} source={}",
+                request.customerId(), request.requestId(), outcome);
+        meterRegistry.counter("kyc.idempotency.requests", "outcome", outcome).increment();
+    }
+}
@@ -0,0 +1,92 @@
+package com.mal.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mal.config.JobProperties;
+import com.mal.integration.Priority;
+import com.mal.model.VerificationJob;
+import com.mal.model.VerificationRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs verifications in the background for the submit-and-poll API. Jobs live in a
+ * bounded store (size and TTL), and submissions beyond the in-flight limit are refused
+ * immediately instead of queueing.
+ */
+@Slf4j
+@Service
+public class VerificationJobService {
+
+    private final KycService kycService;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+    private final int maxInFlight;
+    private final Cache<String, VerificationJob> jobs;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public VerificationJobService(
+            KycService kycService,
+            JobProperties props,
+            MeterRegistry meterRegistry,
+            Clock clock) {
+        this.kycService = kycService;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+        this.maxInFlight = props.getMaxInFlight();
+        this.jobs = Caffeine.newBuilder()
+                .maximumSize(props.getMaxSize())
+                .expireAfterWrite(props.getTtl())
+                .build();
+
+        meterRegistry.gauge("kyc.jobs.inflight", inFlight);
+        meterRegistry.gauge("kyc.jobs.stored", jobs, Cache::estimatedSize);
+    }
+
+    public Optional<VerificationJob> submit(VerificationRequest request) {
+        return submit(request, Priority.INTERACTIVE);
+    }
+
+    /**
+     * @return the pending job, or empty when too many jobs are already running
+     */
+    public Optional<VerificationJob> submit(VerificationRequest request, Priority priority) {
+        if (inFlight.incrementAndGet() > maxInFlight) {
+            inFlight.decrementAndGet();
+            meterRegistry.counter("kyc.jobs.rejected").increment();
+            log.warn("kyc_job_rejected customerId={} inFlight={}", request.customerId(), maxInFlight);
+            return Optional.empty();
+        }
+
+        var job = VerificationJob.pending(UUID.randomUUID().toString(), now());
+        jobs.put(job.id(), job);
+        log.info("kyc_job_submitted jobId={} customerId={}", job.id(), request.customerId());
+
+        kycService.verify(request)
+                .contextWrite(priority::writeTo)
+                .doFinally(signal -> inFlight.decrementAndGet())
+                .subscribe(
+                        decision -> jobs.put(job.id(), job.completed(decision, now())),
+                        error -> {
+                            log.warn("kyc_job_failed jobId={}", job.id(), error);
+                            jobs.put(job.id(), job.failed(now()));
+                        });
+
+        return Optional.of(job);
+    }
+
+    public Optional<VerificationJob> find(String id) {
+        return Optional.ofNullable(jobs.getIfPresent(id));
+    }
+
+    private String now() {
+        return Instant.now(clock).toString();
+    }
+}
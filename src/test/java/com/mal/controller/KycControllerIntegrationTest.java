@@ -15,11 +15,18 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
+import reactor.core.publisher.Mono;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -51,11 +58,11 @@ class KycControllerIntegrationTest {
         var addr = new AddressVerificationResponse(VerificationStatus.PASS, 95, null);
         var sanc = new SanctionsResponse(SanctionsStatus.CLEAR, 0, null);
 
-        when(documentClient.verify(any())).thenReturn(doc);
-        when(biometricClient.match(any())).thenReturn(bio);
-        when(addressClient.verify(any())).thenReturn(addr);
-        when(sanctionsClient.check(any())).thenReturn(sanc);
-        when(decisionEngine.decide(doc, bio, addr, sanc))
+        when(documentClient.verify(any())).thenReturn(Mono.just(doc));
+        when(biometricClient.match(any())).thenReturn(Mono.just(bio));
+        when(addressClient.verify(any())).thenReturn(Mono.just(addr));
+        when(sanctionsClient.check(any())).thenReturn(Mono.just(sanc));
+        when(decisionEngine.decide(any(), eq(doc), eq(bio), eq(addr), eq(sanc)))
                 .thenReturn(KycDecisionType.APPROVED);
 
         var request = new VerificationRequest(
@@ -73,13 +80,18 @@ class KycControllerIntegrationTest {
                 "Baker Street 221B",
                 "UTILITY",
                 "2024-01-01",
-                "http://proof"
+                "http://proof",
+                null
         );
 
         // When + Then
-        mockMvc.perform(post("/api/v1/kyc/verify")
+        var result = mockMvc.perform(post("/api/v1/kyc/verify")
                         .contentType("application/json")
                         .content(mapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.decision").value("APPROVED"))
                 .andExpect(jsonPath("$.document.status").value("PASS"))
@@ -87,4 +99,120 @@ class KycControllerIntegrationTest {
                 .andExpect(jsonPath("$.address.status").value("PASS"))
                 .andExpect(jsonPath("$.sanctions.status").value("CLEAR"));
     }
+
+    @Test
+    void verifyBatch_shouldStreamDecisionsAsNdjson() throws Exception {
+        // Given
+        var sanc = new SanctionsResponse(SanctionsStatus.CLEAR, 0, null);
+        when(sanctionsClient.check(any())).thenReturn(Mono.just(sanc));
+        when(decisionEngine.decide(any(), any(), any(), any(), any()))
+                .thenReturn(KycDecisionType.APPROVED);
+
+        var body = """
+                {"requestId":"batch-1","customerId":"cust-1","verificationTypes":["SANCTIONS"]}
+                {"requestId":"batch-2","customerId":"cust-2","verificationTypes":["SANCTIONS"]}
+                """;
+
+        // When
+        var result = mockMvc.perform(post("/api/v1/kyc/verify/batch")
+                        .contentType("application/x-ndjson")
+                        .content(body))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        var lines = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString()
+                .lines()
+                .toList();
+
+        assertEquals(2, lines.size());
+        for (var line : lines) {
+            var decision = mapper.readTree(line);
+            assertEquals("APPROVED", decision.get("decision").asText());
+            assertEquals("CLEAR", decision.get("sanctions").get("status").asText());
+        }
+    }
+
+    @Test
+    void submit_shouldAcceptAndExposeJobForPolling() throws Exception {
+        // Given
+        var sanc = new SanctionsResponse(SanctionsStatus.CLEAR, 0, null);
+        when(sanctionsClient.check(any())).thenReturn(Mono.just(sanc));
+        when(decisionEngine.decide(any(), any(), any(), any(), any()))
+                .thenReturn(KycDecisionType.APPROVED);
+
+        // When
+        var location = mockMvc.perform(post("/api/v1/kyc/verifications")
+                        .contentType("application/json")
+                        .content("""
+                                {"requestId":"job-1","customerId":"cust-1","verificationTypes":["SANCTIONS"]}
+                                """))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").exists())
+                .andReturn()
+                .getResponse()
+                .getHeader("Location");
+
+        // Then
+        mockMvc.perform(get(location))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.result.decision").value("APPROVED"));
+    }
+
+    @Test
+    void job_shouldReturnNotFound_forUnknownId() throws Exception {
+        mockMvc.perform(get("/api/v1/kyc/verifications/unknown"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void verifyStream_shouldSendProviderResultsAndDecisionAsServerSentEvents() throws Exception {
+        // Given
+        var sanc = new SanctionsResponse(SanctionsStatus.CLEAR, 0, null);
+        when(sanctionsClient.check(any())).thenReturn(Mono.just(sanc));
+        when(decisionEngine.decide(any(), any(), any(), any(), any()))
+                .thenReturn(KycDecisionType.APPROVED);
+
+        // When
+        var result = mockMvc.perform(post("/api/v1/kyc/verify/stream")
+                        .contentType("application/json")
+                        .content("""
+                                {"requestId":"stream-1","customerId":"cust-1","verificationTypes":["SANCTIONS"]}
+                                """))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        var body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertTrue(body.indexOf("event:sanctions") < body.indexOf("event:decision"), body);
+        assertTrue(body.contains("\"decision\":\"APPROVED\""), body);
+    }
+
+    @Test
+    void verify_shouldRejectNullVerificationType_withBadRequest() throws Exception {
+        mockMvc.perform(post("/api/v1/kyc/verify")
+                        .contentType("application/json")
+                        .content("""
+                                {"requestId":"r-null","customerId":"cust-1","verificationTypes":[null]}
+                                """))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void circuitBreakers_shouldBeExposedThroughActuator() throws Exception {
+        mockMvc.perform(get("/actuator/circuitbreakers"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sanctions.state").value("CLOSED"))
+                .andExpect(jsonPath("$.document.calls").value(0));
+    }
 }
@@ -0,0 +1,174 @@
+package com.mal.integration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final Clock clock = Clock.fixed(Instant.parse("2026-01-01T10:00:00Z"), ZoneOffset.UTC);
+
+    private AdaptiveRateLimiter limiter(int limit, Duration latencyThreshold, Duration cooldown) {
+        var window = Duration.ofSeconds(10);
+        var quota = new TokenBucketRateLimiter(limit, window, limit, now::get);
+        return new AdaptiveRateLimiter(Provider.SANCTIONS, quota, limit, window, limit,
+                1, 0.5, latencyThreshold, cooldown, Duration.ofMinutes(1), now::get, clock);
+    }
+
+    private void advance(long millis) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    private static WebClientResponseException throttled(String retryAfter) {
+        var headers = new HttpHeaders();
+        if (retryAfter != null) {
+            headers.set(HttpHeaders.RETRY_AFTER, retryAfter);
+        }
+        return WebClientResponseException.create(
+                HttpStatus.TOO_MANY_REQUESTS.value(), "Too Many Requests", headers, new byte[0], null);
+    }
+
+    private static int drain(RateLimiter limiter) {
+        int acquired = 0;
+        while (limiter.tryAcquire()) {
+            acquired++;
+        }
+        return acquired;
+    }
+
+    @Test
+    void shouldHalveLimit_onThrottledResponse() {
+        // given
+        var limiter = limiter(10, null, Duration.ZERO);
+
+        // when
+        limiter.onError(throttled(null));
+
+        // then
+        assertEquals(5.0, limiter.limit());
+        assertEquals(5, drain(limiter));
+    }
+
+    @Test
+    void shouldStopAdmitting_untilRetryAfterSeconds() {
+        // given
+        var limiter = limiter(10, null, Duration.ZERO);
+
+        // when
+        limiter.onError(throttled("2"));
+
+        // then
+        assertFalse(limiter.tryAcquire());
+        assertEquals(TimeUnit.SECONDS.toNanos(2), limiter.nanosUntilAvailable(0, 0));
+
+        advance(2_000);
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    void shouldParseRetryAfterHttpDate_andCapAtMaxPause() {
+        // given
+        var limiter = limiter(10, null, Duration.ZERO);
+        var date = new HttpHeaders();
+        date.set(HttpHeaders.RETRY_AFTER, "Thu, 01 Jan 2026 10:00:30 GMT");
+        var far = new HttpHeaders();
+        far.set(HttpHeaders.RETRY_AFTER, "3600");
+        var garbage = new HttpHeaders();
+        garbage.set(HttpHeaders.RETRY_AFTER, "soon");
+
+        // then
+        assertEquals(Duration.ofSeconds(30), limiter.retryAfter(date));
+        assertEquals(Duration.ofMinutes(1), limiter.retryAfter(far));
+        assertEquals(null, limiter.retryAfter(garbage));
+    }
+
+    @Test
+    void shouldIncreaseAdditively_upToConfiguredLimit() {
+        // given
+        var limiter = limiter(10, null, Duration.ZERO);
+        limiter.onError(throttled(null));
+
+        // when — one window's worth of successes adds about one permit
+        for (int i = 0; i < 5; i++) {
+            limiter.onResponse(0);
+        }
+
+        // then
+        assertTrue(limiter.limit() > 5.9 && limiter.limit() < 6.0, String.valueOf(limiter.limit()));
+
+        for (int i = 0; i < 1_000; i++) {
+            limiter.onResponse(0);
+        }
+        assertEquals(10.0, limiter.limit());
+    }
+
+    @Test
+    void shouldDecrease_onSlowResponseAndTimeout() {
+        // given
+        var limiter = limiter(8, Duration.ofSeconds(1), Duration.ZERO);
+
+        // when
+        limiter.onResponse(TimeUnit.MILLISECONDS.toNanos(1_500));
+        limiter.onError(new TimeoutException());
+        limiter.onError(new IllegalStateException("boom"));
+
+        // then
+        assertEquals(2.0, limiter.limit());
+    }
+
+    @Test
+    void shouldNotDropBelowMinLimit() {
+        // given
+        var limiter = limiter(4, null, Duration.ZERO);
+
+        // when
+        for (int i = 0; i < 10; i++) {
+            limiter.onError(throttled(null));
+        }
+
+        // then
+        assertEquals(1.0, limiter.limit());
+        assertEquals(1, drain(limiter));
+    }
+
+    @Test
+    void shouldDecreaseOncePerCooldown() {
+        // given
+        var limiter = limiter(16, null, Duration.ofSeconds(5));
+
+        // when
+        limiter.onError(throttled(null));
+        limiter.onError(throttled(null));
+        advance(5_000);
+        limiter.onError(throttled(null));
+
+        // then
+        assertEquals(4.0, limiter.limit());
+    }
+
+    @Test
+    void shouldRespectConfiguredQuota() {
+        // given
+        var window = Duration.ofSeconds(10);
+        var quota = new TokenBucketRateLimiter(2, window, 2, now::get);
+        var limiter = new AdaptiveRateLimiter(Provider.SANCTIONS, quota, 10, window, 10,
+                1, 0.5, null, Duration.ZERO, Duration.ofMinutes(1), now::get, clock);
+
+        // then
+        assertEquals(2, drain(limiter));
+    }
+}
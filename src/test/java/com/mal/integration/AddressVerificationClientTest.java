@@ -1,8 +1,12 @@
 package com.mal.integration;
 
+import com.mal.config.CircuitBreakerProperties;
+import com.mal.config.HedgingProperties;
 import com.mal.config.RateLimitProperties;
+import com.mal.config.RetryProperties;
 import com.mal.integration.dto.AddressVerificationRequest;
 import com.mal.integration.dto.VerificationStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import org.junit.jupiter.api.AfterEach;
@@ -15,6 +19,7 @@ import java.time.Duration;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class AddressVerificationClientTest {
 
@@ -31,11 +36,27 @@ class AddressVerificationClientTest {
         server.shutdown();
     }
 
-    private SimpleRateLimiter limiter(int limit, long windowMs) {
+    private ProviderRateLimiters limiter(int limit, long windowMs) {
         var props = new RateLimitProperties();
         props.setLimit(limit);
         props.setWindowMillis(windowMs);
-        return new SimpleRateLimiter(props);
+        return new ProviderRateLimiters(props, new SimpleMeterRegistry());
+    }
+
+    private ProviderCallFactory calls(ProviderRateLimiters limiter) {
+        var registry = new SimpleMeterRegistry();
+        return new ProviderCallFactory(
+                limiter,
+                new ProviderCircuitBreakers(new CircuitBreakerProperties(), registry),
+                new HedgingProperties(),
+                noRetries(),
+                registry);
+    }
+
+    private RetryProperties noRetries() {
+        var retry = new RetryProperties();
+        retry.setAttempts(1);
+        return retry;
     }
 
     @Test
@@ -49,13 +70,13 @@ class AddressVerificationClientTest {
 
         var client = new AddressVerificationClient(
                 WebClient.builder(),
-                limiter(10, 60_000),
+                calls(limiter(10, 60_000)),
                 server.url("/").toString(),
                 Duration.ofSeconds(1)
         );
 
         // When
-        var resp = client.verify(new AddressVerificationRequest("c1", "addr", "bill", "2024", "x"));
+        var resp = client.verify(new AddressVerificationRequest("c1", "addr", "bill", "2024", "x")).block();
 
         // Then
         assertEquals(VerificationStatus.PASS, resp.status());
@@ -73,13 +94,13 @@ class AddressVerificationClientTest {
 
         var client = new AddressVerificationClient(
                 WebClient.builder(),
-                limiter(10, 60_000),
+                calls(limiter(10, 60_000)),
                 server.url("/").toString(),
                 Duration.ofMillis(300)
         );
 
         // When
-        var resp = client.verify(new AddressVerificationRequest("c1", "addr", "bill", "2024", "x"));
+        var resp = client.verify(new AddressVerificationRequest("c1", "addr", "bill", "2024", "x")).block();
 
         // Then
         assertEquals(VerificationStatus.FAIL, resp.status());
@@ -92,13 +113,13 @@ class AddressVerificationClientTest {
 
         var client = new AddressVerificationClient(
                 WebClient.builder(),
-                limiter(10, 60_000),
+                calls(limiter(10, 60_000)),
                 server.url("/").toString(),
                 Duration.ofSeconds(1)
         );
 
         // When
-        var resp = client.verify(new AddressVerificationRequest("c1", "addr", "bill", "2024", "x"));
+        var resp = client.verify(new AddressVerificationRequest("c1", "addr", "bill", "2024", "x")).block();
 
         // Then
         assertEquals(VerificationStatus.FAIL, resp.status());
@@ -109,7 +130,7 @@ class AddressVerificationClientTest {
         // Given
         var client = new AddressVerificationClient(
                 WebClient.builder(),
-                limiter(1, 60_000),
+                calls(limiter(1, 60_000)),
                 server.url("/").toString(),
                 Duration.ofSeconds(1)
         );
@@ -118,10 +139,10 @@ class AddressVerificationClientTest {
                     {"status":"PASS","confidence":90,"reasons":[]}
                 """).addHeader("Content-Type", "application/json"));
 
-        client.verify(new AddressVerificationRequest("c1", "addr", "bill", "2024", "x"));
+        client.verify(new AddressVerificationRequest("c1", "addr", "bill", "2024", "x")).block();
 
         // When
-        var resp = client.verify(new AddressVerificationRequest("c2", "addr", "bill", "2024", "x"));
+        var resp = client.verify(new AddressVerificationRequest("c2", "addr", "bill", "2024", "x")).block();
 
         // Then
         assertEquals(VerificationStatus.MANUAL_REVIEW, resp.status());
@@ -132,7 +153,7 @@ class AddressVerificationClientTest {
         // Given
         var client = new AddressVerificationClient(
                 WebClient.builder(),
-                limiter(1, 200),
+                calls(limiter(1, 200)),
                 server.url("/").toString(),
                 Duration.ofSeconds(1)
         );
@@ -141,10 +162,10 @@ class AddressVerificationClientTest {
                     {"status":"PASS","confidence":90,"reasons":[]}
                 """).addHeader("Content-Type", "application/json"));
 
-        client.verify(new AddressVerificationRequest("c1", "addr", "bill", "2024", "x"));
+        client.verify(new AddressVerificationRequest("c1", "addr", "bill", "2024", "x")).block();
 
         // When
-        var resp1 = client.verify(new AddressVerificationRequest("c2", "addr", "bill", "2024", "x"));
+        var resp1 = client.verify(new AddressVerificationRequest("c2", "addr", "bill", "2024", "x")).block();
 
         Thread.sleep(250);
 
@@ -152,10 +173,61 @@ class AddressVerificationClientTest {
                     {"status":"PASS","confidence":90,"reasons":[]}
                 """).addHeader("Content-Type", "application/json"));
 
-        var resp2 = client.verify(new AddressVerificationRequest("c3", "addr", "bill", "2024", "x"));
+        var resp2 = client.verify(new AddressVerificationRequest("c3", "addr", "bill", "2024", "x")).block();
 
         // Then
         assertEquals(VerificationStatus.MANUAL_REVIEW, resp1.status());
         assertEquals(VerificationStatus.PASS, resp2.status());
     }
+
+    @Test
+    void shouldCapTimeout_toRemainingDeadline() {
+        // given
+        server.enqueue(new MockResponse()
+                .setBody("""
+                            {"status":"PASS","confidence":95,"reasons":[]}
+                        """)
+                .addHeader("Content-Type", "application/json")
+                .setBodyDelay(2, TimeUnit.SECONDS));
+
+        var client = new AddressVerificationClient(
+                WebClient.builder(),
+                calls(limiter(10, 60_000)),
+                server.url("/").toString(),
+                Duration.ofSeconds(5)
+        );
+
+        // when
+        var start = System.nanoTime();
+        var resp = client.verify(new AddressVerificationRequest("c1", "addr", "bill", "2024", "x"))
+                .contextWrite(ctx -> Deadline.after(Duration.ofMillis(300)).writeTo(ctx))
+                .block();
+        var elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        // then
+        assertEquals(VerificationStatus.FAIL, resp.status());
+        assertTrue(elapsed.compareTo(Duration.ofSeconds(1)) < 0, elapsed.toString());
+    }
+
+    @Test
+    void shouldSkipCall_whenDeadlineAlreadyExpired() {
+        // given
+        var limiter = limiter(1, 60_000);
+        var client = new AddressVerificationClient(
+                WebClient.builder(),
+                calls(limiter),
+                server.url("/").toString(),
+                Duration.ofSeconds(1)
+        );
+
+        // when
+        var resp = client.verify(new AddressVerificationRequest("c1", "addr", "bill", "2024", "x"))
+                .contextWrite(ctx -> Deadline.after(Duration.ZERO).writeTo(ctx))
+                .block();
+
+        // then
+        assertEquals(VerificationStatus.FAIL, resp.status());
+        assertEquals(0, server.getRequestCount());
+        assertTrue(limiter.forProvider(Provider.ADDRESS).tryAcquire());
+    }
 }
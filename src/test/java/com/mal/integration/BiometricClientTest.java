@@ -1,20 +1,27 @@
 package com.mal.integration;
 
+import com.mal.config.CircuitBreakerProperties;
+import com.mal.config.HedgingProperties;
 import com.mal.config.RateLimitProperties;
+import com.mal.config.ResultCacheProperties;
+import com.mal.config.RetryProperties;
 import com.mal.integration.dto.BiometricRequest;
 import com.mal.integration.dto.VerificationStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 
 import java.io.IOException;
 import java.time.Duration;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class BiometricClientTest {
 
@@ -31,11 +38,54 @@ class BiometricClientTest {
         server.shutdown();
     }
 
-    private SimpleRateLimiter limiter(int limit, long windowMs) {
+    private ProviderRateLimiters limiter(int limit, long windowMs) {
         var props = new RateLimitProperties();
         props.setLimit(limit);
         props.setWindowMillis(windowMs);
-        return new SimpleRateLimiter(props);
+        return new ProviderRateLimiters(props, new SimpleMeterRegistry());
+    }
+
+    private ProviderCallFactory calls(ProviderRateLimiters limiter) {
+        return calls(limiter, new HedgingProperties());
+    }
+
+    private RetryProperties noRetries() {
+        var retry = new RetryProperties();
+        retry.setAttempts(1);
+        return retry;
+    }
+
+    private ProviderCallFactory calls(ProviderRateLimiters limiter, HedgingProperties hedging) {
+        var registry = new SimpleMeterRegistry();
+        return new ProviderCallFactory(
+                limiter,
+                new ProviderCircuitBreakers(new CircuitBreakerProperties(), registry),
+                hedging,
+                noRetries(),
+                registry);
+    }
+
+    private ProviderCallFactory calls(ProviderCircuitBreakers breakers, RetryProperties retry) {
+        return new ProviderCallFactory(limiter(10, 60_000), breakers, hedging(1.0), retry, new SimpleMeterRegistry());
+    }
+
+    private BiometricClient client(ProviderCallFactory calls) {
+        return new BiometricClient(
+                WebClient.builder(),
+                calls,
+                new ResultCacheProperties(),
+                new SimpleMeterRegistry(),
+                server.url("/").toString(),
+                Duration.ofSeconds(5)
+        );
+    }
+
+    private HedgingProperties hedging(double maxRatio) {
+        var hedging = new HedgingProperties();
+        hedging.getBiometric().setEnabled(true);
+        hedging.getBiometric().setInitialDelay(Duration.ofMillis(100));
+        hedging.getBiometric().setMaxRatio(maxRatio);
+        return hedging;
     }
 
     @Test
@@ -49,13 +99,15 @@ class BiometricClientTest {
 
         var client = new BiometricClient(
                 WebClient.builder(),
-                limiter(10, 60_000),
+                calls(limiter(10, 60_000)),
+                new ResultCacheProperties(),
+                new SimpleMeterRegistry(),
                 server.url("/").toString(),
                 Duration.ofSeconds(1)
         );
 
         // When
-        var resp = client.match(new BiometricRequest("c1", "selfie", "photo"));
+        var resp = client.match(new BiometricRequest("c1", "selfie", "photo")).block();
 
         // Then
         assertEquals(VerificationStatus.PASS, resp.status());
@@ -73,13 +125,15 @@ class BiometricClientTest {
 
         var client = new BiometricClient(
                 WebClient.builder(),
-                limiter(10, 60_000),
+                calls(limiter(10, 60_000)),
+                new ResultCacheProperties(),
+                new SimpleMeterRegistry(),
                 server.url("/").toString(),
                 Duration.ofMillis(300)
         );
 
         // When
-        var resp = client.match(new BiometricRequest("c1", "selfie", "photo"));
+        var resp = client.match(new BiometricRequest("c1", "selfie", "photo")).block();
 
         // Then
         assertEquals(VerificationStatus.FAIL, resp.status());
@@ -92,13 +146,15 @@ class BiometricClientTest {
 
         var client = new BiometricClient(
                 WebClient.builder(),
-                limiter(10, 60_000),
+                calls(limiter(10, 60_000)),
+                new ResultCacheProperties(),
+                new SimpleMeterRegistry(),
                 server.url("/").toString(),
                 Duration.ofSeconds(1)
         );
 
         // When
-        var resp = client.match(new BiometricRequest("c1", "selfie", "photo"));
+        var resp = client.match(new BiometricRequest("c1", "selfie", "photo")).block();
 
         // Then
         assertEquals(VerificationStatus.FAIL, resp.status());
@@ -109,7 +165,9 @@ class BiometricClientTest {
         // Given
         var client = new BiometricClient(
                 WebClient.builder(),
-                limiter(1, 60_000),
+                calls(limiter(1, 60_000)),
+                new ResultCacheProperties(),
+                new SimpleMeterRegistry(),
                 server.url("/").toString(),
                 Duration.ofSeconds(1)
         );
@@ -118,10 +176,10 @@ class BiometricClientTest {
                     {"status":"PASS","confidence":90,"similarity_score":90.0}
                 """).addHeader("Content-Type", "application/json"));
 
-        client.match(new BiometricRequest("c1", "selfie", "photo"));
+        client.match(new BiometricRequest("c1", "selfie", "photo")).block();
 
         // When
-        var resp = client.match(new BiometricRequest("c2", "selfie", "photo"));
+        var resp = client.match(new BiometricRequest("c2", "selfie", "photo")).block();
 
         // Then
         assertEquals(VerificationStatus.MANUAL_REVIEW, resp.status());
@@ -132,7 +190,9 @@ class BiometricClientTest {
         // Given
         var client = new BiometricClient(
                 WebClient.builder(),
-                limiter(1, 200),
+                calls(limiter(1, 200)),
+                new ResultCacheProperties(),
+                new SimpleMeterRegistry(),
                 server.url("/").toString(),
                 Duration.ofSeconds(1)
         );
@@ -141,20 +201,205 @@ class BiometricClientTest {
                     {"status":"PASS","confidence":88,"similarity_score":88.3}
                 """).addHeader("Content-Type", "application/json"));
 
-        client.match(new BiometricRequest("c1", "selfie", "photo"));
+        client.match(new BiometricRequest("c1", "selfie", "photo")).block();
 
         // When first over-limit
-        var resp1 = client.match(new BiometricRequest("c2", "selfie", "photo"));
+        var resp1 = client.match(new BiometricRequest("c2", "selfie", "photo")).block();
         Thread.sleep(250);
 
         server.enqueue(new MockResponse().setBody("""
                     {"status":"PASS","confidence":88,"similarity_score":88.3}
                 """).addHeader("Content-Type", "application/json"));
 
-        var resp2 = client.match(new BiometricRequest("c3", "selfie", "photo"));
+        var resp2 = client.match(new BiometricRequest("c3", "selfie", "photo")).block();
 
         // Then
         assertEquals(VerificationStatus.MANUAL_REVIEW, resp1.status());
         assertEquals(VerificationStatus.PASS, resp2.status());
     }
+
+    @Test
+    void shouldReleasePermit_whenCancelledBeforeRequestIsSent() throws Exception {
+        // given
+        var stalledExchange = WebClient.builder()
+                .filter((request, next) -> Mono.delay(Duration.ofSeconds(5)).then(next.exchange(request)));
+
+        var limiter = limiter(1, 60_000);
+        var client = new BiometricClient(
+                stalledExchange,
+                calls(limiter),
+                new ResultCacheProperties(),
+                new SimpleMeterRegistry(),
+                server.url("/").toString(),
+                Duration.ofSeconds(1)
+        );
+
+        var inFlight = client.match(new BiometricRequest("c1", "selfie", "photo")).subscribe();
+        Thread.sleep(100);
+
+        // when
+        inFlight.dispose();
+
+        // then
+        assertEquals(0, server.getRequestCount());
+        assertTrue(limiter.forProvider(Provider.BIOMETRIC).tryAcquire());
+    }
+
+    @Test
+    void shouldReturnHedgedResponse_whenPrimaryIsSlow() {
+        // given
+        server.enqueue(new MockResponse()
+                .setBody("""
+                            {"status":"PASS","confidence":10,"similarityScore":0.1}
+                        """)
+                .addHeader("Content-Type", "application/json")
+                .setBodyDelay(3, TimeUnit.SECONDS));
+        server.enqueue(new MockResponse()
+                .setBody("""
+                            {"status":"PASS","confidence":95,"similarityScore":0.95}
+                        """)
+                .addHeader("Content-Type", "application/json"));
+
+        var client = new BiometricClient(
+                WebClient.builder(),
+                calls(limiter(10, 60_000), hedging(1.0)),
+                new ResultCacheProperties(),
+                new SimpleMeterRegistry(),
+                server.url("/").toString(),
+                Duration.ofSeconds(5)
+        );
+
+        // when
+        var start = System.nanoTime();
+        var resp = client.match(new BiometricRequest("c1", "selfie", "photo")).block();
+        var elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        // then
+        assertEquals(95, resp.confidence());
+        assertEquals(2, server.getRequestCount());
+        assertTrue(elapsed.compareTo(Duration.ofSeconds(2)) < 0, elapsed.toString());
+    }
+
+    @Test
+    void shouldNotHedge_whenHedgeBudgetIsExhausted() {
+        // given
+        server.enqueue(new MockResponse()
+                .setBody("""
+                            {"status":"PASS","confidence":90,"similarityScore":0.9}
+                        """)
+                .addHeader("Content-Type", "application/json")
+                .setBodyDelay(500, TimeUnit.MILLISECONDS));
+
+        var client = new BiometricClient(
+                WebClient.builder(),
+                calls(limiter(10, 60_000), hedging(0.0)),
+                new ResultCacheProperties(),
+                new SimpleMeterRegistry(),
+                server.url("/").toString(),
+                Duration.ofSeconds(5)
+        );
+
+        // when
+        var resp = client.match(new BiometricRequest("c1", "selfie", "photo")).block();
+
+        // then
+        assertEquals(90, resp.confidence());
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    void shouldReusePassResult_forSameSelfieAndIdPhoto_whenCacheEnabled() {
+        // given
+        var cache = new ResultCacheProperties();
+        cache.getBiometric().setEnabled(true);
+        server.enqueue(new MockResponse()
+                .setBody("""
+                            {"status":"PASS","confidence":92,"similarity_score":92.5}
+                        """)
+                .addHeader("Content-Type", "application/json"));
+
+        var client = new BiometricClient(
+                WebClient.builder(),
+                calls(limiter(10, 60_000)),
+                cache,
+                new SimpleMeterRegistry(),
+                server.url("/").toString(),
+                Duration.ofSeconds(1)
+        );
+
+        // when
+        client.match(new BiometricRequest("c1", "selfie", "photo")).block();
+        var resumed = client.match(new BiometricRequest("c1", "selfie", "photo")).block();
+
+        // then
+        assertEquals(VerificationStatus.PASS, resumed.status());
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    void shouldRetryHedgedCall_whenServerReturnsRetryableStatus() {
+        // given
+        var retry = new RetryProperties();
+        retry.setAttempts(2);
+        retry.setBackoff(Duration.ofMillis(10));
+        var breakers = new ProviderCircuitBreakers(new CircuitBreakerProperties(), new SimpleMeterRegistry());
+        var client = client(calls(breakers, retry));
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse()
+                .setBody("""
+                            {"status":"PASS","confidence":92,"similarityScore":0.92}
+                        """)
+                .addHeader("Content-Type", "application/json"));
+
+        // when
+        var resp = client.match(new BiometricRequest("c1", "selfie", "photo")).block(Duration.ofSeconds(2));
+
+        // then
+        assertEquals(VerificationStatus.PASS, resp.status());
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    void shouldNotCountHedgedClientError_asBreakerFailure() {
+        // given
+        var breaker = new CircuitBreakerProperties();
+        breaker.getBiometric().setMinimumCalls(2);
+        breaker.getBiometric().setWindowSize(2);
+        var breakers = new ProviderCircuitBreakers(breaker, new SimpleMeterRegistry());
+        var client = client(calls(breakers, noRetries()));
+        for (int i = 0; i < 3; i++) {
+            server.enqueue(new MockResponse().setResponseCode(400));
+        }
+
+        // when
+        for (int i = 0; i < 3; i++) {
+            client.match(new BiometricRequest("c" + i, "selfie", "photo")).block(Duration.ofSeconds(2));
+        }
+
+        // then
+        var snapshot = breakers.forProvider(Provider.BIOMETRIC).snapshot();
+        assertEquals(CircuitBreaker.State.CLOSED, snapshot.state());
+        assertEquals(0.0, snapshot.failureRate());
+        assertEquals(3, server.getRequestCount());
+    }
+
+    @Test
+    void shouldNotCountRateLimitedRetry_asBreakerSuccess() {
+        // given — one permit, so the retry after the 503 finds none
+        var retry = new RetryProperties();
+        retry.setAttempts(2);
+        retry.setBackoff(Duration.ofMillis(10));
+        var registry = new SimpleMeterRegistry();
+        var breakers = new ProviderCircuitBreakers(new CircuitBreakerProperties(), registry);
+        var client = client(new ProviderCallFactory(limiter(1, 60_000), breakers, new HedgingProperties(), retry, registry));
+        server.enqueue(new MockResponse().setResponseCode(503));
+
+        // when
+        var resp = client.match(new BiometricRequest("c1", "selfie", "photo")).block(Duration.ofSeconds(2));
+
+        // then
+        assertEquals(VerificationStatus.MANUAL_REVIEW, resp.status());
+        assertEquals(1, server.getRequestCount());
+        assertEquals(0, breakers.forProvider(Provider.BIOMETRIC).snapshot().calls());
+    }
 }
@@ -0,0 +1,231 @@
+package com.mal.integration;
+
+import com.mal.config.CircuitBreakerProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CircuitBreakerTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(5);
+
+    private final AtomicLong now = new AtomicLong();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private CircuitBreaker breaker() {
+        var policy = new CircuitBreakerProperties.Policy();
+        policy.setWindowSize(4);
+        policy.setMinimumCalls(4);
+        policy.setFailureRateThreshold(50);
+        policy.setSlowCallRateThreshold(75);
+        policy.setSlowCallDuration(Duration.ofSeconds(1));
+        policy.setWaitInOpen(Duration.ofSeconds(30));
+        policy.setHalfOpenCalls(2);
+        return new CircuitBreaker(Provider.DOCUMENT, policy, registry, now::get);
+    }
+
+    private void advance(long millis) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    private static void succeed(CircuitBreaker breaker, long latencyNanos) {
+        breaker.tryAcquire().onSuccess(latencyNanos);
+    }
+
+    private static void fail(CircuitBreaker breaker, Throwable error) {
+        breaker.tryAcquire().onError(error, FAST);
+    }
+
+    private CircuitBreaker opened() {
+        var breaker = breaker();
+        for (int i = 0; i < 4; i++) {
+            fail(breaker, new TimeoutException());
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        return breaker;
+    }
+
+    private static WebClientResponseException status(HttpStatus status) {
+        return WebClientResponseException.create(status.value(), status.getReasonPhrase(), new HttpHeaders(), new byte[0], null);
+    }
+
+    @Test
+    void shouldStayClosed_untilMinimumCalls() {
+        // given
+        var breaker = breaker();
+
+        // when
+        for (int i = 0; i < 3; i++) {
+            fail(breaker, new TimeoutException());
+        }
+
+        // then
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertNotNull(breaker.tryAcquire());
+    }
+
+    @Test
+    void shouldOpen_whenFailureRateReachesThreshold() {
+        // given
+        var breaker = breaker();
+
+        // when
+        succeed(breaker, FAST);
+        succeed(breaker, FAST);
+        fail(breaker, status(HttpStatus.SERVICE_UNAVAILABLE));
+        fail(breaker, new TimeoutException());
+
+        // then
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertNull(breaker.tryAcquire());
+        assertEquals(1.0, registry.get("kyc.circuit.calls").tag("outcome", "not_permitted").counter().count());
+        assertEquals(1.0, registry.get("kyc.circuit.state").tag("provider", "document").tag("state", "open").gauge().value());
+    }
+
+    @Test
+    void shouldOpen_whenSlowCallRateReachesThreshold() {
+        // given
+        var breaker = breaker();
+
+        // when
+        succeed(breaker, FAST);
+        for (int i = 0; i < 3; i++) {
+            succeed(breaker, SLOW);
+        }
+
+        // then
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    @Test
+    void shouldNotCountClientErrors_asFailures() {
+        // given
+        var breaker = breaker();
+
+        // when
+        for (int i = 0; i < 4; i++) {
+            fail(breaker, status(HttpStatus.BAD_REQUEST));
+        }
+
+        // then
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertEquals(0.0, breaker.snapshot().failureRate());
+    }
+
+    @Test
+    void shouldSlideWindow_overLastCalls() {
+        // given
+        var breaker = breaker();
+        fail(breaker, new TimeoutException());
+        succeed(breaker, FAST);
+        succeed(breaker, FAST);
+        succeed(breaker, FAST);
+
+        // when — the failure drops out of the window
+        succeed(breaker, FAST);
+
+        // then
+        assertEquals(4, breaker.snapshot().calls());
+        assertEquals(0.0, breaker.snapshot().failureRate());
+    }
+
+    @Test
+    void shouldLetTrialCallsThrough_afterWaitInOpen_andCloseWhenTheySucceed() {
+        // given
+        var breaker = opened();
+        advance(30_000);
+
+        // when
+        var first = breaker.tryAcquire();
+        var second = breaker.tryAcquire();
+        var third = breaker.tryAcquire();
+
+        // then
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        assertNotNull(first);
+        assertNotNull(second);
+        assertNull(third);
+
+        first.onSuccess(FAST);
+        second.onSuccess(FAST);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void shouldReopen_whenTrialCallsFail() {
+        // given
+        var breaker = opened();
+        advance(30_000);
+
+        // when
+        fail(breaker, new TimeoutException());
+        fail(breaker, new TimeoutException());
+
+        // then
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertNull(breaker.tryAcquire());
+    }
+
+    @Test
+    void shouldFreeTrialSlot_whenCallEndsWithoutOutcome() {
+        // given
+        var breaker = opened();
+        advance(30_000);
+        breaker.tryAcquire().release();
+        breaker.tryAcquire().release();
+
+        // when
+        var trial = breaker.tryAcquire();
+
+        // then
+        assertNotNull(trial);
+    }
+
+    @Test
+    void shouldIgnoreOutcomes_ofCallsAdmittedBeforeStateChange() {
+        // given
+        var breaker = breaker();
+        var stale = breaker.tryAcquire();
+        for (int i = 0; i < 4; i++) {
+            fail(breaker, new TimeoutException());
+        }
+        advance(30_000);
+        breaker.tryAcquire().onSuccess(FAST);
+
+        // when
+        stale.onError(new TimeoutException(), FAST);
+
+        // then
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        assertEquals(0.0, breaker.snapshot().failureRate());
+    }
+
+    @Test
+    void shouldAlwaysPermit_whenDisabled() {
+        // given
+        var policy = new CircuitBreakerProperties.Policy();
+        policy.setEnabled(false);
+        policy.setMinimumCalls(1);
+        var breaker = new CircuitBreaker(Provider.DOCUMENT, policy, registry, now::get);
+
+        // when
+        for (int i = 0; i < 10; i++) {
+            fail(breaker, new TimeoutException());
+        }
+
+        // then
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+}
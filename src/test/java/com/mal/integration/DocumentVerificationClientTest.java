@@ -1,8 +1,13 @@
 package com.mal.integration;
 
+import com.mal.config.CircuitBreakerProperties;
+import com.mal.config.HedgingProperties;
 import com.mal.config.RateLimitProperties;
+import com.mal.config.ResultCacheProperties;
+import com.mal.config.RetryProperties;
 import com.mal.integration.dto.DocumentVerificationRequest;
 import com.mal.integration.dto.VerificationStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import org.junit.jupiter.api.AfterEach;
@@ -31,11 +36,59 @@ class DocumentVerificationClientTest {
         server.shutdown();
     }
 
-    private SimpleRateLimiter limiter(int limit, long windowMs) {
+    private ProviderRateLimiters limiter(int limit, long windowMs) {
         var props = new RateLimitProperties();
         props.setLimit(limit);
         props.setWindowMillis(windowMs);
-        return new SimpleRateLimiter(props);
+        return new ProviderRateLimiters(props, new SimpleMeterRegistry());
+    }
+
+    private ProviderCallFactory calls(ProviderRateLimiters limiter) {
+        return calls(limiter, noRetries());
+    }
+
+    private ProviderCallFactory calls(ProviderRateLimiters limiter, RetryProperties retry) {
+        // breaker off, so a run of failures is left to the retry budget
+        var breaker = new CircuitBreakerProperties();
+        breaker.getDocument().setEnabled(false);
+        var registry = new SimpleMeterRegistry();
+        return new ProviderCallFactory(
+                limiter,
+                new ProviderCircuitBreakers(breaker, registry),
+                new HedgingProperties(),
+                retry,
+                registry);
+    }
+
+    private RetryProperties noRetries() {
+        return retries(1, 0.1);
+    }
+
+    private RetryProperties retries(int attempts, double budgetRatio) {
+        var retry = new RetryProperties();
+        retry.setAttempts(attempts);
+        retry.setBackoff(Duration.ofMillis(10));
+        retry.setBudgetRatio(budgetRatio);
+        return retry;
+    }
+
+    private DocumentVerificationClient client(ProviderCallFactory calls) {
+        return new DocumentVerificationClient(
+                WebClient.builder(),
+                calls,
+                new ResultCacheProperties(),
+                new SimpleMeterRegistry(),
+                server.url("/").toString(),
+                Duration.ofSeconds(1)
+        );
+    }
+
+    private MockResponse pass() {
+        return new MockResponse()
+                .setBody("""
+                        {"status":"PASS","confidence":90,"reasons":[]}
+                        """)
+                .addHeader("Content-Type", "application/json");
     }
 
     private DocumentVerificationRequest req(String id) {
@@ -59,13 +112,15 @@ class DocumentVerificationClientTest {
 
         var client = new DocumentVerificationClient(
                 WebClient.builder(),
-                limiter(10, 60_000),
+                calls(limiter(10, 60_000)),
+                new ResultCacheProperties(),
+                new SimpleMeterRegistry(),
                 server.url("/").toString(),
                 Duration.ofSeconds(1)
         );
 
         // when
-        var resp = client.verify(req("c1"));
+        var resp = client.verify(req("c1")).block();
 
         // then
         assertEquals(VerificationStatus.PASS, resp.status());
@@ -83,13 +138,15 @@ class DocumentVerificationClientTest {
 
         var client = new DocumentVerificationClient(
                 WebClient.builder(),
-                limiter(10, 60_000),
+                calls(limiter(10, 60_000)),
+                new ResultCacheProperties(),
+                new SimpleMeterRegistry(),
                 server.url("/").toString(),
                 Duration.ofMillis(300)
         );
 
         // when
-        var resp = client.verify(req("c1"));
+        var resp = client.verify(req("c1")).block();
 
         // then
         assertEquals(VerificationStatus.FAIL, resp.status());
@@ -102,13 +159,15 @@ class DocumentVerificationClientTest {
 
         var client = new DocumentVerificationClient(
                 WebClient.builder(),
-                limiter(10, 60_000),
+                calls(limiter(10, 60_000)),
+                new ResultCacheProperties(),
+                new SimpleMeterRegistry(),
                 server.url("/").toString(),
                 Duration.ofSeconds(1)
         );
 
         // when
-        var resp = client.verify(req("c1"));
+        var resp = client.verify(req("c1")).block();
 
         // then
         assertEquals(VerificationStatus.FAIL, resp.status());
@@ -119,7 +178,9 @@ class DocumentVerificationClientTest {
         // given
         var client = new DocumentVerificationClient(
                 WebClient.builder(),
-                limiter(1, 60_000),
+                calls(limiter(1, 60_000)),
+                new ResultCacheProperties(),
+                new SimpleMeterRegistry(),
                 server.url("/").toString(),
                 Duration.ofSeconds(1)
         );
@@ -130,10 +191,10 @@ class DocumentVerificationClientTest {
                         """)
                 .addHeader("Content-Type", "application/json"));
 
-        client.verify(req("c1"));
+        client.verify(req("c1")).block();
 
         // when
-        var resp = client.verify(req("c2"));
+        var resp = client.verify(req("c2")).block();
 
         // then
         assertEquals(VerificationStatus.MANUAL_REVIEW, resp.status());
@@ -144,7 +205,9 @@ class DocumentVerificationClientTest {
         // given
         var client = new DocumentVerificationClient(
                 WebClient.builder(),
-                limiter(1, 200),
+                calls(limiter(1, 200)),
+                new ResultCacheProperties(),
+                new SimpleMeterRegistry(),
                 server.url("/").toString(),
                 Duration.ofSeconds(1)
         );
@@ -155,10 +218,10 @@ class DocumentVerificationClientTest {
                         """)
                 .addHeader("Content-Type", "application/json"));
 
-        client.verify(req("c1"));
+        client.verify(req("c1")).block();
 
         // first blocked
-        var resp1 = client.verify(req("c2"));
+        var resp1 = client.verify(req("c2")).block();
         assertEquals(VerificationStatus.MANUAL_REVIEW, resp1.status());
 
         Thread.sleep(250);
@@ -170,9 +233,138 @@ class DocumentVerificationClientTest {
                 .addHeader("Content-Type", "application/json"));
 
         // when
-        var resp2 = client.verify(req("c3"));
+        var resp2 = client.verify(req("c3")).block();
 
         // then
         assertEquals(VerificationStatus.PASS, resp2.status());
     }
+
+    @Test
+    void shouldNotCallProvider_untilSubscribed() throws Exception {
+        // given
+        var client = new DocumentVerificationClient(
+                WebClient.builder(),
+                calls(limiter(1, 60_000)),
+                new ResultCacheProperties(),
+                new SimpleMeterRegistry(),
+                server.url("/").toString(),
+                Duration.ofSeconds(1)
+        );
+
+        server.enqueue(new MockResponse()
+                .setBody("""
+                            {"status":"PASS","confidence":90,"reasons":[]}
+                        """)
+                .addHeader("Content-Type", "application/json"));
+
+        // when
+        var pending = client.verify(req("c1"));
+
+        // then
+        assertEquals(0, server.getRequestCount());
+        assertEquals(VerificationStatus.PASS, pending.block().status());
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    void shouldRetry_whenServerReturnsRetryableStatus() {
+        // given
+        var client = client(calls(limiter(10, 60_000), retries(3, 0.1)));
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setResponseCode(502));
+        server.enqueue(pass());
+
+        // when
+        var resp = client.verify(req("d1")).block(Duration.ofSeconds(2));
+
+        // then
+        assertEquals(VerificationStatus.PASS, resp.status());
+        assertEquals(3, server.getRequestCount());
+    }
+
+    @Test
+    void shouldNotRetry_clientErrors() {
+        // given
+        var client = client(calls(limiter(10, 60_000), retries(3, 0.1)));
+        server.enqueue(new MockResponse().setResponseCode(400));
+        server.enqueue(pass());
+
+        // when
+        var resp = client.verify(req("d1")).block(Duration.ofSeconds(2));
+
+        // then
+        assertEquals(VerificationStatus.FAIL, resp.status());
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    void shouldStopRetrying_whenRetryBudgetIsSpent() {
+        // given — the budget starts with 10 retries and earns none back
+        var client = client(calls(limiter(100, 60_000), retries(2, 0)));
+        for (int i = 0; i < 22; i++) {
+            server.enqueue(new MockResponse().setResponseCode(503));
+        }
+
+        // when
+        for (int i = 0; i < 11; i++) {
+            client.verify(req("d" + i)).block(Duration.ofSeconds(2));
+        }
+
+        // then — 11 calls, 10 retries
+        assertEquals(21, server.getRequestCount());
+    }
+
+    @Test
+    void shouldNotRetry_withoutRateLimitPermit() {
+        // given
+        var client = client(calls(limiter(1, 60_000), retries(3, 0.1)));
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(pass());
+
+        // when
+        var resp = client.verify(req("d1")).block(Duration.ofSeconds(2));
+
+        // then
+        assertEquals(VerificationStatus.MANUAL_REVIEW, resp.status());
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    void shouldReusePassResult_forSameCustomerAndDocument_whenCacheEnabled() {
+        // given
+        var cache = new ResultCacheProperties();
+        cache.getDocument().setEnabled(true);
+        var client = new DocumentVerificationClient(
+                WebClient.builder(),
+                calls(limiter(10, 60_000)),
+                cache,
+                new SimpleMeterRegistry(),
+                server.url("/").toString(),
+                Duration.ofSeconds(1)
+        );
+        server.enqueue(pass());
+        server.enqueue(pass());
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setResponseCode(503));
+
+        // when
+        client.verify(req("c1")).block();
+        var resumed = client.verify(new DocumentVerificationRequest(
+                "c1", "passport", "a123-4567", "2030-01-01", "https://cdn/doc.jpg")).block();
+        var otherCustomer = client.verify(req("c2")).block();
+
+        // then
+        assertEquals(VerificationStatus.PASS, resumed.status());
+        assertEquals(VerificationStatus.PASS, otherCustomer.status());
+        assertEquals(2, server.getRequestCount());
+
+        // when — a failure is never reused
+        var newDocument = new DocumentVerificationRequest("c3", "PASSPORT", "B7654321", "2030-01-01", "https://cdn/b.jpg");
+        client.verify(newDocument).block();
+        var retried = client.verify(newDocument).block();
+
+        // then
+        assertEquals(VerificationStatus.FAIL, retried.status());
+        assertEquals(4, server.getRequestCount());
+    }
 }
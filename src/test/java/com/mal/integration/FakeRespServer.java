@@ -0,0 +1,143 @@
+package com.mal.integration;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in for a Redis server: speaks RESP2 and implements the handful of commands the
+ * rate limiter uses (INCRBY, DECRBY, GET, PEXPIRE, PING) over an in-memory map.
+ */
+class FakeRespServer implements Closeable {
+
+    private final ServerSocket server;
+    private final Map<String, Long> values = new ConcurrentHashMap<>();
+    private final AtomicInteger commands = new AtomicInteger();
+    private volatile boolean failing;
+
+    FakeRespServer() throws IOException {
+        server = new ServerSocket(0);
+        var acceptor = new Thread(this::accept, "fake-resp-server");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    int port() {
+        return server.getLocalPort();
+    }
+
+    int commands() {
+        return commands.get();
+    }
+
+    Long value(String key) {
+        return values.get(key);
+    }
+
+    void set(String key, long value) {
+        values.put(key, value);
+    }
+
+    // replies with an error to everything while set
+    void failing(boolean failing) {
+        this.failing = failing;
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+    }
+
+    private void accept() {
+        while (!server.isClosed()) {
+            try {
+                var socket = server.accept();
+                var handler = new Thread(() -> serve(socket), "fake-resp-connection");
+                handler.setDaemon(true);
+                handler.start();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket) {
+            var in = new BufferedInputStream(socket.getInputStream());
+            var out = socket.getOutputStream();
+            List<String> command;
+            while ((command = readCommand(in)) != null) {
+                commands.incrementAndGet();
+                reply(out, command);
+                out.flush();
+            }
+        } catch (IOException ignored) {
+            // client went away
+        }
+    }
+
+    private void reply(OutputStream out, List<String> command) throws IOException {
+        if (failing) {
+            write(out, "-ERR unavailable\r\n");
+            return;
+        }
+        switch (command.get(0).toUpperCase()) {
+            case "PING" -> write(out, "+PONG\r\n");
+            case "INCRBY" -> write(out, ":" + values.merge(command.get(1), Long.parseLong(command.get(2)), Long::sum) + "\r\n");
+            case "DECRBY" -> write(out, ":" + values.merge(command.get(1), -Long.parseLong(command.get(2)), Long::sum) + "\r\n");
+            case "PEXPIRE" -> write(out, ":" + (values.containsKey(command.get(1)) ? 1 : 0) + "\r\n");
+            case "GET" -> {
+                var value = values.get(command.get(1));
+                if (value == null) {
+                    write(out, "$-1\r\n");
+                } else {
+                    var text = value.toString();
+                    write(out, "$" + text.length() + "\r\n" + text + "\r\n");
+                }
+            }
+            default -> write(out, "-ERR unknown command '" + command.get(0) + "'\r\n");
+        }
+    }
+
+    private static List<String> readCommand(InputStream in) throws IOException {
+        var header = readLine(in);
+        if (header == null) {
+            return null;
+        }
+        int count = Integer.parseInt(header.substring(1));
+        var args = new ArrayList<String>(count);
+        for (int i = 0; i < count; i++) {
+            int length = Integer.parseInt(readLine(in).substring(1));
+            args.add(new String(in.readNBytes(length), StandardCharsets.UTF_8));
+            readLine(in);
+        }
+        return args;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        var sb = new StringBuilder();
+        int c;
+        while ((c = in.read()) != '\r') {
+            if (c == -1) {
+                return null;
+            }
+            sb.append((char) c);
+        }
+        in.read();
+        return sb.toString();
+    }
+
+    private static void write(OutputStream out, String reply) throws IOException {
+        out.write(reply.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,51 @@
+package com.mal.integration;
+
+import com.mal.config.HedgingProperties;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HedgingTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private Hedging hedging(double maxRatio) {
+        var policy = new HedgingProperties.Policy();
+        policy.setEnabled(true);
+        policy.setInitialDelay(Duration.ofMillis(20));
+        policy.setMaxRatio(maxRatio);
+        return new Hedging(Provider.DOCUMENT, policy, Timer.builder("test").register(registry), registry);
+    }
+
+    private static Mono<String> slow(String value) {
+        return Mono.delay(Duration.ofMillis(200)).map(tick -> value);
+    }
+
+    private double hedges(String outcome) {
+        var counter = registry.find("kyc.hedge.total").tag("outcome", outcome).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    @Test
+    void apply_shouldNotSpendBudgetOrCountHedge_whenNoPermitIsGranted() {
+        // given — 0.6 of a token per call: the second call can afford one hedge, but has no permit
+        var hedging = hedging(0.6);
+        hedging.apply(slow("primary"), () -> Mono.just("hedge"), Deadline.none()).block();
+
+        // when
+        var limited = hedging.apply(slow("primary"), () -> null, Deadline.none()).block();
+        var hedged = hedging.apply(slow("primary"), () -> Mono.just("hedge"), Deadline.none()).block();
+
+        // then
+        assertEquals("primary", limited);
+        assertEquals("hedge", hedged);
+        assertEquals(1.0, hedges("rate_limited"));
+        assertEquals(1.0, hedges("sent"));
+        assertEquals(1.0, hedges("budget_exhausted"));
+    }
+}
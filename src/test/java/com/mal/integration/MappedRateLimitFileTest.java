@@ -0,0 +1,63 @@
+package com.mal.integration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MappedRateLimitFileTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void limiter_shouldShareBucket_acrossSeparateMappings() throws Exception {
+        // given — two mappings of the same file, as two JVMs on the host would have
+        var path = dir.resolve("rate-limit.bin");
+        try (var first = new MappedRateLimitFile(path); var second = new MappedRateLimitFile(path)) {
+            var a = first.limiter(Provider.DOCUMENT, 3, Duration.ofMinutes(1), 3);
+            var b = second.limiter(Provider.DOCUMENT, 3, Duration.ofMinutes(1), 3);
+
+            // when
+            assertTrue(a.tryAcquire());
+            assertTrue(b.tryAcquire());
+            assertTrue(a.tryAcquire());
+
+            // then
+            assertFalse(b.tryAcquire());
+            assertFalse(a.tryAcquire());
+        }
+    }
+
+    @Test
+    void limiter_shouldKeepProvidersInSeparateSlots() throws Exception {
+        // given
+        try (var file = new MappedRateLimitFile(dir.resolve("rate-limit.bin"))) {
+            var document = file.limiter(Provider.DOCUMENT, 1, Duration.ofMinutes(1), 1);
+            var sanctions = file.limiter(Provider.SANCTIONS, 1, Duration.ofMinutes(1), 1);
+
+            // when
+            assertTrue(document.tryAcquire());
+
+            // then
+            assertFalse(document.tryAcquire());
+            assertTrue(sanctions.tryAcquire());
+        }
+    }
+
+    @Test
+    void shouldRefuseFile_thatIsNotARateLimitFile() throws Exception {
+        // given
+        var path = dir.resolve("other.bin");
+        Files.write(path, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+
+        // when / then
+        assertThrows(IllegalStateException.class, () -> new MappedRateLimitFile(path));
+    }
+}
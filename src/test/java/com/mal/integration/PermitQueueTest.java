@@ -0,0 +1,209 @@
+package com.mal.integration;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PermitQueueTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    // one permit per 100ms, no burst
+    private final TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, Duration.ofMillis(100), 1);
+
+    private PermitQueue queue(boolean queueing, int maxDepth) {
+        return new PermitQueue(Provider.DOCUMENT, limiter, queueing, maxDepth, Duration.ofSeconds(5), 0, registry);
+    }
+
+    private double outcome(String outcome) {
+        return registry.counter("kyc.ratelimit.admission",
+                "provider", "document", "priority", "interactive", "outcome", outcome).count();
+    }
+
+    @Test
+    void acquire_shouldCompleteEmptyImmediately_whenQueueingDisabled() {
+        // given
+        var queue = queue(false, 10);
+        assertNotNull(queue.tryAcquire(Priority.INTERACTIVE));
+
+        // when
+        var permit = queue.acquire(Deadline.none(), Priority.INTERACTIVE).block(Duration.ofMillis(50));
+
+        // then
+        assertNull(permit);
+        assertEquals(1, outcome("rejected"));
+    }
+
+    @Test
+    void acquire_shouldWaitForNextPermit_whenBucketIsEmpty() {
+        // given
+        var queue = queue(true, 10);
+        assertNotNull(queue.tryAcquire(Priority.INTERACTIVE));
+
+        // when
+        var start = System.nanoTime();
+        var permit = queue.acquire(Deadline.none(), Priority.INTERACTIVE).block(Duration.ofSeconds(1));
+        var waited = Duration.ofNanos(System.nanoTime() - start);
+
+        // then
+        assertNotNull(permit);
+        assertTrue(waited.compareTo(Duration.ofMillis(50)) > 0, waited.toString());
+        assertEquals(1, outcome("queued"));
+    }
+
+    @Test
+    void acquire_shouldGrantPermitsInArrivalOrder() {
+        // given
+        var queue = queue(true, 10);
+        assertNotNull(queue.tryAcquire(Priority.INTERACTIVE));
+        List<Integer> order = new CopyOnWriteArrayList<>();
+
+        // when
+        var first = queue.acquire(Deadline.none(), Priority.INTERACTIVE).doOnNext(p -> order.add(1));
+        var second = queue.acquire(Deadline.none(), Priority.INTERACTIVE).doOnNext(p -> order.add(2));
+        var third = queue.acquire(Deadline.none(), Priority.INTERACTIVE).doOnNext(p -> order.add(3));
+        var all = Flux.merge(first, second, third).collectList().block(Duration.ofSeconds(2));
+
+        // then
+        assertEquals(3, all.size());
+        assertEquals(List.of(1, 2, 3), order);
+    }
+
+    @Test
+    void acquire_shouldTurnCallerAway_whenQueueIsFull() {
+        // given
+        var queue = queue(true, 1);
+        assertNotNull(queue.tryAcquire(Priority.INTERACTIVE));
+        var waiting = queue.acquire(Deadline.none(), Priority.INTERACTIVE).subscribe();
+
+        // when
+        var permit = queue.acquire(Deadline.none(), Priority.INTERACTIVE).block(Duration.ofMillis(50));
+
+        // then
+        assertNull(permit);
+        assertEquals(1, outcome("queue_full"));
+        waiting.dispose();
+    }
+
+    @Test
+    void acquire_shouldTurnCallerAway_whenTurnComesAfterDeadline() {
+        // given
+        var queue = queue(true, 10);
+        assertNotNull(queue.tryAcquire(Priority.INTERACTIVE));
+
+        // when
+        var permit = queue.acquire(Deadline.after(Duration.ofMillis(20)), Priority.INTERACTIVE).block(Duration.ofMillis(50));
+
+        // then
+        assertNull(permit);
+        assertEquals(1, outcome("wait_exceeds_deadline"));
+    }
+
+    @Test
+    void acquire_shouldLeaveQueue_whenWaiterCancels() {
+        // given
+        var queue = queue(true, 10);
+        assertNotNull(queue.tryAcquire(Priority.INTERACTIVE));
+
+        // when
+        queue.acquire(Deadline.none(), Priority.INTERACTIVE).subscribe().dispose();
+
+        // then
+        assertEquals(0, registry.get("kyc.ratelimit.queue.depth").tag("priority", "interactive").gauge().value());
+        assertNotNull(queue.acquire(Deadline.none(), Priority.INTERACTIVE).block(Duration.ofSeconds(1)));
+    }
+
+    @Test
+    void tryAcquire_shouldNotJumpTheQueue() {
+        // given
+        var queue = queue(true, 10);
+        assertNotNull(queue.tryAcquire(Priority.INTERACTIVE));
+        var waiting = queue.acquire(Deadline.none(), Priority.INTERACTIVE).subscribe();
+
+        // when / then
+        assertNull(queue.tryAcquire(Priority.INTERACTIVE));
+        waiting.dispose();
+    }
+
+    @Test
+    void release_shouldHandPermitToNextWaiter() {
+        // given
+        var queue = queue(true, 10);
+        var held = queue.tryAcquire(Priority.INTERACTIVE);
+        var granted = queue.acquire(Deadline.none(), Priority.INTERACTIVE).toFuture();
+        assertFalse(granted.isDone());
+
+        // when
+        held.releaseIfUnsent();
+
+        // then
+        assertTrue(granted.isDone());
+    }
+
+    @Test
+    void tryAcquire_shouldKeepReservedPermits_fromBackgroundCalls() {
+        // given
+        var limiter = new TokenBucketRateLimiter(3, Duration.ofMinutes(1), 3);
+        var queue = new PermitQueue(Provider.DOCUMENT, limiter, false, 10, Duration.ofSeconds(5), 2, registry);
+
+        // when
+        var background = List.of(
+                queue.tryAcquire(Priority.BACKGROUND) != null,
+                queue.tryAcquire(Priority.BACKGROUND) != null);
+
+        // then
+        assertEquals(List.of(true, false), background);
+        assertNotNull(queue.tryAcquire(Priority.INTERACTIVE));
+        assertNotNull(queue.tryAcquire(Priority.INTERACTIVE));
+    }
+
+    @Test
+    void acquire_shouldServeInteractiveWaitersBeforeBackground() {
+        // given — a slow refill, so both callers are queued before the next permit
+        var slow = new TokenBucketRateLimiter(1, Duration.ofMillis(500), 1);
+        var queue = new PermitQueue(Provider.DOCUMENT, slow, true, 10, Duration.ofSeconds(5), 0, registry);
+        assertNotNull(queue.tryAcquire(Priority.INTERACTIVE));
+        List<Priority> order = new CopyOnWriteArrayList<>();
+
+        // when — background queued first
+        var background = queue.acquire(Deadline.none(), Priority.BACKGROUND)
+                .doOnNext(p -> order.add(Priority.BACKGROUND));
+        var interactive = queue.acquire(Deadline.none(), Priority.INTERACTIVE)
+                .doOnNext(p -> order.add(Priority.INTERACTIVE));
+        Flux.merge(background, interactive).collectList().block(Duration.ofSeconds(2));
+
+        // then
+        assertEquals(List.of(Priority.INTERACTIVE, Priority.BACKGROUND), order);
+    }
+
+    @Test
+    void acquire_shouldWakeInteractiveWaiter_whenBackgroundQueuedFirstOnDrainedBucket() {
+        // given — 10/s with 5 reserved: the next interactive permit is ~100ms away, a background one ~600ms
+        var limiter = new TokenBucketRateLimiter(10, Duration.ofSeconds(1), 10);
+        var queue = new PermitQueue(Provider.DOCUMENT, limiter, true, 10, Duration.ofSeconds(5), 5, registry);
+        for (int i = 0; i < 10; i++) {
+            assertNotNull(queue.tryAcquire(Priority.INTERACTIVE));
+        }
+
+        // when — background queued first
+        var start = System.nanoTime();
+        var background = queue.acquire(Deadline.none(), Priority.BACKGROUND).toFuture();
+        var permit = queue.acquire(Deadline.none(), Priority.INTERACTIVE).block(Duration.ofSeconds(2));
+        var waited = Duration.ofNanos(System.nanoTime() - start);
+
+        // then
+        assertNotNull(permit);
+        assertTrue(waited.compareTo(Duration.ofMillis(350)) < 0, waited.toString());
+        assertNotNull(background.join());
+    }
+}
@@ -0,0 +1,76 @@
+package com.mal.integration;
+
+import com.mal.config.RateLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProviderRateLimitersTest {
+
+    private RateLimitProperties props(int limit) {
+        var p = new RateLimitProperties();
+        p.setLimit(limit);
+        p.setWindowMillis(60_000);
+        return p;
+    }
+
+    @Test
+    void shouldKeepSeparateQuota_perProvider() {
+        // given
+        var limiters = new ProviderRateLimiters(props(1), new SimpleMeterRegistry());
+
+        // when
+        assertTrue(limiters.forProvider(Provider.DOCUMENT).tryAcquire());
+        assertFalse(limiters.forProvider(Provider.DOCUMENT).tryAcquire());
+
+        // then
+        assertTrue(limiters.forProvider(Provider.BIOMETRIC).tryAcquire());
+        assertTrue(limiters.forProvider(Provider.ADDRESS).tryAcquire());
+        assertTrue(limiters.forProvider(Provider.SANCTIONS).tryAcquire());
+    }
+
+    @Test
+    void shouldApplyProviderOverride_overDefaults() {
+        // given
+        var props = props(1);
+        props.getSanctions().setLimit(3);
+
+        // when
+        var limiters = new ProviderRateLimiters(props, new SimpleMeterRegistry());
+
+        // then
+        var sanctions = limiters.forProvider(Provider.SANCTIONS);
+        assertTrue(sanctions.tryAcquire());
+        assertTrue(sanctions.tryAcquire());
+        assertTrue(sanctions.tryAcquire());
+        assertFalse(sanctions.tryAcquire());
+
+        var document = limiters.forProvider(Provider.DOCUMENT);
+        assertTrue(document.tryAcquire());
+        assertFalse(document.tryAcquire());
+    }
+
+    @Test
+    void shouldShareBuckets_whenBackendIsMappedFile(@TempDir Path dir) throws Exception {
+        // given
+        var props = props(1);
+        props.setBackend(RateLimitProperties.Backend.MAPPED_FILE);
+        props.getMappedFile().setPath(dir.resolve("rate-limit.bin").toString());
+
+        var first = new ProviderRateLimiters(props, new SimpleMeterRegistry());
+        var second = new ProviderRateLimiters(props, new SimpleMeterRegistry());
+
+        // when
+        assertTrue(first.forProvider(Provider.ADDRESS).tryAcquire());
+
+        // then
+        assertFalse(second.forProvider(Provider.ADDRESS).tryAcquire());
+        first.destroy();
+        second.destroy();
+    }
+}
@@ -0,0 +1,93 @@
+package com.mal.integration;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@code tryAcquire} with 8 threads hitting one limiter, against the synchronized
+ * fixed window it replaced. Compare against a single thread with
+ * {@code mvn -Pbench test-compile exec:exec -Dbench="RateLimiterContention -t 1"}; the scaling only
+ * shows on a machine with at least as many cores as threads.
+ *
+ * <p>{@code unlimited} keeps both limiters granting, so every call writes the shared state.
+ * {@code saturated} is a real quota under overload: nearly every call is turned away, which the
+ * bucket does with a read and no write.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class RateLimiterContentionBenchmark {
+
+    @Param({"unlimited", "saturated"})
+    String quota;
+
+    private TokenBucketRateLimiter tokenBucket;
+    private SynchronizedFixedWindow fixedWindow;
+
+    @Setup
+    public void setup() {
+        int limit = quota.equals("unlimited") ? Integer.MAX_VALUE : 100;
+        var window = quota.equals("unlimited") ? Duration.ofNanos(limit) : Duration.ofSeconds(1);
+        tokenBucket = new TokenBucketRateLimiter(limit, window, limit);
+        fixedWindow = new SynchronizedFixedWindow(limit, window.toMillis());
+    }
+
+    @Benchmark
+    public boolean tokenBucket() {
+        return tokenBucket.tryAcquire();
+    }
+
+    @Benchmark
+    public boolean synchronizedFixedWindow() {
+        return fixedWindow.tryAcquire();
+    }
+
+    /**
+     * The previous SimpleRateLimiter, kept as the baseline.
+     */
+    static final class SynchronizedFixedWindow {
+
+        private final int limit;
+        private final long windowMillis;
+
+        private int used = 0;
+        private long windowStart = System.currentTimeMillis();
+
+        SynchronizedFixedWindow(int limit, long windowMillis) {
+            this.limit = limit;
+            this.windowMillis = windowMillis;
+        }
+
+        synchronized boolean tryAcquire() {
+            long now = System.currentTimeMillis();
+
+            if (now - windowStart > windowMillis) {
+                windowStart = now;
+                used = 0;
+            }
+
+            if (used < limit) {
+                used++;
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.mal.integration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RedisRateLimiterTest {
+
+    private FakeRespServer server;
+    private RespClient client;
+    private ExecutorService leases;
+
+    // start of a window, so the previous window carries no weight
+    private final AtomicLong now = new AtomicLong(60_000 * 1_000L);
+
+    @BeforeEach
+    void setup() throws IOException {
+        server = new FakeRespServer();
+        client = new RespClient("localhost", server.port(), Duration.ofSeconds(1));
+        leases = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    void teardown() throws Exception {
+        leases.shutdownNow();
+        client.close();
+        server.close();
+    }
+
+    private RedisRateLimiter limiter(int limit, int leaseSize) {
+        return new RedisRateLimiter(Provider.SANCTIONS, client, leases, "kyc:rl",
+                limit, Duration.ofMinutes(1), leaseSize, now::get);
+    }
+
+    private boolean acquire(RedisRateLimiter limiter) throws Exception {
+        // the first call may only trigger the background lease
+        return eventually(limiter::tryAcquire);
+    }
+
+    private static boolean eventually(BooleanSupplier condition) throws Exception {
+        var until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(300);
+        while (System.nanoTime() < until) {
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+            Thread.sleep(5);
+        }
+        return false;
+    }
+
+    @Test
+    void tryAcquire_shouldServePermitsFromLease_withoutRoundTripPerCall() throws Exception {
+        // given
+        var limiter = limiter(20, 10);
+        limiter.prefetch();
+
+        // when
+        var granted = 0;
+        for (int i = 0; i < 3; i++) {
+            if (acquire(limiter)) {
+                granted++;
+            }
+        }
+
+        // then — one INCRBY/PEXPIRE/GET pipeline covers three permits
+        assertEquals(3, granted);
+        assertEquals(3, server.commands());
+        assertEquals(10, server.value("kyc:rl:sanctions:1000"));
+    }
+
+    @Test
+    void tryAcquire_shouldShareLimitAcrossInstances() throws Exception {
+        // given — two instances against the same server
+        var first = limiter(4, 2);
+        var second = limiter(4, 2);
+
+        // when
+        var granted = 0;
+        while (acquire(first)) {
+            granted++;
+        }
+        while (acquire(second)) {
+            granted++;
+        }
+
+        // then
+        assertEquals(4, granted);
+        assertEquals(4, server.value("kyc:rl:sanctions:1000"));
+    }
+
+    @Test
+    void tryAcquire_shouldCountPreviousWindow_slidingOverBoundary() throws Exception {
+        // given — the previous window used the whole limit, and we are a quarter into this one
+        server.set("kyc:rl:sanctions:999", 4);
+        now.addAndGet(15_000);
+        var limiter = limiter(4, 4);
+
+        // when
+        var granted = 0;
+        for (int i = 0; i < 4; i++) {
+            if (acquire(limiter)) {
+                granted++;
+            }
+        }
+
+        // then — 4 * 0.75 still counts against this window
+        assertEquals(1, granted);
+        assertEquals(1, server.value("kyc:rl:sanctions:1000"));
+    }
+
+    @Test
+    void tryAcquire_shouldFailClosed_whenServerErrors() throws Exception {
+        // given
+        server.failing(true);
+        var limiter = limiter(10, 2);
+
+        // when
+        var acquired = acquire(limiter);
+
+        // then
+        assertFalse(acquired);
+    }
+
+    @Test
+    void release_shouldReturnPermitToLocalPool() throws Exception {
+        // given
+        var limiter = limiter(1, 1);
+        assertTrue(acquire(limiter));
+
+        // when
+        limiter.release();
+
+        // then
+        assertTrue(limiter.tryAcquire());
+        assertFalse(acquire(limiter));
+    }
+}
@@ -0,0 +1,76 @@
+package com.mal.integration;
+
+import com.mal.config.RetryProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RetryingTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private Retrying retrying(RetryProperties props) {
+        return new Retrying(Provider.DOCUMENT, props, registry);
+    }
+
+    @Test
+    void delay_shouldGrowExponentially_upToMaxBackoff() {
+        // given
+        var props = new RetryProperties();
+        props.setBackoff(Duration.ofMillis(100));
+        props.setMaxBackoff(Duration.ofMillis(300));
+        props.setJitter(0);
+        var retrying = retrying(props);
+
+        // then
+        assertEquals(Duration.ofMillis(100), retrying.delay(0));
+        assertEquals(Duration.ofMillis(200), retrying.delay(1));
+        assertEquals(Duration.ofMillis(300), retrying.delay(2));
+        assertEquals(Duration.ofMillis(300), retrying.delay(40));
+    }
+
+    @Test
+    void delay_shouldBeShortenedByJitter() {
+        // given
+        var props = new RetryProperties();
+        props.setBackoff(Duration.ofMillis(100));
+        props.setJitter(0.5);
+        var retrying = retrying(props);
+
+        // then
+        for (int i = 0; i < 100; i++) {
+            var delay = retrying.delay(0);
+            assertTrue(delay.compareTo(Duration.ofMillis(50)) >= 0 && delay.compareTo(Duration.ofMillis(100)) <= 0,
+                    delay.toString());
+        }
+    }
+
+    @Test
+    void apply_shouldGiveUp_whenBackoffWouldPassDeadline() {
+        // given
+        var props = new RetryProperties();
+        props.setBackoff(Duration.ofSeconds(1));
+        props.setJitter(0);
+        var attempts = new AtomicInteger();
+        var attempt = Mono.<String>defer(() -> {
+            attempts.incrementAndGet();
+            return Mono.error(new TimeoutException());
+        });
+
+        // when
+        var result = retrying(props).apply(attempt, () -> attempt, Deadline.after(Duration.ofMillis(500)));
+
+        // then
+        assertThrows(Exception.class, () -> result.block(Duration.ofSeconds(2)));
+        assertEquals(1, attempts.get());
+        assertEquals(1.0, registry.counter("kyc.retry.total", "provider", "document", "outcome", "deadline").count());
+    }
+}
@@ -0,0 +1,151 @@
+package com.mal.integration;
+
+import com.mal.config.BatchingProperties;
+import com.mal.integration.dto.SanctionsBulkRequest;
+import com.mal.integration.dto.SanctionsBulkResponse;
+import com.mal.integration.dto.SanctionsRequest;
+import com.mal.integration.dto.SanctionsResponse;
+import com.mal.integration.dto.SanctionsStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SanctionsBatcherTest {
+
+    private static final SanctionsResponse FALLBACK = new SanctionsResponse(SanctionsStatus.HIT, 0, null);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final List<SanctionsBulkRequest> sent = new CopyOnWriteArrayList<>();
+
+    private SanctionsBatcher batcher(int maxSize, Duration maxWait,
+                                     Function<SanctionsBulkRequest, Mono<SanctionsBulkResponse>> bulk) {
+        var policy = new BatchingProperties.Policy();
+        policy.setMaxSize(maxSize);
+        policy.setMaxWait(maxWait);
+        return new SanctionsBatcher(policy, request -> {
+            sent.add(request);
+            return bulk.apply(request);
+        }, FALLBACK, registry);
+    }
+
+    // answers each check with CLEAR and the check's customerId as the match count
+    private static Mono<SanctionsBulkResponse> echo(SanctionsBulkRequest request) {
+        return Mono.just(new SanctionsBulkResponse(request.checks().stream()
+                .map(check -> new SanctionsResponse(SanctionsStatus.CLEAR, Integer.parseInt(check.customerId()), null))
+                .toList()));
+    }
+
+    private static SanctionsRequest req(int id) {
+        return new SanctionsRequest(String.valueOf(id), "Name " + id, "1990-01-01", "UK");
+    }
+
+    @Test
+    void shouldSendFullBatch_asOneBulkCall_andReturnEachCallerItsResult() {
+        // given
+        var batcher = batcher(3, Duration.ofSeconds(10), SanctionsBatcherTest::echo);
+
+        // when
+        var results = Flux.range(1, 3)
+                .flatMap(i -> batcher.check(req(i)))
+                .collectList()
+                .block(Duration.ofSeconds(1));
+
+        // then
+        assertEquals(1, sent.size());
+        assertEquals(3, sent.get(0).checks().size());
+        assertEquals(List.of(1, 2, 3), results.stream().map(SanctionsResponse::matchCount).sorted().toList());
+    }
+
+    @Test
+    void shouldSendPartialBatch_afterMaxWait() {
+        // given
+        var batcher = batcher(50, Duration.ofMillis(50), SanctionsBatcherTest::echo);
+
+        // when
+        var start = System.nanoTime();
+        var results = Flux.range(1, 2)
+                .flatMap(i -> batcher.check(req(i)))
+                .collectList()
+                .block(Duration.ofSeconds(1));
+        var elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        // then
+        assertEquals(2, results.size());
+        assertEquals(1, sent.size());
+        assertTrue(elapsed.compareTo(Duration.ofMillis(40)) >= 0, elapsed.toString());
+    }
+
+    @Test
+    void shouldFallBackForEveryCaller_whenBulkAnswerDoesNotMatchBatch() {
+        // given
+        var batcher = batcher(2, Duration.ofSeconds(10),
+                request -> Mono.just(new SanctionsBulkResponse(List.of(new SanctionsResponse(SanctionsStatus.CLEAR, 0, null)))));
+
+        // when
+        var results = Flux.range(1, 2)
+                .flatMap(i -> batcher.check(req(i)))
+                .collectList()
+                .block(Duration.ofSeconds(1));
+
+        // then
+        assertEquals(List.of(FALLBACK, FALLBACK), results);
+    }
+
+    @Test
+    void shouldRunBulkCall_underLoosestDeadline_andInteractiveIfAnyCallerIs() {
+        // given
+        var deadline = new AtomicReference<Deadline>();
+        var priority = new AtomicReference<Priority>();
+        var batcher = batcher(2, Duration.ofSeconds(10), request -> Mono.deferContextual(ctx -> {
+            deadline.set(Deadline.from(ctx));
+            priority.set(Priority.from(ctx));
+            return echo(request);
+        }));
+        var loose = Deadline.after(Duration.ofSeconds(30));
+
+        // when
+        Flux.merge(
+                        batcher.check(req(1)).contextWrite(ctx -> Priority.BACKGROUND.writeTo(loose.writeTo(ctx))),
+                        batcher.check(req(2)).contextWrite(ctx -> Priority.INTERACTIVE.writeTo(Deadline.after(Duration.ofMillis(500)).writeTo(ctx))))
+                .collectList()
+                .block(Duration.ofSeconds(1));
+
+        // then
+        assertEquals(loose, deadline.get());
+        assertEquals(Priority.INTERACTIVE, priority.get());
+        assertEquals(2.0, registry.get("kyc.sanctions.batch.size").summary().totalAmount());
+    }
+
+    @Test
+    void shouldFallBackOnlyForShortDeadlineCaller_whenBulkCallOutlastsIt() {
+        // given — the bulk call gives up at its deadline, as ProviderCall does
+        var batcher = batcher(2, Duration.ofSeconds(10), request -> Mono.deferContextual(ctx -> echo(request)
+                .delayElement(Duration.ofMillis(200))
+                .timeout(Deadline.from(ctx).remaining())
+                .onErrorReturn(new SanctionsBulkResponse(List.of()))));
+
+        // when
+        var results = Flux.merge(
+                        batcher.check(req(1)).contextWrite(ctx -> Deadline.after(Duration.ofMillis(100)).writeTo(ctx)),
+                        batcher.check(req(2)).contextWrite(ctx -> Deadline.after(Duration.ofSeconds(30)).writeTo(ctx)))
+                .collectList()
+                .block(Duration.ofSeconds(1));
+
+        // then
+        assertEquals(1, sent.size());
+        assertEquals(2, sent.get(0).checks().size());
+        assertEquals(2, results.size());
+        assertTrue(results.contains(FALLBACK));
+        assertTrue(results.contains(new SanctionsResponse(SanctionsStatus.CLEAR, 2, null)));
+    }
+}
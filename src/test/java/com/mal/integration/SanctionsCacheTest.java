@@ -0,0 +1,139 @@
+package com.mal.integration;
+
+import com.mal.config.ResultCacheProperties;
+import com.mal.integration.dto.SanctionsRequest;
+import com.mal.integration.dto.SanctionsResponse;
+import com.mal.integration.dto.SanctionsStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class SanctionsCacheTest {
+
+    private static final SanctionsResponse CLEAR = new SanctionsResponse(SanctionsStatus.CLEAR, 0, null);
+    private static final SanctionsResponse HIT = new SanctionsResponse(SanctionsStatus.HIT, 1, null);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SanctionsCache cache = new SanctionsCache(new ResultCacheProperties.Policy(), registry);
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private SanctionsResponse check(SanctionsRequest request, SanctionsResponse answer) {
+        return cache.check(request, () -> Mono.fromSupplier(() -> {
+            calls.incrementAndGet();
+            return answer;
+        })).block();
+    }
+
+    private static SanctionsRequest request(String name) {
+        return new SanctionsRequest("c1", name, "1990-01-01", "UK");
+    }
+
+    @Test
+    void fingerprint_shouldIgnoreCaseAccentsPunctuationAndSpacing() {
+        // then
+        assertEquals(
+                SanctionsCache.fingerprint(new SanctionsRequest("a", "José  O'Brien", "1990-01-01", "uk")),
+                SanctionsCache.fingerprint(new SanctionsRequest("b", "JOSE O BRIEN ", "1990/01/01", " UK")));
+        assertNotEquals(
+                SanctionsCache.fingerprint(request("Jose Obrien")),
+                SanctionsCache.fingerprint(new SanctionsRequest("a", "Jose Obrien", "1990-01-02", "UK")));
+    }
+
+    @Test
+    void shouldCacheClear_andCountQuotaSaved() {
+        // when
+        check(request("John Doe"), CLEAR);
+        var second = check(request("john doe"), HIT);
+
+        // then
+        assertEquals(CLEAR, second);
+        assertEquals(1, calls.get());
+        assertEquals(1.0, registry.counter("kyc.cache.quota.saved", "provider", "sanctions").count());
+        assertEquals(0.5, registry.get("kyc.cache.hit.ratio").tag("cache", "sanctions").gauge().value());
+    }
+
+    @Test
+    void shouldNeverCacheHit() {
+        // when
+        check(request("John Doe"), HIT);
+        var second = check(request("John Doe"), CLEAR);
+
+        // then
+        assertEquals(CLEAR, second);
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void shouldDropEntries_whenWatchlistVersionChanges() {
+        // given
+        cache.onWatchlistVersion("v1");
+        check(request("John Doe"), CLEAR);
+
+        // when
+        cache.onWatchlistVersion("v1");
+        check(request("John Doe"), CLEAR);
+        cache.onWatchlistVersion("v2");
+        check(request("John Doe"), CLEAR);
+
+        // then
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void shouldDropEntries_whenLocalWatchlistIsSwapped_independentlyOfProviderVersion() {
+        // given
+        cache.onWatchlistVersion("provider-v1");
+        cache.onLocalWatchlistVersion("local-v1");
+        check(request("John Doe"), CLEAR);
+
+        // when
+        cache.onWatchlistVersion("provider-v1");
+        check(request("John Doe"), CLEAR);
+        cache.onLocalWatchlistVersion("local-v2");
+        check(request("John Doe"), CLEAR);
+
+        // then
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void shouldNotStoreScreening_startedUnderPreviousVersion() {
+        // given
+        cache.onWatchlistVersion("v1");
+        var pending = Sinks.<SanctionsResponse>one();
+        var inFlight = cache.check(request("John Doe"), pending::asMono).toFuture();
+
+        // when
+        cache.onWatchlistVersion("v2");
+        pending.tryEmitValue(CLEAR);
+
+        // then
+        assertEquals(CLEAR, inFlight.join());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void shouldPassThrough_whenDisabled() {
+        // given
+        var policy = new ResultCacheProperties.Policy();
+        policy.setEnabled(false);
+        var disabled = new SanctionsCache(policy, new SimpleMeterRegistry());
+
+        // when
+        for (int i = 0; i < 2; i++) {
+            disabled.check(request("John Doe"), () -> Mono.fromSupplier(() -> {
+                calls.incrementAndGet();
+                return CLEAR;
+            })).block();
+        }
+
+        // then
+        assertEquals(2, calls.get());
+    }
+}
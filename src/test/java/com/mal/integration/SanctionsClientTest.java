@@ -1,17 +1,29 @@
 package com.mal.integration;
 
+import com.mal.config.BatchingProperties;
+import com.mal.config.CircuitBreakerProperties;
+import com.mal.config.HedgingProperties;
 import com.mal.config.RateLimitProperties;
+import com.mal.config.ResultCacheProperties;
+import com.mal.config.RetryProperties;
+import com.mal.config.WatchlistProperties;
 import com.mal.integration.dto.SanctionsRequest;
+import com.mal.integration.dto.SanctionsResponse;
 import com.mal.integration.dto.SanctionsStatus;
+import com.mal.screening.WatchlistScreening;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.time.Duration;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -31,11 +43,37 @@ class SanctionsClientTest {
         server.shutdown();
     }
 
-    private SimpleRateLimiter limiter(int limit, long windowMs) {
+    private ProviderRateLimiters limiter(int limit, long windowMs) {
         var p = new RateLimitProperties();
         p.setLimit(limit);
         p.setWindowMillis(windowMs);
-        return new SimpleRateLimiter(p);
+        return new ProviderRateLimiters(p, new SimpleMeterRegistry());
+    }
+
+    private ProviderCallFactory calls(ProviderRateLimiters limiter) {
+        var registry = new SimpleMeterRegistry();
+        return new ProviderCallFactory(
+                limiter,
+                new ProviderCircuitBreakers(new CircuitBreakerProperties(), registry),
+                new HedgingProperties(),
+                noRetries(),
+                registry);
+    }
+
+    private ResultCacheProperties noCache() {
+        var cache = new ResultCacheProperties();
+        cache.getSanctions().setEnabled(false);
+        return cache;
+    }
+
+    private WatchlistScreening noWatchlist() {
+        return new WatchlistScreening(new WatchlistProperties(), new SimpleMeterRegistry());
+    }
+
+    private RetryProperties noRetries() {
+        var retry = new RetryProperties();
+        retry.setAttempts(1);
+        return retry;
     }
 
     private SanctionsRequest req(String id) {
@@ -53,13 +91,18 @@ class SanctionsClientTest {
 
         var client = new SanctionsClient(
                 WebClient.builder(),
-                limiter(10, 60_000),
+                calls(limiter(10, 60_000)),
+                noCache(),
+                new BatchingProperties(),
+                noWatchlist(),
+                new SimpleMeterRegistry(),
                 server.url("/").toString(),
-                Duration.ofSeconds(1)
+                Duration.ofSeconds(1),
+                false
         );
 
         // when
-        var resp = client.check(req("c1"));
+        var resp = client.check(req("c1")).block();
 
         // then
         assertEquals(SanctionsStatus.CLEAR, resp.status());
@@ -77,13 +120,18 @@ class SanctionsClientTest {
 
         var client = new SanctionsClient(
                 WebClient.builder(),
-                limiter(10, 60_000),
+                calls(limiter(10, 60_000)),
+                noCache(),
+                new BatchingProperties(),
+                noWatchlist(),
+                new SimpleMeterRegistry(),
                 server.url("/").toString(),
-                Duration.ofMillis(300)
+                Duration.ofMillis(300),
+                false
         );
 
         // when
-        var resp = client.check(req("c1"));
+        var resp = client.check(req("c1")).block();
 
         // then
         assertEquals(SanctionsStatus.HIT, resp.status());
@@ -96,13 +144,18 @@ class SanctionsClientTest {
 
         var client = new SanctionsClient(
                 WebClient.builder(),
-                limiter(10, 60_000),
+                calls(limiter(10, 60_000)),
+                noCache(),
+                new BatchingProperties(),
+                noWatchlist(),
+                new SimpleMeterRegistry(),
                 server.url("/").toString(),
-                Duration.ofSeconds(1)
+                Duration.ofSeconds(1),
+                false
         );
 
         // when
-        var resp = client.check(req("c1"));
+        var resp = client.check(req("c1")).block();
 
         // then
         assertEquals(SanctionsStatus.HIT, resp.status());
@@ -113,19 +166,24 @@ class SanctionsClientTest {
         // given
         var client = new SanctionsClient(
                 WebClient.builder(),
-                limiter(1, 60_000),
+                calls(limiter(1, 60_000)),
+                noCache(),
+                new BatchingProperties(),
+                noWatchlist(),
+                new SimpleMeterRegistry(),
                 server.url("/").toString(),
-                Duration.ofSeconds(1)
+                Duration.ofSeconds(1),
+                false
         );
 
         server.enqueue(new MockResponse().setBody("""
                     {"status":"CLEAR","confidence":95,"reasons":[]}
                 """).addHeader("Content-Type", "application/json"));
 
-        client.check(req("c1"));
+        client.check(req("c1")).block();
 
         // when
-        var resp = client.check(req("c2"));
+        var resp = client.check(req("c2")).block();
 
         // then
         assertEquals(SanctionsStatus.HIT, resp.status());
@@ -136,18 +194,23 @@ class SanctionsClientTest {
         // given
         var client = new SanctionsClient(
                 WebClient.builder(),
-                limiter(1, 200),
+                calls(limiter(1, 200)),
+                noCache(),
+                new BatchingProperties(),
+                noWatchlist(),
+                new SimpleMeterRegistry(),
                 server.url("/").toString(),
-                Duration.ofSeconds(1)
+                Duration.ofSeconds(1),
+                false
         );
 
         server.enqueue(new MockResponse().setBody("""
                     {"status":"CLEAR","confidence":95,"reasons":[]}
                 """).addHeader("Content-Type", "application/json"));
 
-        client.check(req("c1"));
+        client.check(req("c1")).block();
 
-        var resp1 = client.check(req("c2"));
+        var resp1 = client.check(req("c2")).block();
         assertEquals(SanctionsStatus.HIT, resp1.status());
 
         Thread.sleep(250);
@@ -156,9 +219,234 @@ class SanctionsClientTest {
                     {"status":"CLEAR","confidence":95,"reasons":[]}
                 """).addHeader("Content-Type", "application/json"));
 
-        var resp2 = client.check(req("c3"));
+        var resp2 = client.check(req("c3")).block();
 
         // then
         assertEquals(SanctionsStatus.CLEAR, resp2.status());
     }
+
+    @Test
+    void shouldWaitForPermit_insteadOfHit_whenAdmissionQueues() {
+        // given
+        var props = new RateLimitProperties();
+        props.setLimit(1);
+        props.setWindowMillis(200);
+        props.setAdmission(RateLimitProperties.Admission.QUEUE);
+
+        var client = new SanctionsClient(
+                WebClient.builder(),
+                calls(new ProviderRateLimiters(props, new SimpleMeterRegistry())),
+                noCache(),
+                new BatchingProperties(),
+                noWatchlist(),
+                new SimpleMeterRegistry(),
+                server.url("/").toString(),
+                Duration.ofSeconds(1),
+                false
+        );
+
+        for (int i = 0; i < 2; i++) {
+            server.enqueue(new MockResponse().setBody("""
+                        {"status":"CLEAR","confidence":95,"reasons":[]}
+                    """).addHeader("Content-Type", "application/json"));
+        }
+
+        // when
+        var first = client.check(req("c1")).block();
+        var second = client.check(req("c2")).block(Duration.ofSeconds(1));
+
+        // then
+        assertEquals(SanctionsStatus.CLEAR, first.status());
+        assertEquals(SanctionsStatus.CLEAR, second.status());
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    void shouldHoldOffProvider_afterThrottledWithRetryAfter() {
+        // given
+        var props = new RateLimitProperties();
+        props.setLimit(10);
+        props.setWindowMillis(60_000);
+        props.getAdaptive().setEnabled(true);
+
+        var client = new SanctionsClient(
+                WebClient.builder(),
+                calls(new ProviderRateLimiters(props, new SimpleMeterRegistry())),
+                noCache(),
+                new BatchingProperties(),
+                noWatchlist(),
+                new SimpleMeterRegistry(),
+                server.url("/").toString(),
+                Duration.ofSeconds(1),
+                false
+        );
+
+        server.enqueue(new MockResponse().setResponseCode(429).addHeader("Retry-After", "30"));
+
+        // when
+        var throttled = client.check(req("c1")).block();
+        var held = client.check(req("c2")).block();
+
+        // then
+        assertEquals(SanctionsStatus.HIT, throttled.status());
+        assertEquals(SanctionsStatus.HIT, held.status());
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    void shouldFailFast_withoutCallingProvider_whenCircuitOpen() {
+        // given
+        var props = new CircuitBreakerProperties();
+        props.getSanctions().setWindowSize(2);
+        props.getSanctions().setMinimumCalls(2);
+        var registry = new SimpleMeterRegistry();
+
+        var client = new SanctionsClient(
+                WebClient.builder(),
+                new ProviderCallFactory(limiter(10, 60_000), new ProviderCircuitBreakers(props, registry),
+                        new HedgingProperties(), noRetries(), registry),
+                noCache(),
+                new BatchingProperties(),
+                noWatchlist(),
+                new SimpleMeterRegistry(),
+                server.url("/").toString(),
+                Duration.ofSeconds(1),
+                false
+        );
+
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setResponseCode(503));
+        client.check(req("c1")).block();
+        client.check(req("c2")).block();
+
+        // when
+        var resp = client.check(req("c3")).block();
+
+        // then
+        assertEquals(SanctionsStatus.HIT, resp.status());
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    void shouldServeRepeatedClearScreening_fromCache() {
+        // given
+        var cache = new ResultCacheProperties();
+        var client = new SanctionsClient(
+                WebClient.builder(),
+                calls(limiter(10, 60_000)),
+                cache,
+                new BatchingProperties(),
+                noWatchlist(),
+                new SimpleMeterRegistry(),
+                server.url("/").toString(),
+                Duration.ofSeconds(1),
+                false
+        );
+
+        server.enqueue(new MockResponse().setBody("""
+                    {"status":"CLEAR","confidence":95,"reasons":[]}
+                """).addHeader("Content-Type", "application/json").addHeader("X-Watchlist-Version", "v1"));
+        server.enqueue(new MockResponse().setBody("""
+                    {"status":"CLEAR","confidence":95,"reasons":[]}
+                """).addHeader("Content-Type", "application/json").addHeader("X-Watchlist-Version", "v2"));
+        server.enqueue(new MockResponse().setBody("""
+                    {"status":"HIT","matchCount":1}
+                """).addHeader("Content-Type", "application/json").addHeader("X-Watchlist-Version", "v2"));
+
+        // when
+        var first = client.check(req("c1")).block();
+        var retried = client.check(new SanctionsRequest("c2", "  JOHN  doe ", "10-10-2000", "usa")).block();
+
+        // then — second screening served from cache
+        assertEquals(SanctionsStatus.CLEAR, first.status());
+        assertEquals(SanctionsStatus.CLEAR, retried.status());
+        assertEquals(1, server.getRequestCount());
+
+        // when — another identity reports a new watchlist version
+        client.check(new SanctionsRequest("c3", "Jane Roe", "01-01-1990", "UK")).block();
+        var rescreened = client.check(req("c4")).block();
+
+        // then — the cached CLEAR was dropped and the hit comes back from the provider
+        assertEquals(SanctionsStatus.HIT, rescreened.status());
+        assertEquals(3, server.getRequestCount());
+    }
+
+    @Test
+    void shouldScreenConcurrentChecks_inOneBulkCall_usingOnePermit() throws Exception {
+        // given
+        var batching = new BatchingProperties();
+        batching.getSanctions().setEnabled(true);
+        batching.getSanctions().setMaxSize(3);
+
+        var client = new SanctionsClient(
+                WebClient.builder(),
+                calls(limiter(1, 60_000)),
+                noCache(),
+                batching,
+                noWatchlist(),
+                new SimpleMeterRegistry(),
+                server.url("/").toString(),
+                Duration.ofSeconds(1),
+                false
+        );
+
+        server.enqueue(new MockResponse().setBody("""
+                    {"results":[
+                      {"status":"CLEAR","matchCount":0},
+                      {"status":"HIT","matchCount":2},
+                      {"status":"CLEAR","matchCount":0}]}
+                """).addHeader("Content-Type", "application/json"));
+
+        // when
+        var results = Flux.merge(
+                        client.check(req("c1")),
+                        client.check(new SanctionsRequest("c2", "Jane Roe", "01-01-1990", "UK")).delaySubscription(Duration.ofMillis(5)),
+                        client.check(new SanctionsRequest("c3", "Max Mustermann", "02-02-1980", "DE")).delaySubscription(Duration.ofMillis(10)))
+                .collectList()
+                .block(Duration.ofSeconds(2));
+
+        // then
+        assertEquals(1, server.getRequestCount());
+        var recorded = server.takeRequest(1, TimeUnit.SECONDS);
+        assertEquals("/api/v1/check-sanctions/bulk", recorded.getPath());
+        assertEquals(List.of(SanctionsStatus.CLEAR, SanctionsStatus.CLEAR, SanctionsStatus.HIT),
+                results.stream().map(SanctionsResponse::status).sorted().toList());
+    }
+
+    @Test
+    void shouldClearLocally_onlyNamesWithoutWatchlistCandidates() throws Exception {
+        // given
+        var list = Files.createTempFile("watchlist", ".csv");
+        Files.writeString(list, "id,name\n1,John Doe\n");
+        var watchlist = new WatchlistProperties();
+        watchlist.setEnabled(true);
+        watchlist.setPath(list.toString());
+        watchlist.setClearLocally(true);
+
+        var client = new SanctionsClient(
+                WebClient.builder(),
+                calls(limiter(10, 60_000)),
+                noCache(),
+                new BatchingProperties(),
+                new WatchlistScreening(watchlist, new SimpleMeterRegistry()),
+                new SimpleMeterRegistry(),
+                server.url("/").toString(),
+                Duration.ofSeconds(1),
+                false
+        );
+
+        server.enqueue(new MockResponse().setBody("""
+                    {"status":"HIT","matchCount":1}
+                """).addHeader("Content-Type", "application/json"));
+
+        // when
+        var unrelated = client.check(new SanctionsRequest("c1", "Jane Roe", "01-01-1990", "UK")).block();
+        var candidate = client.check(new SanctionsRequest("c2", "Jon Doe", "10-10-2000", "USA")).block();
+
+        // then
+        assertEquals(SanctionsStatus.CLEAR, unrelated.status());
+        assertEquals(SanctionsStatus.HIT, candidate.status());
+        assertEquals(1, server.getRequestCount());
+        Files.delete(list);
+    }
 }
@@ -0,0 +1,82 @@
+package com.mal.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mal.integration.dto.SanctionsResponse;
+import com.mal.integration.dto.SanctionsStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding a sanctions response with {@code matches} entries, against the previous
+ * {@code List<Object>} model that built a map per match. Allocation per decode is the
+ * {@code gc.alloc.rate.norm} line of
+ * {@code mvn -Pbench test-compile exec:exec -Dbench="SanctionsDecode -prof gc"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SanctionsDecodeBenchmark {
+
+    @Param({"0", "20", "300"})
+    int matches;
+
+    private final ObjectMapper untyped = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectMapper skipping = Jackson2ObjectMapperBuilder.json()
+            .modulesToInstall(SanctionsResponseDeserializer.module(false)).build();
+    private final ObjectMapper typed = Jackson2ObjectMapperBuilder.json()
+            .modulesToInstall(SanctionsResponseDeserializer.module(true)).build();
+
+    private byte[] body;
+
+    @Setup
+    public void setup() {
+        var json = new StringBuilder("{\"status\":\"HIT\",\"matchCount\":").append(matches).append(",\"matches\":[");
+        for (int i = 0; i < matches; i++) {
+            json.append(i == 0 ? "" : ",").append("""
+                    {"id":"OFAC-%d","name":"Mohammed Ali Khan %d","list":"OFAC-SDN","score":0.%d,\
+                    "aliases":["Muhammad Ali Khan","M. A. Khan"],"dateOfBirth":"1970-01-%02d","nationality":"PK",\
+                    "programs":["SDGT","IRGC"],"remarks":"Listed under EO 13224; see entry %d for vessels"}"""
+                    .formatted(i, i, 50 + i % 50, 1 + i % 28, i));
+        }
+        body = json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public UntypedResponse untyped() throws IOException {
+        return untyped.readValue(body, UntypedResponse.class);
+    }
+
+    @Benchmark
+    public SanctionsResponse skipMatches() throws IOException {
+        return skipping.readValue(body, SanctionsResponse.class);
+    }
+
+    @Benchmark
+    public SanctionsResponse typedMatches() throws IOException {
+        return typed.readValue(body, SanctionsResponse.class);
+    }
+
+    /**
+     * The previous response model, kept as the baseline.
+     */
+    public record UntypedResponse(SanctionsStatus status, int matchCount, List<Object> matches) {
+    }
+}
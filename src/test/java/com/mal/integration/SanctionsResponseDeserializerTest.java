@@ -0,0 +1,68 @@
+package com.mal.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mal.integration.dto.SanctionsBulkResponse;
+import com.mal.integration.dto.SanctionsMatch;
+import com.mal.integration.dto.SanctionsResponse;
+import com.mal.integration.dto.SanctionsStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SanctionsResponseDeserializerTest {
+
+    private static final String BODY = """
+            {"matches":[
+               {"id":"OFAC-1","name":"John Doe","list":"OFAC-SDN","score":0.97,"aliases":["J. Doe"],"remarks":{"a":1}},
+               {"id":"UN-7","name":"Jon Doe","list":"UN","score":0.88}],
+             "requestId":"r1",
+             "status":"HIT",
+             "matchCount":2}
+            """;
+
+    private static ObjectMapper mapper(boolean keepMatches) {
+        return Jackson2ObjectMapperBuilder.json()
+                .modulesToInstall(SanctionsResponseDeserializer.module(keepMatches))
+                .build();
+    }
+
+    @Test
+    void shouldReadStatusAndCount_andSkipMatches_inAnyFieldOrder() throws IOException {
+        // when
+        var response = mapper(false).readValue(BODY, SanctionsResponse.class);
+
+        // then
+        assertEquals(SanctionsStatus.HIT, response.status());
+        assertEquals(2, response.matchCount());
+        assertNull(response.matches());
+    }
+
+    @Test
+    void shouldBindTypedMatches_whenKept() throws IOException {
+        // when
+        var response = mapper(true).readValue(BODY, SanctionsResponse.class);
+
+        // then
+        assertEquals(List.of(
+                new SanctionsMatch("OFAC-1", "John Doe", "OFAC-SDN", 0.97),
+                new SanctionsMatch("UN-7", "Jon Doe", "UN", 0.88)), response.matches());
+    }
+
+    @Test
+    void shouldReadEveryResultOfBulkResponse() throws IOException {
+        // when
+        var bulk = mapper(false).readValue("""
+                {"results":[{"status":"CLEAR","matchCount":0,"matches":[]},%s,{"status":"CLEAR"}]}
+                """.formatted(BODY), SanctionsBulkResponse.class);
+
+        // then
+        assertEquals(List.of(SanctionsStatus.CLEAR, SanctionsStatus.HIT, SanctionsStatus.CLEAR),
+                bulk.results().stream().map(SanctionsResponse::status).toList());
+        assertEquals(2, bulk.results().get(1).matchCount());
+    }
+}
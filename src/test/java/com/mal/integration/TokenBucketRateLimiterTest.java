@@ -0,0 +1,214 @@
+package com.mal.integration;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private TokenBucketRateLimiter limiter(int limit, long windowMs) {
+        return limiter(limit, windowMs, limit);
+    }
+
+    private TokenBucketRateLimiter limiter(int limit, long windowMs, int burst) {
+        return new TokenBucketRateLimiter(limit, Duration.ofMillis(windowMs), burst, now::get);
+    }
+
+    private void advance(long millis) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    @Test
+    void shouldAllowRequests_untilLimitReached() {
+        // given
+        var limiter = limiter(3, 60_000);
+
+        // when
+        var r1 = limiter.tryAcquire();
+        var r2 = limiter.tryAcquire();
+        var r3 = limiter.tryAcquire();
+        var r4 = limiter.tryAcquire(); // over limit
+
+        // then
+        assertTrue(r1);
+        assertTrue(r2);
+        assertTrue(r3);
+        assertFalse(r4);
+    }
+
+    @Test
+    void shouldRefill_afterWindowExpires() {
+        // given
+        var limiter = limiter(1, 100);
+
+        // consume 1
+        assertTrue(limiter.tryAcquire());
+
+        // when — within window
+        assertFalse(limiter.tryAcquire());
+
+        // wait window to expire
+        advance(100);
+
+        // then
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    void shouldStartFull_afterInit() {
+        // given
+        var limiter = limiter(2, 1000);
+
+        // when / then
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    void shouldRefillGradually_insteadOfAtWindowBoundary() {
+        // given
+        var limiter = limiter(10, 60_000);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+
+        // when — a fixed window would hand out another 10 right after it resets
+        advance(60_000);
+        var granted = 0;
+        while (limiter.tryAcquire()) {
+            granted++;
+        }
+        advance(6_000);
+
+        // then — one token per 6s, never more than the bucket holds
+        assertEquals(10, granted);
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+    }
+
+    @Test
+    void shouldLimitBackToBackPermits_toBurst() {
+        // given
+        var limiter = limiter(10, 60_000, 2);
+
+        // when
+        var r1 = limiter.tryAcquire();
+        var r2 = limiter.tryAcquire();
+        var r3 = limiter.tryAcquire();
+
+        // then
+        assertTrue(r1);
+        assertTrue(r2);
+        assertFalse(r3);
+    }
+
+    @Test
+    void shouldLeaveReservedPermits_inBucket() {
+        // given
+        var limiter = limiter(3, 60_000);
+
+        // when
+        var r1 = limiter.tryAcquire(2);
+        var r2 = limiter.tryAcquire(2);
+
+        // then — the reserved two are still there for unrestricted callers
+        assertTrue(r1);
+        assertFalse(r2);
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+    }
+
+    @Test
+    void shouldHandleMultipleWindows() {
+        // given
+        var limiter = limiter(1, 100);
+
+        // window 1
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+
+        // window 2
+        advance(120);
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+
+        // window 3
+        advance(120);
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    void shouldReturnPermit_whenReleased() {
+        // given
+        var limiter = limiter(1, 60_000);
+        assertTrue(limiter.tryAcquire());
+
+        // when
+        limiter.release();
+
+        // then
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+    }
+
+    @Test
+    void shouldNotGrowBeyondCapacity_whenReleasedWhileFull() {
+        // given
+        var limiter = limiter(1, 60_000);
+
+        // when
+        limiter.release();
+
+        // then
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+    }
+
+    @Test
+    void shouldRejectInvalidQuota() {
+        assertThrows(IllegalArgumentException.class, () -> limiter(0, 1000));
+        assertThrows(IllegalArgumentException.class, () -> limiter(1, 0));
+    }
+
+    @Test
+    void shouldNeverGrantMoreThanLimit_underContention() throws Exception {
+        // given
+        var limiter = limiter(1_000, 60_000);
+        var granted = new AtomicInteger();
+        var threads = 8;
+        var start = new CountDownLatch(1);
+        var pool = Executors.newFixedThreadPool(threads);
+
+        // when
+        for (int t = 0; t < threads; t++) {
+            pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < 1_000; i++) {
+                    if (limiter.tryAcquire()) {
+                        granted.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        // then
+        assertEquals(1_000, granted.get());
+    }
+}
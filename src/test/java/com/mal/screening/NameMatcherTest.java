@@ -0,0 +1,106 @@
+package com.mal.screening;
+
+import com.mal.config.WatchlistProperties;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NameMatcherTest {
+
+    private static final Path FIXTURES = Path.of("src/test/resources/screening");
+
+    @Test
+    void jaroWinkler_shouldMatchReferenceValues() {
+        // then
+        assertEquals(0.961, NameMatcher.jaroWinkler("martha", "marhta"), 0.001);
+        assertEquals(0.840, NameMatcher.jaroWinkler("dwayne", "duane"), 0.001);
+        assertEquals(0.813, NameMatcher.jaroWinkler("dixon", "dicksonx"), 0.001);
+        assertEquals(1.0, NameMatcher.jaroWinkler("bout", "bout"));
+        assertEquals(0.0, NameMatcher.jaroWinkler("abc", "xyz"));
+    }
+
+    @Test
+    void similarity_shouldIgnoreTokenOrderAndSplitting() {
+        // then
+        assertEquals(1.0, NameMatcher.similarity("Chen Mei Ling", "Mei-Ling Chen"));
+        assertEquals(1.0, NameMatcher.similarity("Abdel Rahman Yusuf", "Abdelrahman Yusuf"));
+        assertTrue(NameMatcher.similarity("Ali Smith", "Ali Hassan Smith") > 0.9);
+        assertTrue(NameMatcher.similarity("Viktor A. Bout", "Viktor Anatolyevich Bout") > 0.9);
+    }
+
+    @Test
+    void similarity_shouldTransliterate() {
+        // then
+        assertEquals(1.0, NameMatcher.similarity("Виктор Бут", "viktor but"));
+        assertEquals(1.0, NameMatcher.similarity("Søren Kjærgaard", "Soren Kjaergaard"));
+        assertEquals(1.0, NameMatcher.similarity("Wojciech Łukasz", "wojciech lukasz"));
+    }
+
+    @Test
+    void similarity_shouldNotLetASharedFirstNameCarryTheMatch() {
+        // then
+        assertTrue(NameMatcher.similarity("Mohammed Yusuf", "Mohammed Ibrahim Khalil") < 0.7);
+        assertTrue(NameMatcher.similarity("Olga Ivanova", "Olga Petrovna Sidorova") < 0.7);
+        assertTrue(NameMatcher.similarity("Chen Wei", "Mei Ling Chen") < 0.7);
+    }
+
+    @Test
+    void search_shouldAdjustByBirthDateAndNationality() {
+        // given
+        var index = WatchlistIndex.build("v1", List.of(
+                new WatchlistEntry("1", "Ali Hassan Smith", List.of(), "1980-11-20", "GB", "UN")));
+
+        // when
+        var sameDate = index.search("Ali Hasan Smyth", "20-11-1980", "GB", 0, 1).get(0).score();
+        var unknown = index.search("Ali Hasan Smyth", null, null, 0, 1).get(0).score();
+        var otherYear = index.search("Ali Hasan Smyth", "20-11-2001", "GB", 0, 1).get(0).score();
+        var otherCountry = index.search("Ali Hasan Smyth", null, "FR", 0, 1).get(0).score();
+
+        // then
+        assertTrue(sameDate > unknown);
+        assertTrue(otherYear < unknown);
+        assertTrue(otherCountry < unknown);
+    }
+
+    @Test
+    void fixtures_shouldKeepRecallAndPrecisionAtTheDefaultFloor() throws IOException {
+        // given
+        var index = WatchlistLoader.load(FIXTURES.resolve("watchlist.csv"));
+        var floor = new WatchlistProperties().getSimilarityFloor();
+        int expected = 0;
+        int found = 0;
+        int returned = 0;
+
+        // when
+        for (var line : Files.readAllLines(FIXTURES.resolve("name-pairs.csv"))) {
+            if (line.isBlank() || line.startsWith("#") || line.startsWith("query,")) {
+                continue;
+            }
+            var fields = line.split(",", -1);
+            var matches = index.search(fields[0], blankToNull(fields[1]), blankToNull(fields[2]), floor, 10);
+            returned += matches.size();
+            if (!fields[3].isEmpty()) {
+                expected++;
+                if (matches.stream().anyMatch(match -> match.entry().id().equals(fields[3]))) {
+                    found++;
+                }
+            }
+        }
+
+        // then
+        var recall = (double) found / expected;
+        var precision = returned == 0 ? 1 : (double) found / returned;
+        assertTrue(recall >= 0.95, "recall " + recall);
+        assertTrue(precision >= 0.9, "precision " + precision);
+    }
+
+    private static String blankToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+}
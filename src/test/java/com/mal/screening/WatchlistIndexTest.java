@@ -0,0 +1,132 @@
+package com.mal.screening;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WatchlistIndexTest {
+
+    private final WatchlistIndex index = WatchlistIndex.build("v1", List.of(
+            new WatchlistEntry("1", "Viktor Bout", List.of("Victor Butt", "Boris"), "1967-01-13", "RU", "OFAC-SDN"),
+            new WatchlistEntry("2", "José Martínez Ortega", List.of(), null, "VE", "EU"),
+            new WatchlistEntry("3", "Ali Hassan Smith", List.of(), null, null, "UN"),
+            new WatchlistEntry("4", "Mei Ling Chen", List.of("Chen Mei-Ling"), null, "CN", "UN")));
+
+    private List<String> ids(List<WatchlistMatch> matches) {
+        return matches.stream().map(match -> match.entry().id()).toList();
+    }
+
+    @Test
+    void soundex_shouldFollowAmericanSoundex() {
+        // then
+        assertEquals("R163", Names.soundex("robert"));
+        assertEquals("R163", Names.soundex("rupert"));
+        assertEquals("A261", Names.soundex("ashcraft"));
+        assertEquals("T522", Names.soundex("tymczak"));
+        assertEquals("P236", Names.soundex("pfister"));
+        assertEquals("L000", Names.soundex("li"));
+        assertNull(Names.soundex("ивaн".substring(0, 2)));
+    }
+
+    @Test
+    void search_shouldFindExactName_ignoringCaseAndAccents() {
+        // when
+        var matches = index.search("JOSE MARTINEZ ortega", 0.6, 10);
+
+        // then
+        assertEquals(List.of("2"), ids(matches));
+        assertEquals(1.0, matches.get(0).score());
+    }
+
+    @Test
+    void search_shouldFindTyposAndSpellingVariants() {
+        // then
+        assertEquals(List.of("1"), ids(index.search("Viktor Boutt", 0.6, 10)));
+        assertEquals(List.of("3"), ids(index.search("Ali Hasan Smyth", 0.6, 10)));
+    }
+
+    @Test
+    void search_shouldMatchAliases_onceForTheEntry() {
+        // when
+        var matches = index.search("Victor Butt", 0.6, 10);
+
+        // then
+        assertEquals(List.of("1"), ids(matches));
+        assertEquals("Victor Butt", matches.get(0).matchedName());
+    }
+
+    @Test
+    void search_shouldReturnNothing_forUnrelatedName() {
+        // then
+        assertTrue(index.search("Johanna Schneider", 0.6, 10).isEmpty());
+        assertTrue(index.search("  ", 0.6, 10).isEmpty());
+    }
+
+    @Test
+    void search_shouldRankBestFirst_andRespectLimit() {
+        // when
+        var matches = index.search("Chen Mei Ling", 0.3, 1);
+
+        // then
+        assertEquals(List.of("4"), ids(matches));
+    }
+
+    @Test
+    void search_shouldFindEveryNameScoringAboveFloor_whenNameHasFewerTokensThanQuery() {
+        // given — one- and two-token names against longer queries
+        var names = List.of("Saddam", "Hezbollah", "Hussein", "Bout", "Mohammed Hussein", "Saddam Tikriti");
+        var listed = WatchlistIndex.build("v1", names.stream()
+                .map(name -> new WatchlistEntry(name, name, List.of(), null, null, "UN"))
+                .toList());
+        var queries = List.of("Saddam Hussein", "Hezbollah Organization", "Saddam Hussein al Tikriti",
+                "Viktor Bout", "Mohamed Husein Ali");
+
+        for (var query : queries) {
+            // when
+            var found = ids(listed.search(query, 0.8, names.size()));
+
+            // then
+            for (var name : names) {
+                if (NameMatcher.similarity(query, name) >= 0.8) {
+                    assertTrue(found.contains(name), query + " should find " + name);
+                }
+            }
+        }
+        assertTrue(ids(listed.search("Saddam Hussein", 0.8, 10)).contains("Saddam"));
+        assertTrue(ids(listed.search("Hezbollah Organization", 0.8, 10)).contains("Hezbollah"));
+    }
+
+    @Test
+    void search_shouldGiveSameMatches_fromMoreThreadsThanPooledScratch() throws Exception {
+        // given
+        var threads = Runtime.getRuntime().availableProcessors() * 4;
+        var pool = Executors.newFixedThreadPool(threads);
+        var searches = new ArrayList<Future<List<String>>>();
+
+        // when
+        for (int i = 0; i < threads * 50; i++) {
+            var query = i % 2 == 0 ? "Viktor Boutt" : "Ali Hasan Smyth";
+            searches.add(pool.submit(() -> ids(index.search(query, 0.6, 10))));
+        }
+
+        // then
+        for (int i = 0; i < searches.size(); i++) {
+            assertEquals(List.of(i % 2 == 0 ? "1" : "3"), searches.get(i).get());
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    void trigrams_shouldBeDistinctAndPadded() {
+        // then — " aa", "aa ", "aaa"
+        assertEquals(3, WatchlistIndex.trigrams("aaaa").length);
+        assertEquals(1, WatchlistIndex.trigrams("a").length);
+    }
+}
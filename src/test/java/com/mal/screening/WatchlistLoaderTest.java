@@ -0,0 +1,79 @@
+package com.mal.screening;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class WatchlistLoaderTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void shouldLoadCsv_withQuotedFieldsAndAliases() throws IOException {
+        // given
+        var file = Files.writeString(dir.resolve("list.csv"), """
+                id,name,aliases,date_of_birth,nationality,source
+                1,"Bout, Viktor","Victor Butt; Boris",1967-01-13,RU,OFAC-SDN
+                2,"Said ""The Lion"" Ahmed",,,,UN
+
+                """);
+
+        // when
+        var index = WatchlistLoader.load(file);
+        var entries = WatchlistLoader.csv(Files.readString(file));
+
+        // then
+        assertEquals(2, index.size());
+        assertEquals("Bout, Viktor", entries.get(0).name());
+        assertEquals(List.of("Victor Butt", "Boris"), entries.get(0).aliases());
+        assertEquals("RU", entries.get(0).nationality());
+        assertEquals("Said \"The Lion\" Ahmed", entries.get(1).name());
+        assertEquals(List.of(), entries.get(1).aliases());
+        assertEquals("1", index.search("Victor Butt", 0.6, 10).get(0).entry().id());
+    }
+
+    @Test
+    void shouldLoadJson() throws IOException {
+        // given
+        var file = Files.writeString(dir.resolve("list.json"), """
+                [{"id":"1","name":"Viktor Bout","aliases":["Victor Butt"],"dateOfBirth":"1967-01-13","listedOn":"2004"}]
+                """);
+
+        // when
+        var index = WatchlistLoader.load(file);
+
+        // then
+        assertEquals(1, index.size());
+        assertEquals("1", index.search("Victor Butt", 0.6, 10).get(0).entry().id());
+    }
+
+    @Test
+    void shouldVersionByContent() throws IOException {
+        // given
+        var first = Files.writeString(dir.resolve("a.csv"), "id,name\n1,Viktor Bout\n");
+        var same = Files.writeString(dir.resolve("b.csv"), "id,name\n1,Viktor Bout\n");
+        var changed = Files.writeString(dir.resolve("c.csv"), "id,name\n1,Viktor Bout\n2,Boris\n");
+
+        // then
+        assertEquals(WatchlistLoader.load(first).version(), WatchlistLoader.load(same).version());
+        assertNotEquals(WatchlistLoader.load(first).version(), WatchlistLoader.load(changed).version());
+    }
+
+    @Test
+    void shouldRejectCsv_withoutNameColumn() throws IOException {
+        // given
+        var file = Files.writeString(dir.resolve("list.csv"), "id,full_name\n1,Viktor Bout\n");
+
+        // then
+        assertThrows(IOException.class, () -> WatchlistLoader.load(file));
+    }
+}
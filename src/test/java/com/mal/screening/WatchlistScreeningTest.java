@@ -0,0 +1,72 @@
+package com.mal.screening;
+
+import com.mal.config.WatchlistProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WatchlistScreeningTest {
+
+    @TempDir
+    Path dir;
+
+    private WatchlistScreening screening(Path export) {
+        var props = new WatchlistProperties();
+        props.setEnabled(true);
+        props.setClearLocally(true);
+        props.setPath(export.toString());
+        props.setDeltaDir(dir.resolve("deltas").toString());
+        props.setIndexDir(dir.resolve("index").toString());
+        props.setReloadInterval(Duration.ZERO);
+        return new WatchlistScreening(props, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void shouldSwapInNewVersion_andTellListeners() throws IOException {
+        // given
+        var export = Files.writeString(dir.resolve("list.csv"), "id,name\n1,John Doe\n");
+        var screening = screening(export);
+        var versions = new ArrayList<String>();
+        screening.onVersion(versions::add);
+        assertTrue(screening.clearsLocally("Jane Roe", null, null));
+
+        // when
+        Files.createDirectories(dir.resolve("deltas"));
+        Files.writeString(dir.resolve("deltas").resolve("001.csv"), "id,name\n2,Jane Roe\n");
+        var swapped = screening.reload();
+
+        // then
+        assertTrue(swapped);
+        assertFalse(screening.clearsLocally("Jane Roe", null, null));
+        assertEquals(2, versions.size());
+        assertFalse(screening.reload());
+    }
+
+    @Test
+    void shouldKeepCurrentIndex_whenReloadFails() throws IOException {
+        // given
+        var export = Files.writeString(dir.resolve("list.csv"), "id,name\n1,John Doe\n");
+        var screening = screening(export);
+
+        // when
+        Files.writeString(export, "id,full_name\n1,John Doe\n");
+        var swapped = screening.reload();
+
+        // then
+        assertFalse(swapped);
+        assertTrue(screening.isActive());
+        assertEquals(List.of("1"), screening.candidates("John Doe", null, null).stream()
+                .map(match -> match.entry().id()).toList());
+    }
+}
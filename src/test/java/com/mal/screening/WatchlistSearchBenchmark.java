@@ -0,0 +1,126 @@
+package com.mal.screening;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of one watchlist lookup against a synthetic list of {@code entries} people, for queries
+ * that are a listed name with a typo and for unlisted names sharing a common first name, plus a
+ * single {@link NameMatcher} comparison. Names are drawn from a pool of first names and a larger
+ * pool of surnames, both made of random syllables and both skewed so a few names are very common,
+ * as in real lists. Check allocation with
+ * {@code mvn -Pbench test-compile exec:exec -Dbench="WatchlistSearch -prof gc"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class WatchlistSearchBenchmark {
+
+    private static final String CONSONANTS = "bcdfghjklmnprstvyz";
+    private static final String VOWELS = "aeiou";
+    private static final String CODAS = "nrsl";
+
+    @Param({"100000", "1000000"})
+    public int entries;
+
+    private WatchlistIndex index;
+    private String[] listed;
+    private String[] unlisted;
+    private int next;
+
+    private final NameMatcher.Prepared left = NameMatcher.prepare("Abdelrahman Yusuf Al-Qadi");
+    private final NameMatcher.Prepared right = NameMatcher.prepare("Abdel Rahman Yousef Alqadi");
+
+    @Setup(Level.Trial)
+    public void build() {
+        var random = new Random(42);
+        var firstNames = words(random, 5_000, 2);
+        var surnames = words(random, 200_000, 2);
+
+        var list = new ArrayList<WatchlistEntry>(entries);
+        for (int i = 0; i < entries; i++) {
+            list.add(new WatchlistEntry(String.valueOf(i), person(random, firstNames, surnames),
+                    random.nextInt(4) == 0 ? List.of(person(random, firstNames, surnames)) : List.of(),
+                    null, null, "SYNTHETIC"));
+        }
+        index = WatchlistIndex.build("bench", list);
+
+        listed = new String[1024];
+        unlisted = new String[1024];
+        for (int i = 0; i < listed.length; i++) {
+            var name = list.get(random.nextInt(entries)).name();
+            int typo;
+            do {
+                typo = 1 + random.nextInt(name.length() - 1);
+            } while (name.charAt(typo) == ' ');
+            listed[i] = name.substring(0, typo) + "x" + name.substring(typo + 1);
+            unlisted[i] = pick(random, firstNames, 3) + " " + word(random, 3);
+        }
+    }
+
+    @Benchmark
+    public List<WatchlistMatch> listedWithTypo() {
+        return index.search(listed[next++ & 1023], 0.8, 10);
+    }
+
+    @Benchmark
+    public List<WatchlistMatch> unlisted() {
+        return index.search(unlisted[next++ & 1023], 0.8, 10);
+    }
+
+    @Benchmark
+    public double compare() {
+        return NameMatcher.similarity(
+                left.chars(), left.ends(), 0, left.tokens(),
+                right.chars(), right.ends(), 0, right.tokens());
+    }
+
+    private static String person(Random random, String[] firstNames, String[] surnames) {
+        var middle = random.nextInt(3) == 0 ? " " + pick(random, firstNames, 3) : "";
+        return pick(random, firstNames, 3) + middle + " " + pick(random, surnames, 2);
+    }
+
+    // skewed towards the start of the pool, the more the higher the power
+    private static String pick(Random random, String[] pool, int power) {
+        return pool[(int) (pool.length * Math.pow(random.nextDouble(), power))];
+    }
+
+    private static String[] words(Random random, int count, int minSyllables) {
+        var words = new String[count];
+        for (int i = 0; i < count; i++) {
+            words[i] = word(random, minSyllables + random.nextInt(3));
+        }
+        return words;
+    }
+
+    private static String word(Random random, int syllables) {
+        var word = new StringBuilder();
+        for (int s = 0; s < syllables; s++) {
+            word.append(CONSONANTS.charAt(random.nextInt(CONSONANTS.length())))
+                    .append(VOWELS.charAt(random.nextInt(VOWELS.length())));
+            if (random.nextInt(5) == 0) {
+                word.append(CODAS.charAt(random.nextInt(CODAS.length())));
+            }
+        }
+        word.setCharAt(0, Character.toUpperCase(word.charAt(0)));
+        return word.toString();
+    }
+}
@@ -0,0 +1,185 @@
+package com.mal.screening;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WatchlistStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private Path export() throws IOException {
+        return Files.writeString(dir.resolve("list.csv"), """
+                id,name,aliases,date_of_birth,nationality,source
+                1,Viktor Bout,Victor Butt,1967-01-13,RU,OFAC-SDN
+                2,John Doe,,,,UN
+                """);
+    }
+
+    private List<String> ids(WatchlistIndex index) {
+        return index.entries().stream().map(WatchlistEntry::id).toList();
+    }
+
+    @Test
+    void shouldWriteMappedIndex_andMapItAgainForSameVersion() throws IOException {
+        // given
+        var export = export();
+        var first = new WatchlistStore(export, null, dir.resolve("index")).load();
+        var file = dir.resolve("index").resolve("watchlist-" + first.version() + ".idx");
+        var written = Files.getLastModifiedTime(file);
+
+        // when
+        var mapped = new WatchlistStore(export, null, dir.resolve("index")).load();
+
+        // then
+        assertEquals(first.version(), mapped.version());
+        assertEquals(written, Files.getLastModifiedTime(file));
+        assertEquals(first.entries(), mapped.entries());
+        var match = mapped.search("Victor Butt", "1967-01-13", "RU", 0.8, 10).get(0);
+        assertEquals("1", match.entry().id());
+        assertEquals("Victor Butt", match.matchedName());
+    }
+
+    @Test
+    void shouldApplyNewDeltas_toCurrentEntries_withVersionOfFullRebuild() throws IOException {
+        // given
+        var export = export();
+        var deltas = Files.createDirectories(dir.resolve("deltas"));
+        var index = dir.resolve("index");
+        var store = new WatchlistStore(export, deltas, index);
+        var current = store.load();
+        assertNull(store.refresh(current));
+
+        // when
+        Files.writeString(deltas.resolve("001.csv"), """
+                id,name,action
+                1,,remove
+                3,Jane Roe,
+                """);
+        Files.writeString(deltas.resolve("002.json"), """
+                [{"id":"2","name":"Jonathan Doe","nationality":"US"}]
+                """);
+        var next = store.refresh(current);
+        store.retire(next);
+
+        // then
+        assertNotEquals(current.version(), next.version());
+        assertEquals(List.of("3", "2"), ids(next));
+        assertTrue(next.search("Viktor Bout", 0.8, 10).isEmpty());
+        assertEquals("Jonathan Doe", next.search("Jonathan Doe", 0.8, 10).get(0).matchedName());
+        assertEquals(next.version(), new WatchlistStore(export, deltas, dir.resolve("other")).load().version());
+        assertFalse(Files.exists(index.resolve("watchlist-" + current.version() + ".idx")));
+        assertNull(store.refresh(next));
+        // the old index stays searchable for whoever still holds it
+        assertEquals("1", current.search("Viktor Bout", 0.8, 10).get(0).entry().id());
+    }
+
+    @Test
+    void shouldReportChangedEntries_sincePreviousVersion() throws IOException {
+        // given
+        var export = export();
+        var deltas = Files.createDirectories(dir.resolve("deltas"));
+        var index = dir.resolve("index");
+        var store = new WatchlistStore(export, deltas, index);
+        var current = store.load();
+        store.retire(current);
+        assertNull(store.change());
+
+        // when
+        Files.writeString(deltas.resolve("001.csv"), """
+                id,name,action
+                2,,remove
+                3,Jane Roe,
+                """);
+        var next = store.refresh(current);
+        store.retire(next);
+        Files.writeString(export, """
+                id,name,aliases,date_of_birth,nationality,source
+                1,Viktor Bout,Victor Butt,1967-01-13,RU,OFAC-SDN
+                4,Richard Roe,,,,UN
+                """);
+        var restarted = new WatchlistStore(export, deltas, index);
+        var rebuilt = restarted.load();
+
+        // then
+        assertEquals(current.version(), store.change().previousVersion());
+        assertEquals(List.of("3"), store.change().entries().stream().map(WatchlistEntry::id).toList());
+        assertEquals(next.version(), restarted.change().previousVersion());
+        assertEquals(rebuilt.version(), restarted.change().version());
+        assertEquals(List.of("4"), restarted.change().entries().stream().map(WatchlistEntry::id).toList());
+    }
+
+    @Test
+    void shouldRebuildFromExport_whenExportChanges() throws IOException {
+        // given
+        var export = export();
+        var store = new WatchlistStore(export, null, null);
+        var current = store.load();
+
+        // when
+        Files.writeString(export, "id,name\n9,Jane Roe\n");
+        var next = store.refresh(current);
+
+        // then
+        assertEquals(List.of("9"), ids(next));
+    }
+
+    @Test
+    void shouldRetireOnlyOlderVersions_whenIndexDirIsShared() throws IOException {
+        // given — two instances on one index directory, the second a version ahead
+        var export = export();
+        var deltas = Files.createDirectories(dir.resolve("deltas"));
+        var index = dir.resolve("index");
+        var behind = new WatchlistStore(export, null, index);
+        var current = behind.load();
+        var currentFile = index.resolve("watchlist-" + current.version() + ".idx");
+        Files.setLastModifiedTime(currentFile, FileTime.from(Instant.now().minusSeconds(60)));
+        Files.writeString(deltas.resolve("001.csv"), """
+                id,name
+                3,Jane Roe
+                """);
+        var ahead = new WatchlistStore(export, deltas, index);
+        var next = ahead.load();
+        var nextFile = index.resolve("watchlist-" + next.version() + ".idx");
+
+        // when
+        behind.retire(current);
+
+        // then
+        assertTrue(Files.exists(nextFile));
+        assertTrue(Files.exists(currentFile));
+
+        // when
+        ahead.retire(next);
+
+        // then
+        assertFalse(Files.exists(currentFile));
+        assertTrue(Files.exists(nextFile));
+        try (var files = Files.list(index)) {
+            assertEquals(List.of(nextFile), files.toList());
+        }
+    }
+
+    @Test
+    void shouldRejectFile_thatIsNotAWatchlistIndex() throws IOException {
+        // given
+        var file = Files.write(dir.resolve("watchlist-x.idx"), new byte[4096]);
+
+        // then
+        assertThrows(IOException.class, () -> WatchlistIndex.map(file));
+    }
+}
@@ -0,0 +1,180 @@
+package com.mal.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mal.integration.Priority;
+import com.mal.model.KycDecision;
+import com.mal.model.KycDecisionType;
+import com.mal.model.VerificationRequest;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BatchVerificationServiceTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private KycDecision approved(VerificationRequest request) {
+        return new KycDecision(request.requestId(), request.customerId(), KycDecisionType.APPROVED,
+                null, null, null, null, "2026-01-01T10:00:00Z");
+    }
+
+    private ByteArrayInputStream input(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void verify_shouldProcessNdjsonEntries() {
+        // given
+        var kycService = mock(KycService.class);
+        when(kycService.verify(any())).thenAnswer(inv -> Mono.just(approved(inv.getArgument(0))));
+        var batch = new BatchVerificationService(kycService, mapper, Clock.systemUTC(), 4);
+
+        // when
+        var decisions = batch.verify(input("""
+                {"requestId":"r1","customerId":"c1"}
+                {"requestId":"r2","customerId":"c2"}
+                {"requestId":"r3","customerId":"c3"}
+                """)).collectList().block();
+
+        // then
+        assertEquals(3, decisions.size());
+        assertTrue(decisions.stream().allMatch(d -> d.decision() == KycDecisionType.APPROVED));
+    }
+
+    @Test
+    void verify_shouldProcessJsonArray() {
+        // given
+        var kycService = mock(KycService.class);
+        when(kycService.verify(any())).thenAnswer(inv -> Mono.just(approved(inv.getArgument(0))));
+        var batch = new BatchVerificationService(kycService, mapper, Clock.systemUTC(), 4);
+
+        // when
+        var decisions = batch.verify(input("""
+                [{"requestId":"r1","customerId":"c1"},{"requestId":"r2","customerId":"c2"}]
+                """)).collectList().block();
+
+        // then
+        assertEquals(2, decisions.size());
+    }
+
+    @Test
+    void verify_shouldBoundConcurrency() {
+        // given
+        var inFlight = new AtomicInteger();
+        var maxInFlight = new AtomicInteger();
+        var kycService = mock(KycService.class);
+        when(kycService.verify(any())).thenAnswer(inv -> Mono.defer(() -> {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    return Mono.delay(Duration.ofMillis(20)).map(tick -> {
+                        inFlight.decrementAndGet();
+                        return approved(inv.getArgument(0));
+                    });
+                }));
+        var batch = new BatchVerificationService(kycService, mapper, Clock.systemUTC(), 3);
+
+        var body = new StringBuilder();
+        for (int i = 0; i < 30; i++) {
+            body.append("{\"requestId\":\"r").append(i).append("\"}\n");
+        }
+
+        // when
+        var decisions = batch.verify(input(body.toString())).collectList().block();
+
+        // then
+        assertEquals(30, decisions.size());
+        assertTrue(maxInFlight.get() <= 3, "max in flight " + maxInFlight.get());
+    }
+
+    @Test
+    void verify_shouldEmitManualReview_whenEntryFails() {
+        // given
+        var kycService = mock(KycService.class);
+        when(kycService.verify(any())).thenReturn(Mono.error(new IllegalStateException("boom")));
+        var batch = new BatchVerificationService(kycService, mapper, Clock.systemUTC(), 2);
+
+        // when
+        var decision = batch.verify(input("{\"requestId\":\"r1\",\"customerId\":\"c1\"}")).blockFirst();
+
+        // then
+        assertEquals("r1", decision.requestId());
+        assertEquals(KycDecisionType.MANUAL_REVIEW, decision.decision());
+    }
+
+    @Test
+    void verify_shouldEmitManualReviewForMalformedNdjsonLines_andCarryOn() {
+        // given
+        var kycService = mock(KycService.class);
+        when(kycService.verify(any())).thenAnswer(inv -> Mono.just(approved(inv.getArgument(0))));
+        var batch = new BatchVerificationService(kycService, mapper, Clock.systemUTC(), 1);
+
+        // when
+        var decisions = batch.verify(input("""
+                {"requestId":"r1","customerId":"c1"}
+                {"requestId":"r2","customerId":
+                {"requestId":"r3","customerId":"c3","verificationTypes":[null]}
+                {"requestId":"r4","customerId":"c4"}
+                """)).collectList().block();
+
+        // then
+        assertEquals(List.of("r1", "r3", "r4"), decisions.stream()
+                .map(KycDecision::requestId).filter(id -> id != null).toList());
+        assertEquals(List.of(KycDecisionType.APPROVED, KycDecisionType.MANUAL_REVIEW,
+                        KycDecisionType.MANUAL_REVIEW, KycDecisionType.APPROVED),
+                decisions.stream().map(KycDecision::decision).toList());
+        assertEquals("c3", decisions.get(2).customerId());
+    }
+
+    @Test
+    void verify_shouldEmitManualReviewForUnbindableArrayEntry_andCarryOn() {
+        // given
+        var kycService = mock(KycService.class);
+        when(kycService.verify(any())).thenAnswer(inv -> Mono.just(approved(inv.getArgument(0))));
+        var batch = new BatchVerificationService(kycService, mapper, Clock.systemUTC(), 1);
+
+        // when
+        var decisions = batch.verify(input("""
+                [{"requestId":"r1","customerId":"c1"},
+                 {"requestId":"r2","customerId":"c2","verificationTypes":["NOT_A_TYPE"]},
+                 {"requestId":"r3","customerId":"c3"}]
+                """)).collectList().block();
+
+        // then
+        assertEquals(List.of(KycDecisionType.APPROVED, KycDecisionType.MANUAL_REVIEW, KycDecisionType.APPROVED),
+                decisions.stream().map(KycDecision::decision).toList());
+        assertEquals("r2", decisions.get(1).requestId());
+    }
+
+    @Test
+    void verify_shouldRunEntriesAsBackgroundWork() {
+        // given
+        var kycService = mock(KycService.class);
+        var priorities = new CopyOnWriteArrayList<Priority>();
+        when(kycService.verify(any())).thenAnswer(inv -> Mono.deferContextual(ctx -> {
+            priorities.add(Priority.from(ctx));
+            return Mono.just(approved(inv.getArgument(0)));
+        }));
+        var batch = new BatchVerificationService(kycService, mapper, Clock.systemUTC(), 4);
+
+        // when
+        batch.verify(input("""
+                {"requestId":"r1","customerId":"c1"}
+                {"requestId":"r2","customerId":"c2"}
+                """)).collectList().block();
+
+        // then
+        assertEquals(List.of(Priority.BACKGROUND, Priority.BACKGROUND), priorities);
+    }
+}
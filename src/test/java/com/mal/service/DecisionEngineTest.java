@@ -2,10 +2,13 @@ package com.mal.service;
 
 import com.mal.integration.dto.*;
 import com.mal.model.KycDecisionType;
+import com.mal.model.VerificationType;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.Test;
 
+import java.util.EnumSet;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 
@@ -122,4 +125,58 @@ class DecisionEngineTest {
         // then
         assertEquals(KycDecisionType.APPROVED, result);
     }
+
+    @Test
+    void decide_shouldReturnApproved_whenOnlyRequestedCheckPasses() {
+        // given
+        var engine = engine();
+
+        // when
+        var result = engine.decide(
+                EnumSet.of(VerificationType.SANCTIONS),
+                null,
+                null,
+                null,
+                sanc(SanctionsStatus.CLEAR)
+        );
+
+        // then
+        assertEquals(KycDecisionType.APPROVED, result);
+    }
+
+    @Test
+    void decide_shouldReturnManual_whenRequestedPartialCheckFails() {
+        // given
+        var engine = engine();
+
+        // when
+        var result = engine.decide(
+                EnumSet.of(VerificationType.ADDRESS),
+                null,
+                null,
+                addr(VerificationStatus.FAIL, 0),
+                null
+        );
+
+        // then
+        assertEquals(KycDecisionType.MANUAL_REVIEW, result);
+    }
+
+    @Test
+    void decide_shouldReturnManual_whenRequestedResultIsMissing() {
+        // given
+        var engine = engine();
+
+        // when
+        var result = engine.decide(
+                EnumSet.of(VerificationType.ID_DOCUMENT, VerificationType.SANCTIONS),
+                null,
+                null,
+                null,
+                sanc(SanctionsStatus.CLEAR)
+        );
+
+        // then
+        assertEquals(KycDecisionType.MANUAL_REVIEW, result);
+    }
 }
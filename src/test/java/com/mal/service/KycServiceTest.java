@@ -1,72 +1,106 @@
 package com.mal.service;
 
+import com.mal.config.DeadlineProperties;
+import com.mal.config.ExecutionProperties;
+import com.mal.config.IdempotencyProperties;
 import com.mal.integration.AddressVerificationClient;
 import com.mal.integration.BiometricClient;
+import com.mal.integration.Deadline;
 import com.mal.integration.DocumentVerificationClient;
 import com.mal.integration.SanctionsClient;
 import com.mal.integration.dto.*;
 import com.mal.model.KycDecision;
 import com.mal.model.KycDecisionType;
+import com.mal.model.VerificationEvent;
 import com.mal.model.VerificationRequest;
+import com.mal.model.VerificationType;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
 
 import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneOffset;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 class KycServiceTest {
 
-    @Test
-    void verify_shouldReturnDecisionAndCallDependencies() {
-        // Given
-        var documentClient = mock(DocumentVerificationClient.class);
-        var biometricClient = mock(BiometricClient.class);
-        var addressClient = mock(AddressVerificationClient.class);
-        var sanctionsClient = mock(SanctionsClient.class);
-        var decisionEngine = mock(DecisionEngine.class);
-        var clock = Clock.fixed(Instant.parse("2026-01-01T10:00:00Z"), ZoneOffset.UTC);
+    private DocumentVerificationClient documentClient;
+    private BiometricClient biometricClient;
+    private AddressVerificationClient addressClient;
+    private SanctionsClient sanctionsClient;
+    private DecisionEngine decisionEngine;
+
+    @BeforeEach
+    void setup() {
+        documentClient = mock(DocumentVerificationClient.class);
+        biometricClient = mock(BiometricClient.class);
+        addressClient = mock(AddressVerificationClient.class);
+        sanctionsClient = mock(SanctionsClient.class);
+        decisionEngine = mock(DecisionEngine.class);
+    }
 
-        var service = new KycService(
+    private KycService service(Clock clock) {
+        return new KycService(
                 documentClient,
                 biometricClient,
                 addressClient,
                 sanctionsClient,
+                new ProviderExecution(new ExecutionProperties()),
                 decisionEngine,
+                new DeadlineProperties(),
+                new VerificationDeduplicator(new IdempotencyProperties(), new SimpleMeterRegistry()),
                 new SimpleMeterRegistry(),
                 clock
         );
+    }
 
-        var request = new VerificationRequest(
+    private VerificationRequest request() {
+        return new VerificationRequest(
                 "r1", "c1", "John Doe", "1990-01-01", "UK",
                 "PASSPORT", "1234", "2030-01-01", "img://doc",
                 "img://selfie", "img://id",
-                "London", "UTILITY", "2025-01-01", "img://proof"
+                "London", "UTILITY", "2025-01-01", "img://proof",
+                null
         );
+    }
+
+    @Test
+    void verify_shouldReturnDecisionAndCallDependencies() {
+        // Given
+        var clock = Clock.fixed(Instant.parse("2026-01-01T10:00:00Z"), ZoneOffset.UTC);
+        var service = service(clock);
 
         var doc = new DocumentVerificationResponse(VerificationStatus.PASS, 90, null);
         var bio = new BiometricResponse(VerificationStatus.PASS, 88, 0.95);
         var addr = new AddressVerificationResponse(VerificationStatus.PASS, 85, null);
         var sanc = new SanctionsResponse(SanctionsStatus.CLEAR, 0, null);
 
-        when(documentClient.verify(any())).thenReturn(doc);
-        when(biometricClient.match(any())).thenReturn(bio);
-        when(addressClient.verify(any())).thenReturn(addr);
-        when(sanctionsClient.check(any())).thenReturn(sanc);
-        when(decisionEngine.decide(doc, bio, addr, sanc)).thenReturn(KycDecisionType.APPROVED);
+        when(documentClient.verify(any())).thenReturn(Mono.just(doc));
+        when(biometricClient.match(any())).thenReturn(Mono.just(bio));
+        when(addressClient.verify(any())).thenReturn(Mono.just(addr));
+        when(sanctionsClient.check(any())).thenReturn(Mono.just(sanc));
+        when(decisionEngine.decide(any(), eq(doc), eq(bio), eq(addr), eq(sanc))).thenReturn(KycDecisionType.APPROVED);
 
         // When
-        KycDecision result = service.verify(request);
+        KycDecision result = service.verify(request()).block();
 
         // Then
         verify(documentClient).verify(any());
         verify(biometricClient).match(any());
         verify(addressClient).verify(any());
         verify(sanctionsClient).check(any());
-        verify(decisionEngine).decide(doc, bio, addr, sanc);
+        verify(decisionEngine).decide(any(), eq(doc), eq(bio), eq(addr), eq(sanc));
 
         assertEquals(KycDecisionType.APPROVED, result.decision());
         assertEquals(doc, result.document());
@@ -75,4 +109,138 @@ class KycServiceTest {
         assertEquals(sanc, result.sanctions());
         assertEquals("2026-01-01T10:00:00Z", result.timestamp());
     }
+
+    @Test
+    void verify_shouldCallProvidersConcurrently() {
+        // Given
+        var service = service(Clock.systemUTC());
+
+        var delay = Duration.ofMillis(300);
+        when(documentClient.verify(any())).thenReturn(Mono.delay(delay)
+                .thenReturn(new DocumentVerificationResponse(VerificationStatus.PASS, 90, null)));
+        when(biometricClient.match(any())).thenReturn(Mono.delay(delay)
+                .thenReturn(new BiometricResponse(VerificationStatus.PASS, 88, 0.95)));
+        when(addressClient.verify(any())).thenReturn(Mono.delay(delay)
+                .thenReturn(new AddressVerificationResponse(VerificationStatus.PASS, 85, null)));
+        when(sanctionsClient.check(any())).thenReturn(Mono.delay(delay)
+                .thenReturn(new SanctionsResponse(SanctionsStatus.CLEAR, 0, null)));
+        when(decisionEngine.decide(any(), any(), any(), any(), any())).thenReturn(KycDecisionType.APPROVED);
+
+        // When
+        var start = System.nanoTime();
+        var result = service.verify(request()).block();
+        var elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        // Then
+        assertEquals(KycDecisionType.APPROVED, result.decision());
+        assertTrue(elapsed.compareTo(delay.multipliedBy(2)) < 0, "providers were called sequentially: " + elapsed);
+    }
+
+    @Test
+    void verify_shouldRejectAndCancelOtherProviders_whenSanctionsHit() {
+        // Given
+        var service = service(Clock.systemUTC());
+
+        var cancelled = new AtomicInteger();
+        var sanc = new SanctionsResponse(SanctionsStatus.HIT, 1, null);
+
+        when(documentClient.verify(any())).thenReturn(
+                Mono.<DocumentVerificationResponse>never().doOnCancel(cancelled::incrementAndGet));
+        when(biometricClient.match(any())).thenReturn(
+                Mono.<BiometricResponse>never().doOnCancel(cancelled::incrementAndGet));
+        when(addressClient.verify(any())).thenReturn(
+                Mono.<AddressVerificationResponse>never().doOnCancel(cancelled::incrementAndGet));
+        when(sanctionsClient.check(any())).thenReturn(Mono.delay(Duration.ofMillis(50)).thenReturn(sanc));
+        when(decisionEngine.decide(any(), isNull(), isNull(), isNull(), eq(sanc))).thenReturn(KycDecisionType.REJECTED);
+
+        // When
+        var result = service.verify(request()).block(Duration.ofSeconds(2));
+
+        // Then
+        assertEquals(KycDecisionType.REJECTED, result.decision());
+        assertEquals(sanc, result.sanctions());
+        assertEquals(3, cancelled.get());
+    }
+
+    @Test
+    void verify_shouldCallOnlyRequestedProviders() {
+        // Given
+        var service = service(Clock.systemUTC());
+
+        var request = new VerificationRequest(
+                "r1", "c1", "John Doe", "1990-01-01", "UK",
+                null, null, null, null,
+                null, null,
+                null, null, null, null,
+                Set.of(VerificationType.SANCTIONS)
+        );
+
+        var sanc = new SanctionsResponse(SanctionsStatus.CLEAR, 0, null);
+        when(sanctionsClient.check(any())).thenReturn(Mono.just(sanc));
+        when(decisionEngine.decide(any(), isNull(), isNull(), isNull(), eq(sanc)))
+                .thenReturn(KycDecisionType.APPROVED);
+
+        // When
+        var result = service.verify(request).block();
+
+        // Then
+        verify(decisionEngine).decide(eq(EnumSet.of(VerificationType.SANCTIONS)), isNull(), isNull(), isNull(), eq(sanc));
+        verifyNoInteractions(documentClient, biometricClient, addressClient);
+        assertEquals(KycDecisionType.APPROVED, result.decision());
+        assertEquals(sanc, result.sanctions());
+    }
+
+    @Test
+    void verify_shouldCarryRequestedBudgetIntoProviderCalls() {
+        // Given
+        var service = service(Clock.systemUTC());
+        var seen = new AtomicReference<Deadline>();
+
+        var sanc = new SanctionsResponse(SanctionsStatus.CLEAR, 0, null);
+        when(sanctionsClient.check(any())).thenReturn(Mono.deferContextual(ctx -> {
+            seen.set(Deadline.from(ctx));
+            return Mono.just(sanc);
+        }));
+        when(decisionEngine.decide(any(), any(), any(), any(), any())).thenReturn(KycDecisionType.APPROVED);
+
+        var request = new VerificationRequest(
+                "r1", "c1", "John Doe", "1990-01-01", "UK",
+                null, null, null, null,
+                null, null,
+                null, null, null, null,
+                Set.of(VerificationType.SANCTIONS)
+        );
+
+        // When
+        service.verify(request, Duration.ofMillis(500)).block();
+
+        // Then
+        var remaining = seen.get().remaining();
+        assertTrue(remaining.compareTo(Duration.ofMillis(500)) <= 0, remaining.toString());
+        assertTrue(remaining.compareTo(Duration.ZERO) > 0, remaining.toString());
+    }
+
+    @Test
+    void verifyStream_shouldEmitProviderResultsAsTheyCompleteThenDecision() {
+        // Given
+        var service = service(Clock.systemUTC());
+
+        when(documentClient.verify(any())).thenReturn(Mono.delay(Duration.ofMillis(100))
+                .thenReturn(new DocumentVerificationResponse(VerificationStatus.PASS, 90, null)));
+        when(biometricClient.match(any())).thenReturn(Mono.delay(Duration.ofMillis(300))
+                .thenReturn(new BiometricResponse(VerificationStatus.PASS, 88, 0.95)));
+        when(addressClient.verify(any())).thenReturn(Mono.delay(Duration.ofMillis(200))
+                .thenReturn(new AddressVerificationResponse(VerificationStatus.PASS, 85, null)));
+        when(sanctionsClient.check(any())).thenReturn(Mono.just(new SanctionsResponse(SanctionsStatus.CLEAR, 0, null)));
+        when(decisionEngine.decide(any(), any(), any(), any(), any())).thenReturn(KycDecisionType.APPROVED);
+
+        // When
+        var events = service.verifyStream(request(), null).collectList().block();
+
+        // Then
+        assertEquals(
+                List.of("sanctions", "document", "address", "biometric", "decision"),
+                events.stream().map(VerificationEvent::name).toList());
+        assertEquals(KycDecisionType.APPROVED, ((KycDecision) events.get(4).data()).decision());
+    }
 }
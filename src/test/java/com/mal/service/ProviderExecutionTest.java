@@ -0,0 +1,65 @@
+package com.mal.service;
+
+import com.mal.config.ExecutionProperties;
+import com.mal.config.ExecutionProperties.ExecutionMode;
+import com.mal.integration.Provider;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class ProviderExecutionTest {
+
+    private ExecutionProperties props(ExecutionMode mode) {
+        var p = new ExecutionProperties();
+        p.setMode(mode);
+        p.setPoolSize(2);
+        p.setQueueCapacity(10);
+        return p;
+    }
+
+    private Mono<String> currentThread() {
+        return Mono.fromCallable(() -> Thread.currentThread().getName());
+    }
+
+    @Test
+    void reactive_shouldRunOnCallerThread() {
+        // given
+        var execution = new ProviderExecution(props(ExecutionMode.REACTIVE));
+
+        // when
+        var thread = execution.dispatch(Provider.DOCUMENT, currentThread()).block();
+
+        // then
+        assertEquals(Thread.currentThread().getName(), thread);
+    }
+
+    @Test
+    void platform_shouldRunOnDedicatedPoolPerProvider() {
+        // given
+        var execution = new ProviderExecution(props(ExecutionMode.PLATFORM));
+
+        try {
+            // when
+            var doc = execution.dispatch(Provider.DOCUMENT, currentThread()).block();
+            var sanc = execution.dispatch(Provider.SANCTIONS, currentThread()).block();
+
+            // then
+            assertTrue(doc.startsWith("kyc-document"), doc);
+            assertTrue(sanc.startsWith("kyc-sanctions"), sanc);
+        } finally {
+            execution.destroy();
+        }
+    }
+
+    @Test
+    void virtual_shouldFailFast_whenRuntimeHasNoVirtualThreads() {
+        assumeTrue(Runtime.version().feature() < 21);
+
+        assertThrows(IllegalStateException.class,
+                () -> new ProviderExecution(props(ExecutionMode.VIRTUAL)));
+    }
+}
@@ -0,0 +1,175 @@
+package com.mal.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mal.config.RescreeningProperties;
+import com.mal.config.WatchlistProperties;
+import com.mal.integration.Priority;
+import com.mal.integration.SanctionsClient;
+import com.mal.integration.dto.SanctionsRequest;
+import com.mal.integration.dto.SanctionsResponse;
+import com.mal.integration.dto.SanctionsStatus;
+import com.mal.screening.WatchlistChange;
+import com.mal.screening.WatchlistEntry;
+import com.mal.screening.WatchlistScreening;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RescreeningServiceTest {
+
+    private static final SanctionsResponse CLEAR = new SanctionsResponse(SanctionsStatus.CLEAR, 0, null);
+    private static final SanctionsResponse HIT = new SanctionsResponse(SanctionsStatus.HIT, 1, null);
+
+    @TempDir
+    Path dir;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final List<String> checked = new CopyOnWriteArrayList<>();
+    private final List<Priority> priorities = new CopyOnWriteArrayList<>();
+
+    private Path customers() throws IOException {
+        return Files.writeString(dir.resolve("customers.ndjson"), """
+                {"customerId":"c1","fullName":"Jane Roe","dateOfBirth":"1980-02-02","nationality":"GB"}
+                {"customerId":"c2","fullName":"John Smith","dateOfBirth":"1975-05-05","nationality":"US"}
+                {"customerId":"c3","fullName":"Jane Rowe","dateOfBirth":"1980-02-02","nationality":"GB"}
+                {"customerId":"c4","fullName":"Peter Parker","dateOfBirth":null,"nationality":null}
+                """);
+    }
+
+    private RescreeningService service(Function<SanctionsRequest, Mono<SanctionsResponse>> provider) throws IOException {
+        return service(provider, 1, Duration.ofHours(1));
+    }
+
+    private RescreeningService service(
+            Function<SanctionsRequest, Mono<SanctionsResponse>> provider,
+            int chunkSize,
+            Duration retryDelay) throws IOException {
+        var props = new RescreeningProperties();
+        props.setEnabled(true);
+        props.setCustomers(customers().toString());
+        props.setCheckpoint(dir.resolve("state").resolve("checkpoint.json").toString());
+        props.setResults(dir.resolve("state").resolve("hits.ndjson").toString());
+        props.setChunkSize(chunkSize);
+        props.setConcurrency(1);
+        props.setRetryDelay(retryDelay);
+
+        var sanctionsClient = mock(SanctionsClient.class);
+        when(sanctionsClient.check(any())).thenAnswer(inv -> Mono.deferContextual(ctx -> {
+            SanctionsRequest request = inv.getArgument(0);
+            checked.add(request.customerId());
+            priorities.add(Priority.from(ctx));
+            return provider.apply(request);
+        }));
+        return new RescreeningService(props, new WatchlistProperties(), mock(WatchlistScreening.class),
+                sanctionsClient, mapper, registry, Clock.systemUTC());
+    }
+
+    private static WatchlistChange change(String version) {
+        return new WatchlistChange("v1", version,
+                List.of(new WatchlistEntry("w1", "Jane Roe", List.of(), "1980-02-02", "GB", "UN")));
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 500 && !condition.getAsBoolean(); i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    @Test
+    void shouldAskProvider_onlyForCustomersMatchingChangedEntries_inBackground() throws Exception {
+        // given
+        var service = service(request -> Mono.just(request.customerId().equals("c1") ? HIT : CLEAR));
+
+        // when
+        service.onChange(change("v2"));
+        waitFor(() -> service.pending() == 0);
+
+        // then
+        assertEquals(List.of("c1", "c3"), checked);
+        assertTrue(priorities.stream().allMatch(priority -> priority == Priority.BACKGROUND));
+        var hits = Files.readAllLines(dir.resolve("state").resolve("hits.ndjson"));
+        assertEquals(1, hits.size());
+        assertEquals("c1", mapper.readTree(hits.get(0)).get("customerId").asText());
+        assertEquals("v2", mapper.readTree(hits.get(0)).get("watchlistVersion").asText());
+        assertEquals(2.0, registry.counter("kyc.rescreening.customers", "outcome", "cleared").count());
+        service.destroy();
+    }
+
+    @Test
+    void shouldPause_whenProviderCannotBeAsked_andResumeFromCheckpointAfterRestart() throws Exception {
+        // given
+        var first = service(request -> request.customerId().equals("c1") ? Mono.just(CLEAR) : Mono.empty());
+        first.onChange(change("v2"));
+        waitFor(() -> registry.counter("kyc.rescreening.customers", "outcome", "unresolved").count() == 1);
+        first.destroy();
+        checked.clear();
+
+        // when
+        var restarted = service(request -> Mono.just(CLEAR));
+        waitFor(() -> restarted.pending() == 0);
+        restarted.onChange(change("v2"));
+
+        // then
+        assertEquals(List.of("c3"), checked);
+        assertEquals(0, restarted.pending());
+        restarted.destroy();
+    }
+
+    @Test
+    void shouldRetryOnlyUnresolvedCustomers_withoutRepeatingHits() throws Exception {
+        // given — c1 is a hit; the first check of c3 finds no permit
+        var c3Calls = new AtomicInteger();
+        var service = service(request -> switch (request.customerId()) {
+            case "c1" -> Mono.just(HIT);
+            case "c3" -> c3Calls.getAndIncrement() == 0 ? Mono.empty() : Mono.just(CLEAR);
+            default -> Mono.just(CLEAR);
+        }, 10, Duration.ofMillis(50));
+
+        // when
+        service.onChange(change("v2"));
+        waitFor(() -> service.pending() == 0);
+
+        // then
+        assertEquals(List.of("c1", "c3", "c3"), checked);
+        var hits = Files.readAllLines(dir.resolve("state").resolve("hits.ndjson"));
+        assertEquals(1, hits.size());
+        assertEquals("c1", mapper.readTree(hits.get(0)).get("customerId").asText());
+        service.destroy();
+    }
+
+    @Test
+    void shouldMergeChanges_queuedBehindRunningOne() throws Exception {
+        // given
+        var service = service(request -> Mono.never());
+        service.onChange(change("v2"));
+
+        // when
+        service.onChange(change("v3"));
+        service.onChange(new WatchlistChange("v3", "v4",
+                List.of(new WatchlistEntry("w2", "John Smith", List.of(), null, null, "UN"))));
+
+        // then
+        assertEquals(2, service.pending());
+        service.destroy();
+    }
+}
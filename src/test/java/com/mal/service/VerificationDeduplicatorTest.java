@@ -0,0 +1,108 @@
+package com.mal.service;
+
+import com.mal.config.IdempotencyProperties;
+import com.mal.model.KycDecision;
+import com.mal.model.KycDecisionType;
+import com.mal.model.VerificationRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class VerificationDeduplicatorTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final VerificationDeduplicator deduplicator =
+            new VerificationDeduplicator(new IdempotencyProperties(), registry);
+
+    private VerificationRequest request(String requestId, String customerId) {
+        return new VerificationRequest(
+                requestId, customerId, "John Doe", "1990-01-01", "UK",
+                null, null, null, null, null, null, null, null, null, null, null);
+    }
+
+    private KycDecision decision(String customerId) {
+        return new KycDecision("r1", customerId, KycDecisionType.APPROVED,
+                null, null, null, null, "2026-01-01T10:00:00Z");
+    }
+
+    private double outcome(String outcome) {
+        return registry.counter("kyc.idempotency.requests", "outcome", outcome).count();
+    }
+
+    @Test
+    void deduplicate_shouldJoinVerificationInFlight() {
+        // given
+        var calls = new AtomicInteger();
+        var pending = Sinks.<KycDecision>one();
+        var request = request("r1", "c1");
+
+        // when
+        var first = deduplicator.deduplicate(request, () -> {
+            calls.incrementAndGet();
+            return pending.asMono();
+        }).toFuture();
+        var second = deduplicator.deduplicate(request, () -> {
+            calls.incrementAndGet();
+            return Mono.never();
+        }).toFuture();
+        pending.tryEmitValue(decision("c1"));
+
+        // then
+        assertEquals(1, calls.get());
+        assertEquals(decision("c1"), first.join());
+        assertEquals(decision("c1"), second.join());
+        assertEquals(1, outcome("inflight"));
+    }
+
+    @Test
+    void deduplicate_shouldReplayCompletedDecision() {
+        // given
+        var calls = new AtomicInteger();
+        var request = request("r1", "c1");
+        deduplicator.deduplicate(request, () -> Mono.just(decision("c1"))).block();
+
+        // when
+        var result = deduplicator.deduplicate(request, () -> {
+            calls.incrementAndGet();
+            return Mono.just(decision("c1"));
+        }).block();
+
+        // then
+        assertEquals(0, calls.get());
+        assertEquals(decision("c1"), result);
+        assertEquals(1, outcome("completed"));
+    }
+
+    @Test
+    void deduplicate_shouldRunAgain_whenPreviousAttemptFailed() {
+        // given
+        var request = request("r1", "c1");
+        assertThrows(IllegalStateException.class, () ->
+                deduplicator.deduplicate(request, () -> Mono.error(new IllegalStateException())).block());
+
+        // when
+        var result = deduplicator.deduplicate(request, () -> Mono.just(decision("c1"))).block();
+
+        // then
+        assertEquals(decision("c1"), result);
+        assertEquals(2, outcome("executed"));
+    }
+
+    @Test
+    void deduplicate_shouldNotShareDecisions_acrossCustomers() {
+        // given
+        deduplicator.deduplicate(request("r1", "c1"), () -> Mono.just(decision("c1"))).block();
+
+        // when
+        var result = deduplicator.deduplicate(request("r1", "c2"), () -> Mono.just(decision("c2"))).block();
+
+        // then
+        assertEquals("c2", result.customerId());
+    }
+}
@@ -0,0 +1,108 @@
+package com.mal.service;
+
+import com.mal.config.JobProperties;
+import com.mal.model.JobStatus;
+import com.mal.model.KycDecision;
+import com.mal.model.KycDecisionType;
+import com.mal.model.VerificationRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Clock;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class VerificationJobServiceTest {
+
+    private final VerificationRequest request = new VerificationRequest(
+            "r1", "c1", "John Doe", "1990-01-01", "UK",
+            null, null, null, null, null, null, null, null, null, null, null);
+
+    private final KycDecision decision = new KycDecision(
+            "r1", "c1", KycDecisionType.APPROVED, null, null, null, null, "2026-01-01T10:00:00Z");
+
+    private JobProperties props(int maxInFlight, Duration ttl) {
+        var p = new JobProperties();
+        p.setMaxInFlight(maxInFlight);
+        p.setMaxSize(100);
+        p.setTtl(ttl);
+        return p;
+    }
+
+    @Test
+    void submit_shouldStorePendingJob_untilDecisionArrives() {
+        // given
+        var pending = Sinks.<KycDecision>one();
+        var kycService = mock(KycService.class);
+        when(kycService.verify(any())).thenReturn(pending.asMono());
+        var jobs = new VerificationJobService(kycService, props(10, Duration.ofMinutes(1)),
+                new SimpleMeterRegistry(), Clock.systemUTC());
+
+        // when
+        var job = jobs.submit(request).orElseThrow();
+
+        // then
+        assertEquals(JobStatus.PENDING, jobs.find(job.id()).orElseThrow().status());
+
+        pending.tryEmitValue(decision);
+
+        var done = jobs.find(job.id()).orElseThrow();
+        assertEquals(JobStatus.COMPLETED, done.status());
+        assertEquals(decision, done.result());
+    }
+
+    @Test
+    void submit_shouldRefuse_whenInFlightLimitReached() {
+        // given
+        var kycService = mock(KycService.class);
+        when(kycService.verify(any())).thenReturn(Mono.never());
+        var jobs = new VerificationJobService(kycService, props(2, Duration.ofMinutes(1)),
+                new SimpleMeterRegistry(), Clock.systemUTC());
+
+        // when
+        var first = jobs.submit(request);
+        var second = jobs.submit(request);
+        var third = jobs.submit(request);
+
+        // then
+        assertTrue(first.isPresent());
+        assertTrue(second.isPresent());
+        assertTrue(third.isEmpty());
+    }
+
+    @Test
+    void submit_shouldAdmitAgain_onceRunningJobsFinish() {
+        // given
+        var kycService = mock(KycService.class);
+        when(kycService.verify(any())).thenReturn(Mono.just(decision));
+        var jobs = new VerificationJobService(kycService, props(1, Duration.ofMinutes(1)),
+                new SimpleMeterRegistry(), Clock.systemUTC());
+
+        // when / then
+        assertTrue(jobs.submit(request).isPresent());
+        assertTrue(jobs.submit(request).isPresent());
+    }
+
+    @Test
+    void find_shouldForgetJobs_afterTtl() throws Exception {
+        // given
+        var kycService = mock(KycService.class);
+        when(kycService.verify(any())).thenReturn(Mono.just(decision));
+        var jobs = new VerificationJobService(kycService, props(10, Duration.ofMillis(100)),
+                new SimpleMeterRegistry(), Clock.systemUTC());
+        var job = jobs.submit(request).orElseThrow();
+
+        // when
+        Thread.sleep(150);
+
+        // then
+        assertTrue(jobs.find(job.id()).isEmpty());
+    }
+}